@@ -2,12 +2,21 @@ package com.maxxton.silverheavens;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SilverheavensApplication {
 
+	/**
+	 * Startup steps kept for the startup report ({@code /actuator/startup}); enough for a
+	 * full context refresh.
+	 */
+	static final int STARTUP_STEPS = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(SilverheavensApplication.class, args);
+		SpringApplication application = new SpringApplication(SilverheavensApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
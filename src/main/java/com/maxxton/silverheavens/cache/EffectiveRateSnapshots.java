@@ -0,0 +1,251 @@
+package com.maxxton.silverheavens.cache;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.maxxton.silverheavens.concurrency.SingleFlight;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Per-bungalow snapshots of the rows bookable today, the effective pricing for every
+ * quote booked today, with the snapshots for tomorrow built ahead of the date change.
+ *
+ * <p>A generation holds the snapshots for one booking date. Bungalows are added to the
+ * current generation when first quoted that day, up to {@code rates.effective.max-bungalows}.
+ * Before midnight ({@code rates.effective.prepare-cron}) the next generation is prepared:
+ * only bungalows where a rate opens for booking tomorrow or closed for booking today get
+ * new snapshots, read from the database ahead of time; every other snapshot is carried
+ * over as is, since its bookable rows do not change. At the boundary the next generation
+ * replaces the current one in a single reference swap, done by the first quote for the
+ * new date or by the scheduled swap ({@code rates.effective.swap-cron}), whichever comes
+ * first. Quotes right after midnight therefore find their snapshots ready instead of all
+ * reloading at once.</p>
+ *
+ * <p>Snapshots are tagged with the bungalow version read before their rows, as in
+ * {@link RateTimelineCache}, and are only served while no newer version is known. Newer
+ * versions arrive from {@link RateVersionRecorder} after local commits, and from the bus
+ * or {@link RateVersionPoller} for commits on other replicas.</p>
+ */
+@Component
+public class EffectiveRateSnapshots {
+
+    private record Entry(long version, RateTimeline timeline) {
+    }
+
+    private record Generation(LocalDate day, Map<Long, Entry> entries) {
+    }
+
+    private record LoadKey(long bungalowId, LocalDate day) {
+    }
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private RateInvalidationBus invalidationBus;
+
+    @Value("${rates.effective.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Maximum number of bungalows held per generation.
+     */
+    @Value("${rates.effective.max-bungalows:100000}")
+    private int maxBungalows;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final AtomicReference<Generation> current = new AtomicReference<>();
+
+    private final AtomicReference<Generation> next = new AtomicReference<>();
+
+    private final Map<Long, Long> latestVersions = new ConcurrentHashMap<>();
+
+    private final SingleFlight<LoadKey, Entry> loads = new SingleFlight<>();
+
+    @PostConstruct
+    void init() {
+        current.set(new Generation(today(), new ConcurrentHashMap<>()));
+        invalidationBus.subscribe(this::onVersion);
+    }
+
+    /**
+     * Returns the rows of a bungalow bookable on the given date, reading and keeping them
+     * on the first quote of the day.
+     *
+     * @param bungalowId bungalow to price
+     * @param bookingDate date on which the booking is made
+     * @return the bookable rows, or {@code null} if the booking date is not today, or the
+     *         rows changed while being read, and the caller must use another source
+     */
+    public RateTimeline find(long bungalowId, LocalDate bookingDate) {
+        Generation generation = generationFor(bookingDate);
+        if (generation == null) {
+            return null;
+        }
+        Entry entry = generation.entries().get(bungalowId);
+        if (entry != null && isFresh(bungalowId, entry)) {
+            return entry.timeline();
+        }
+
+        entry = loads.load(new LoadKey(bungalowId, bookingDate), () -> read(bungalowId, bookingDate));
+        if (!isFresh(bungalowId, entry)) {
+            return null;
+        }
+        if (generation.entries().size() < maxBungalows) {
+            generation.entries().put(bungalowId, entry);
+        }
+        return entry.timeline();
+    }
+
+    /**
+     * Returns the generation serving the booking date, switching to the prepared or a new
+     * generation once that date has become today.
+     */
+    private Generation generationFor(LocalDate bookingDate) {
+        Generation generation = current.get();
+        if (generation.day().equals(bookingDate)) {
+            return generation;
+        }
+        if (!bookingDate.equals(today())) {
+            return null;
+        }
+        swap(bookingDate);
+        generation = current.get();
+        return generation.day().equals(bookingDate) ? generation : null;
+    }
+
+    /**
+     * Prepares tomorrow's generation shortly before midnight.
+     */
+    @Scheduled(cron = "${rates.effective.prepare-cron:0 30 23 * * *}")
+    public void prepareTomorrow() {
+        if (enabled) {
+            prepare(today().plusDays(1));
+        }
+    }
+
+    /**
+     * Swaps in the prepared generation at midnight, unless a quote already did.
+     */
+    @Scheduled(cron = "${rates.effective.swap-cron:0 0 0 * * *}")
+    public void swapToday() {
+        if (enabled) {
+            swap(today());
+        }
+    }
+
+    /**
+     * Builds the generation for the given booking date from the current one: bungalows
+     * whose bookable rows change on that date are read again, the others are carried over.
+     *
+     * @param day the next booking date, normally tomorrow
+     * @return number of bungalows read from the database, -1 if the current generation is
+     *         not for the day before and nothing was prepared
+     */
+    public synchronized int prepare(LocalDate day) {
+        Generation base = current.get();
+        if (!base.day().equals(day.minusDays(1))) {
+            return -1;
+        }
+
+        Set<Long> affected = new HashSet<>(rateJdbcRepository.findBookingBoundaryBungalows(day));
+        Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        int read = 0;
+        for (Map.Entry<Long, Entry> cached : base.entries().entrySet()) {
+            long bungalowId = cached.getKey();
+            if (!affected.contains(bungalowId)) {
+                if (isFresh(bungalowId, cached.getValue())) {
+                    entries.put(bungalowId, cached.getValue());
+                }
+                continue;
+            }
+            Entry entry = read(bungalowId, day);
+            read++;
+            if (isFresh(bungalowId, entry)) {
+                entries.put(bungalowId, entry);
+            }
+        }
+        next.set(new Generation(day, entries));
+        return read;
+    }
+
+    /**
+     * Makes the given booking date current: the prepared generation if it is for that
+     * date, otherwise an empty one. Does nothing if the date is already current. Lock-free,
+     * so a quote at the boundary never waits for a preparation that is still running.
+     */
+    private void swap(LocalDate day) {
+        Generation generation = current.get();
+        if (generation.day().equals(day)) {
+            return;
+        }
+        Generation prepared = next.get();
+        Generation replacement = prepared != null && prepared.day().equals(day)
+                ? prepared
+                : new Generation(day, new ConcurrentHashMap<>());
+        if (current.compareAndSet(generation, replacement)) {
+            next.compareAndSet(prepared, null);
+        }
+    }
+
+    /**
+     * Reads a bungalow's version, then its rows bookable on the given date.
+     */
+    private Entry read(long bungalowId, LocalDate day) {
+        long version = rateJdbcRepository.findRateVersion(bungalowId);
+        return new Entry(version, rateJdbcRepository.findBookableTimeline(bungalowId, day));
+    }
+
+    /**
+     * Records that a bungalow reached the given version and drops its older snapshots.
+     *
+     * @param bungalowId bungalow whose rates changed
+     * @param version version reached by the change
+     */
+    public void onVersion(long bungalowId, long version) {
+        latestVersions.merge(bungalowId, version, Math::max);
+        loads.forget(key -> key.bungalowId() == bungalowId);
+        for (Generation generation : new Generation[] {current.get(), next.get()}) {
+            if (generation != null) {
+                generation.entries().computeIfPresent(bungalowId,
+                        (id, entry) -> entry.version() >= version ? entry : null);
+            }
+        }
+    }
+
+    /**
+     * @return booking date of the current generation
+     */
+    public LocalDate getCurrentDay() {
+        return current.get().day();
+    }
+
+    /**
+     * @return number of bungalows in the current generation
+     */
+    public int size() {
+        return current.get().entries().size();
+    }
+
+    private boolean isFresh(long bungalowId, Entry entry) {
+        return entry.version() >= latestVersions.getOrDefault(bungalowId, 0L);
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+}
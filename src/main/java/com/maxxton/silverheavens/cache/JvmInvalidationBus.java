@@ -0,0 +1,51 @@
+package com.maxxton.silverheavens.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * {@link RateInvalidationBus} connecting all application contexts inside the same JVM
+ * through a named, process-wide channel. Used to run several replicas side by side in
+ * tests or on a single host.
+ */
+public class JvmInvalidationBus implements RateInvalidationBus, DisposableBean {
+
+    private static final Map<String, List<Listener>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    private final List<Listener> ownListeners = new CopyOnWriteArrayList<>();
+
+    public JvmInvalidationBus(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(long bungalowId, long version) {
+        for (Listener listener : CHANNELS.getOrDefault(channel, List.of())) {
+            listener.onVersion(bungalowId, version);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        CHANNELS.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+        ownListeners.add(listener);
+    }
+
+    /**
+     * Detaches this context's listeners so a closed context stops receiving messages.
+     */
+    @Override
+    public void destroy() {
+        List<Listener> listeners = CHANNELS.get(channel);
+        if (listeners != null) {
+            listeners.removeAll(ownListeners);
+        }
+        ownListeners.clear();
+    }
+}
@@ -0,0 +1,133 @@
+package com.maxxton.silverheavens.cache;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.maxxton.silverheavens.pricing.OffHeapRateStore;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps a portfolio-wide {@link OffHeapRateStore} of all active and recently closed rates,
+ * rebuilt in the background and swapped in atomically.
+ *
+ * <p>Bungalow versions are read before the rows, as in {@link RateTimelineCache}, so each
+ * bungalow is tagged with a version no newer than its content. Version bumps arriving
+ * from local commits, the {@link RateInvalidationBus} or the {@link RateVersionPoller}
+ * mark the bungalow stale in the current snapshot, and callers read it from the database
+ * until the next rebuild. Bumps seen while a rebuild is running are replayed onto the new
+ * snapshot once it is published.</p>
+ */
+@Component
+public class OffHeapRateSnapshot {
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private RateInvalidationBus invalidationBus;
+
+    @Value("${rates.offheap.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * How long closed rates stay in the snapshot; quotes booked earlier than this fall
+     * back to the database.
+     */
+    @Value("${rates.offheap.history-days:400}")
+    private int historyDays;
+
+    private final AtomicReference<OffHeapRateStore> current = new AtomicReference<>();
+
+    private final Map<Long, Long> changedDuringRebuild = new ConcurrentHashMap<>();
+
+    private volatile boolean rebuilding;
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(this::onVersion);
+    }
+
+    /**
+     * Returns a bungalow's rows from the current snapshot.
+     *
+     * @param bungalowId bungalow to price
+     * @param bookingDate date on which the booking is made
+     * @return the bungalow's timeline, or {@code null} if the snapshot cannot answer and
+     *         the caller must read the database
+     */
+    public RateTimeline find(long bungalowId, LocalDate bookingDate) {
+        OffHeapRateStore store = current.get();
+        return store == null ? null : store.timeline(bungalowId, (int) bookingDate.toEpochDay());
+    }
+
+    /**
+     * Marks a bungalow stale in the current snapshot if the version is newer than its rows.
+     *
+     * @param bungalowId bungalow whose rates changed
+     * @param version version reached by the change
+     */
+    public void onVersion(long bungalowId, long version) {
+        if (rebuilding) {
+            changedDuringRebuild.merge(bungalowId, version, Math::max);
+        }
+        OffHeapRateStore store = current.get();
+        if (store != null) {
+            store.invalidate(bungalowId, version);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot on the configured interval, starting at application startup.
+     */
+    @Scheduled(fixedDelayString = "${rates.offheap.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reads all bookable and recently closed rows into a new snapshot and publishes it.
+     *
+     * @return the published snapshot
+     */
+    public synchronized OffHeapRateStore rebuild() {
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            LocalDate horizon = LocalDate.now().minusDays(historyDays);
+            RateJdbcRepository.RowCount count = rateJdbcRepository.countPricingRows(horizon);
+
+            OffHeapRateStore.Builder builder = new OffHeapRateStore.Builder(
+                    (int) Math.min(count.rows() + count.rows() / 8, Integer.MAX_VALUE),
+                    (int) Math.min(count.bungalows(), Integer.MAX_VALUE),
+                    (int) horizon.toEpochDay());
+            rateJdbcRepository.streamRateVersions(builder::version);
+            rateJdbcRepository.streamPricingRows(horizon, builder::add);
+
+            OffHeapRateStore store = builder.build();
+            current.set(store);
+            changedDuringRebuild.forEach(store::invalidate);
+            return store;
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    /**
+     * @return the current snapshot, or {@code null} before the first build
+     */
+    public OffHeapRateStore current() {
+        return current.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.maxxton.silverheavens.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Wiring for the replica-local rate caches and the invalidation channel between replicas.
+ */
+@Configuration
+@EnableScheduling
+public class RateCacheConfig {
+
+    /**
+     * Selects the invalidation bus implementation.
+     * <ul>
+     *   <li>{@code polling} (default): no push messages, replicas converge through {@link RateVersionPoller}</li>
+     *   <li>{@code jvm}: broadcast between application contexts in the same JVM</li>
+     * </ul>
+     *
+     * @param type configured bus type
+     * @param channel channel name for the {@code jvm} bus
+     * @return the bus used by this replica
+     */
+    @Bean
+    public RateInvalidationBus rateInvalidationBus(@Value("${rates.cache.bus:polling}") String type,
+                                                   @Value("${rates.cache.bus-channel:rates}") String channel) {
+        return switch (type) {
+            case "polling" -> RateInvalidationBus.NONE;
+            case "jvm" -> new JvmInvalidationBus(channel);
+            default -> throw new IllegalArgumentException("Unknown rates.cache.bus: " + type);
+        };
+    }
+}
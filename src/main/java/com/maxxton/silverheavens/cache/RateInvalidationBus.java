@@ -0,0 +1,43 @@
+package com.maxxton.silverheavens.cache;
+
+/**
+ * Broadcasts per-bungalow version bumps between service replicas so that each one
+ * can drop stale entries from its local caches right after a commit elsewhere.
+ *
+ * <p>Delivery is best-effort: the database polling fallback in {@link RateVersionPoller}
+ * bounds staleness when a message is lost. Replace the bean to plug in a real
+ * message broker.</p>
+ */
+public interface RateInvalidationBus {
+
+    /**
+     * Receiver of version bumps.
+     */
+    @FunctionalInterface
+    interface Listener {
+        void onVersion(long bungalowId, long version);
+    }
+
+    /**
+     * Bus that delivers nothing; replicas rely on polling alone.
+     */
+    RateInvalidationBus NONE = new RateInvalidationBus() {
+        @Override
+        public void publish(long bungalowId, long version) {
+        }
+
+        @Override
+        public void subscribe(Listener listener) {
+        }
+    };
+
+    /**
+     * Announces that a bungalow's rates reached the given version.
+     */
+    void publish(long bungalowId, long version);
+
+    /**
+     * Registers a receiver for bumps published by any replica, including this one.
+     */
+    void subscribe(Listener listener);
+}
@@ -0,0 +1,218 @@
+package com.maxxton.silverheavens.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxxton.silverheavens.concurrency.RateFetchCoalescer;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Replica-local cache of complete per-bungalow rate timelines (active and closed rows),
+ * tagged with the {@link com.maxxton.silverheavens.entity.RateVersion} they were read at.
+ *
+ * <p>An entry is served only while no newer version is known for its bungalow. Newer
+ * versions arrive from local commits, from the {@link RateInvalidationBus}, and from the
+ * {@link RateVersionPoller} fallback; in addition every entry expires after
+ * {@code rates.cache.max-staleness-ms}, which bounds staleness even if both channels fail.</p>
+ *
+ * <p>The version is read before the rows, so an entry can only ever be tagged with a
+ * version that is older than or equal to its content, never newer.</p>
+ *
+ * <p>Bungalow popularity is heavily skewed, so the cache is bounded by an approximate
+ * byte budget ({@code rates.cache.max-weight-bytes}) and uses Caffeine's W-TinyLFU policy:
+ * a newly loaded timeline is only admitted if it has been asked for more often than the
+ * entry it would evict, as estimated by a frequency sketch. A burst of one-off lookups
+ * therefore cannot flush the hot bungalows. Bulk jobs can go further and run inside
+ * {@link #scan(Supplier)}, which neither admits the timelines they load nor counts their
+ * hits towards popularity.</p>
+ *
+ * <p>Exposes the standard Caffeine meters under {@code cache=rates.timeline} (hits,
+ * misses, evictions and their weight), plus {@code rates.cache.weight} and
+ * {@code rates.cache.hit.ratio}.</p>
+ */
+@Component
+public class RateTimelineCache {
+
+    private record Entry(long version, RateTimeline timeline) {
+    }
+
+    /**
+     * Rough heap cost of an entry besides its timeline: the entry, its key and the
+     * cache node holding them.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 120;
+
+    private static final ThreadLocal<Boolean> SCANNING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private RateInvalidationBus invalidationBus;
+
+    /**
+     * Lets concurrent misses on the same bungalow share one load.
+     */
+    @Autowired
+    private RateFetchCoalescer fetchCoalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Upper bound on how long an entry may be served without being re-read.
+     */
+    @Value("${rates.cache.max-staleness-ms:30000}")
+    private long maxStalenessMs;
+
+    /**
+     * Approximate heap budget of all cached timelines together.
+     */
+    @Value("${rates.cache.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    private Cache<Long, Entry> entries;
+
+    /**
+     * Highest version seen per bungalow, from any source.
+     */
+    private final Map<Long, Long> latestVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long bungalowId, Entry entry) ->
+                        (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + entry.timeline().heapBytes()))
+                .expireAfterWrite(Duration.ofMillis(maxStalenessMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "rates.timeline");
+        Gauge.builder("rates.cache.weight", this, RateTimelineCache::getWeightBytes)
+                .description("Approximate heap bytes held by cached rate timelines")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("rates.cache.hit.ratio", entries, cache -> cache.stats().hitRate())
+                .description("Share of timeline lookups answered from the cache since startup")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(this::onVersion);
+    }
+
+    /**
+     * Returns the complete timeline of a bungalow, loading it if the cached copy is
+     * missing, expired or older than the latest known version. Concurrent misses on the
+     * same bungalow share a single load.
+     *
+     * @param bungalowId bungalow to fetch
+     * @return every rate row of the bungalow ordered by stay start date
+     */
+    public RateTimeline get(long bungalowId) {
+        Entry entry = SCANNING.get()
+                ? entries.policy().getIfPresentQuietly(bungalowId)
+                : entries.getIfPresent(bungalowId);
+        if (entry != null && isFresh(bungalowId, entry)) {
+            return entry.timeline();
+        }
+        return fetchCoalescer.bungalowTimeline(bungalowId, () -> load(bungalowId));
+    }
+
+    /**
+     * Tells whether {@link #get} would currently answer from the cache, without counting
+     * as a lookup in the statistics or the admission policy.
+     *
+     * @param bungalowId bungalow to check
+     * @return whether a fresh timeline of the bungalow is cached
+     */
+    public boolean isCached(long bungalowId) {
+        Entry entry = entries.policy().getIfPresentQuietly(bungalowId);
+        return entry != null && isFresh(bungalowId, entry);
+    }
+
+    /**
+     * Runs a bulk job, such as a portfolio-wide re-pricing, in scan-resistant mode: on
+     * the calling thread, cached timelines are still served, but lookups do not count
+     * towards popularity and timelines loaded on a miss are not admitted.
+     *
+     * @param job work that reads many bungalows once each
+     * @param <T> result type
+     * @return the result of the job
+     */
+    public <T> T scan(Supplier<T> job) {
+        if (SCANNING.get()) {
+            return job.get();
+        }
+        SCANNING.set(Boolean.TRUE);
+        try {
+            return job.get();
+        } finally {
+            SCANNING.remove();
+        }
+    }
+
+    /**
+     * Reads a bungalow's version and rows and caches them unless a newer version is known.
+     */
+    private RateTimeline load(long bungalowId) {
+        long version = rateJdbcRepository.findRateVersion(bungalowId);
+        RateTimeline timeline = rateJdbcRepository.findBungalowTimeline(bungalowId);
+
+        if (!SCANNING.get() && version >= latestVersions.getOrDefault(bungalowId, 0L)) {
+            entries.put(bungalowId, new Entry(version, timeline));
+        }
+        return timeline;
+    }
+
+    /**
+     * Records that a bungalow reached the given version and drops any older cached timeline.
+     *
+     * @param bungalowId bungalow whose rates changed
+     * @param version version reached by the change
+     */
+    public void onVersion(long bungalowId, long version) {
+        latestVersions.merge(bungalowId, version, Math::max);
+        entries.asMap().computeIfPresent(bungalowId, (id, entry) -> entry.version() >= version ? entry : null);
+    }
+
+    /**
+     * Drops every cached timeline.
+     */
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * @return approximate heap bytes currently held by cached timelines
+     */
+    public long getWeightBytes() {
+        return entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * @return number of cached bungalows
+     */
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    private boolean isFresh(long bungalowId, Entry entry) {
+        return entry.version() >= latestVersions.getOrDefault(bungalowId, 0L);
+    }
+}
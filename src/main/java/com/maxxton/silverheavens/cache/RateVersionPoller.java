@@ -0,0 +1,62 @@
+package com.maxxton.silverheavens.cache;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.maxxton.silverheavens.entity.RateVersion;
+import com.maxxton.silverheavens.repository.RateVersionRepository;
+
+/**
+ * Database-polling fallback for the {@link RateInvalidationBus}.
+ *
+ * <p>Periodically reads the {@code rate_version} rows updated recently and feeds them
+ * into the local caches. Each poll looks back over an overlap window rather than only
+ * since the previous poll, which tolerates clock skew between replicas and transactions
+ * that committed after their timestamp was taken.</p>
+ */
+@Component
+@ConditionalOnExpression("${rates.cache.enabled:false} or ${rates.offheap.enabled:false}"
+        + " or ${rates.effective.enabled:false}")
+public class RateVersionPoller {
+
+    @Autowired
+    private RateVersionRepository versionRepository;
+
+    @Autowired
+    private RateTimelineCache timelineCache;
+
+    @Autowired
+    private OffHeapRateSnapshot offHeapSnapshot;
+
+    @Autowired
+    private EffectiveRateSnapshots effectiveRateSnapshots;
+
+    /**
+     * How far behind the previous poll each poll starts reading.
+     */
+    @Value("${rates.cache.poll-overlap-ms:30000}")
+    private long overlapMs;
+
+    private Instant lastPoll = Instant.EPOCH;
+
+    /**
+     * Applies all recently changed versions to the local caches.
+     */
+    @Scheduled(fixedDelayString = "${rates.cache.poll-interval-ms:1000}")
+    public void poll() {
+        Instant started = Instant.now();
+        Instant since = lastPoll.equals(Instant.EPOCH) ? Instant.EPOCH : lastPoll.minusMillis(overlapMs);
+
+        for (RateVersion version : versionRepository.findByUpdatedAtAfter(since)) {
+            timelineCache.onVersion(version.getBungalowId(), version.getVersion());
+            offHeapSnapshot.onVersion(version.getBungalowId(), version.getVersion());
+            effectiveRateSnapshots.onVersion(version.getBungalowId(), version.getVersion());
+        }
+        lastPoll = started;
+    }
+}
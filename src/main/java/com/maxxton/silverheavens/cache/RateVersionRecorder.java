@@ -0,0 +1,141 @@
+package com.maxxton.silverheavens.cache;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.maxxton.silverheavens.entity.RateVersion;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateBatchChangedEvent;
+import com.maxxton.silverheavens.event.RateChangedEvent;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateVersionRepository;
+
+/**
+ * Maintains {@link RateVersion} counters and announces them once the change is durable.
+ *
+ * <p>Every bungalow touched by a transaction is collected while the transaction runs.
+ * Just before commit its version is incremented once (not once per row), and only after
+ * a successful commit is the new version applied to the local caches and broadcast on the
+ * {@link RateInvalidationBus}, so other replicas never reload before the data is visible.
+ * The first write of a bungalow creates its row; when two transactions race on that, the
+ * loser increments the row the winner created instead of failing its commit.</p>
+ */
+@Component
+public class RateVersionRecorder {
+
+    @Autowired
+    private RateVersionRepository versionRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private RateInvalidationBus invalidationBus;
+
+    @Autowired
+    private RateTimelineCache timelineCache;
+
+    @Autowired
+    private OffHeapRateSnapshot offHeapSnapshot;
+
+    @Autowired
+    private EffectiveRateSnapshots effectiveRateSnapshots;
+
+    /**
+     * Registers the bungalow of a changed rate for a version bump at commit.
+     *
+     * @param event mutation published by the rate service
+     */
+    @EventListener
+    public void onRateChanged(RateChangedEvent event) {
+        register(event.rate().getBungalowId());
+    }
+
+    /**
+     * Registers every bungalow of a set-based change for a version bump at commit.
+     *
+     * @param event mutation published by the rate service
+     */
+    @EventListener
+    public void onRatesChanged(RateBatchChangedEvent event) {
+        Set<Long> bungalowIds = new LinkedHashSet<>();
+        for (Rates rate : event.rates()) {
+            bungalowIds.add(rate.getBungalowId());
+        }
+        bungalowIds.forEach(this::register);
+    }
+
+    private void register(Long bungalowId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            announce(bungalowId, bump(bungalowId));
+            return;
+        }
+
+        PendingBumps pending = (PendingBumps) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingBumps();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.bungalowIds.add(bungalowId);
+    }
+
+    private long bump(Long bungalowId) {
+        Instant now = Instant.now();
+        if (versionRepository.increment(bungalowId, now) == 0) {
+            try {
+                rateJdbcRepository.insertRateVersion(bungalowId, now);
+                return 1L;
+            } catch (DuplicateKeyException e) {
+                // Another transaction wrote this bungalow for the first time concurrently
+                // and created the row first; it can be incremented now
+                versionRepository.increment(bungalowId, now);
+            }
+        }
+        return versionRepository.findVersion(bungalowId).orElse(1L);
+    }
+
+    private void announce(long bungalowId, long version) {
+        timelineCache.onVersion(bungalowId, version);
+        offHeapSnapshot.onVersion(bungalowId, version);
+        effectiveRateSnapshots.onVersion(bungalowId, version);
+        invalidationBus.publish(bungalowId, version);
+    }
+
+    /**
+     * Bungalows changed by the current transaction and the versions they were bumped to.
+     */
+    private final class PendingBumps implements TransactionSynchronization {
+
+        private final Set<Long> bungalowIds = new LinkedHashSet<>();
+
+        private final Map<Long, Long> versions = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            for (Long bungalowId : bungalowIds) {
+                versions.put(bungalowId, bump(bungalowId));
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            versions.forEach(RateVersionRecorder.this::announce);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RateVersionRecorder.this);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Admission control for the pricing endpoints, with a concurrency limit that follows
+ * the latency of the database instead of being fixed up front.
+ *
+ * <p>Requests beyond the current limit are rejected at once with a
+ * {@link ServiceOverloadedException} (503 with {@code Retry-After}) rather than queued,
+ * so a slow database can no longer pile quotes up on server threads until writes stop
+ * being served too. Admitted requests run under a {@link RequestDeadline} of
+ * {@code rates.pricing.deadline-ms}, which also bounds their SQL statements.</p>
+ *
+ * <p>The limit is adjusted after every admitted request, along the lines of a gradient
+ * limiter: a short-term average of the response time is compared with a long-term one,
+ * and while the short-term average is more than {@code latency-tolerance} times higher the
+ * limit shrinks towards what the database currently sustains. Otherwise it grows by
+ * about its square root, so capacity is probed again once latency recovers. Requests
+ * that time out shrink the limit by {@code backoff-ratio}. The limit only moves while
+ * it actually constrains traffic, so quiet periods do not inflate it.</p>
+ *
+ * <p>The limiter is opt-in through {@code rates.pricing.limiter.enabled}; when disabled
+ * requests are only subject to the deadline. Exposes {@code rates.pricing.limit},
+ * {@code rates.pricing.inflight} and {@code rates.pricing.rejected}.</p>
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /** Weight of a new sample in the short-term response time average. */
+    private static final double SHORT_ALPHA = 0.1;
+
+    /** Weight of a new sample in the long-term response time average. */
+    private static final double LONG_ALPHA = 2.0 / 601;
+
+    /** Share of the computed limit applied per sample, to damp oscillation. */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Whether requests are limited at all.
+     */
+    @Value("${rates.pricing.limiter.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Concurrency limit at startup.
+     */
+    @Value("${rates.pricing.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    /**
+     * The limit never drops below this, so that latency can still be measured.
+     */
+    @Value("${rates.pricing.limiter.min-limit:2}")
+    private int minLimit;
+
+    /**
+     * The limit never grows beyond this.
+     */
+    @Value("${rates.pricing.limiter.max-limit:200}")
+    private int maxLimit;
+
+    /**
+     * How much slower than the long-term average requests may become before the limit shrinks.
+     */
+    @Value("${rates.pricing.limiter.latency-tolerance:1.5}")
+    private double latencyTolerance;
+
+    /**
+     * Factor applied to the limit when an admitted request times out.
+     */
+    @Value("${rates.pricing.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    /**
+     * Seconds after which rejected clients are told to retry.
+     */
+    @Value("${rates.pricing.limiter.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    /**
+     * Time budget of an admitted request; 0 disables the deadline.
+     */
+    @Value("${rates.pricing.deadline-ms:0}")
+    private long deadlineMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    /** Current limit; written under the monitor, read without it on admission. */
+    private volatile int currentLimit;
+
+    private double limit;
+
+    private double shortRttNanos;
+
+    private double longRttNanos;
+
+    @PostConstruct
+    void init() {
+        limit = initialLimit;
+        currentLimit = initialLimit;
+
+        Gauge.builder("rates.pricing.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit of the pricing endpoints")
+                .register(meterRegistry);
+        Gauge.builder("rates.pricing.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Pricing requests currently admitted")
+                .register(meterRegistry);
+        FunctionCounter.builder("rates.pricing.rejected", rejected, LongAdder::sum)
+                .description("Pricing requests rejected because the limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the given pricing work if the limit allows it.
+     *
+     * @param work the pricing call to execute
+     * @return the result of {@code work}
+     * @throws ServiceOverloadedException if the limit is reached
+     */
+    public <T> T call(Supplier<T> work) {
+        if (!enabled) {
+            return RequestDeadline.call(deadlineMs, work);
+        }
+
+        int admittedAt = tryAcquire();
+        if (admittedAt < 0) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many concurrent price requests, try again shortly",
+                    retryAfterSeconds);
+        }
+
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        try {
+            return RequestDeadline.call(deadlineMs, work);
+        } catch (QueryTimeoutException | ServiceOverloadedException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - start, admittedAt, timedOut);
+        }
+    }
+
+    /**
+     * @return number of requests in flight including this one, or -1 if the limit is reached
+     */
+    private int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Adjusts the limit after an admitted request finished.
+     *
+     * @param rttNanos time the request took
+     * @param inFlightAtStart requests in flight when it was admitted, itself included
+     * @param timedOut whether it ran out of time on the database
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean timedOut) {
+        if (timedOut) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            currentLimit = (int) limit;
+            return;
+        }
+
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_ALPHA;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_ALPHA;
+        // Once latency has clearly improved, let the baseline catch up quickly
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, latencyTolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        currentLimit = (int) limit;
+    }
+
+    /**
+     * @return current concurrency limit
+     */
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    /**
+     * @return number of requests currently admitted
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return number of requests rejected since startup
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
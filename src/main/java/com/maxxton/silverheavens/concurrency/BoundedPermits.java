@@ -0,0 +1,112 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+
+/**
+ * Fixed number of slots, handed out in arrival order, for work that must not all run at
+ * once. A caller waits up to a timeout for a slot and is otherwise rejected with a
+ * {@link ServiceOverloadedException}, which is answered with 503 and {@code Retry-After}.
+ *
+ * <p>Shared by {@link JdbcConcurrencyLimiter} and {@link WriteBulkhead}, which differ only
+ * in their configuration and in how they tell a rejected client what was busy.</p>
+ */
+public final class BoundedPermits {
+
+    /**
+     * Work run while holding a slot, which may throw a checked exception.
+     *
+     * @param <T> result type
+     * @param <E> checked exception type
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private final int maxConcurrent;
+
+    private final String slot;
+
+    private final String rejection;
+
+    private final long retryAfterSeconds;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * @param maxConcurrent number of slots
+     * @param slot what a slot is, for the message when waiting is interrupted, e.g. "database slot"
+     * @param rejection message of the rejection when no slot became available
+     * @param retryAfterSeconds seconds after which rejected clients are told to retry
+     */
+    public BoundedPermits(int maxConcurrent, String slot, String rejection, long retryAfterSeconds) {
+        this.maxConcurrent = maxConcurrent;
+        this.slot = slot;
+        this.rejection = rejection;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Runs the given work once a slot is available.
+     *
+     * @param timeoutMs how long to wait for a slot
+     * @param work the work to run
+     * @return the result of {@code work}
+     * @throws E if {@code work} fails with it
+     * @throws ServiceOverloadedException if no slot became available within the timeout
+     */
+    public <T, E extends Exception> T call(long timeoutMs, Work<T, E> work) throws E {
+        acquire(timeoutMs);
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        try {
+            return work.run();
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void acquire(long timeoutMs) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for a " + slot, retryAfterSeconds);
+        }
+        if (!acquired) {
+            throw new ServiceOverloadedException(rejection, retryAfterSeconds);
+        }
+    }
+
+    /**
+     * @return number of calls currently holding a slot
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return highest number of calls that held a slot at the same time
+     */
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    /**
+     * @return configured slot count
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+}
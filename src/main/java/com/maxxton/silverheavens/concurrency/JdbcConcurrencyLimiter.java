@@ -0,0 +1,101 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounds the number of read requests that may hold a database connection at the same time.
+ *
+ * <p>With virtual threads enabled, Tomcat no longer caps concurrency at its platform-thread
+ * pool size, so thousands of quotes can be in flight at once. Without a limit in front of
+ * the service, all of them would queue inside Hikari and fail with connection timeouts.
+ * This limiter keeps a fair queue ahead of the transaction boundary instead, so waiting
+ * requests cost only a parked virtual thread and never a pooled connection.</p>
+ *
+ * <p>The limiter is opt-in through {@code rates.jdbc.limiter.enabled}; when disabled every
+ * call passes straight through.</p>
+ */
+@Component
+public class JdbcConcurrencyLimiter {
+
+    /**
+     * Whether calls are gated at all.
+     */
+    @Value("${rates.jdbc.limiter.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Maximum number of calls allowed to run concurrently. Should not exceed the
+     * connection pool size.
+     */
+    @Value("${rates.jdbc.limiter.max-concurrent:10}")
+    private int maxConcurrent;
+
+    /**
+     * How long a call may wait for a permit before it is rejected; never longer than the
+     * {@link RequestDeadline} of the request, if it has one.
+     */
+    @Value("${rates.jdbc.limiter.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMs;
+
+    private BoundedPermits permits;
+
+    @PostConstruct
+    void init() {
+        permits = new BoundedPermits(maxConcurrent, "database slot",
+                "Too many concurrent rate queries, try again shortly", 1);
+    }
+
+    /**
+     * Runs the given work once a permit is available.
+     *
+     * @param work the database-bound call to execute
+     * @return the result of {@code work}
+     * @throws ServiceOverloadedException if no permit became available within the timeout
+     */
+    public <T> T call(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        return permits.call(RequestDeadline.capMillis(acquireTimeoutMs), work::get);
+    }
+
+    /**
+     * Variant of {@link #call(Supplier)} for work without a result.
+     *
+     * @param work the database-bound call to execute
+     */
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return number of calls currently holding a permit
+     */
+    public int getInFlight() {
+        return permits.getInFlight();
+    }
+
+    /**
+     * @return highest number of calls that held a permit at the same time
+     */
+    public int getPeakInFlight() {
+        return permits.getPeakInFlight();
+    }
+
+    /**
+     * @return configured permit count
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+}
@@ -0,0 +1,109 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Re-runs a complete write workflow when it loses a race against a concurrent writer.
+ *
+ * <p>Rate writes are optimistic: {@code Rates} carries a {@code @Version}, so a transaction
+ * that modified a row someone else changed in the meantime fails at flush or commit with a
+ * {@link ConcurrencyFailureException} instead of overwriting that change. Because the
+ * failure surfaces at commit, the retry has to wrap the transactional call from the outside;
+ * each attempt then starts a fresh transaction and re-reads the current timeline.</p>
+ *
+ * <p>Attempts are bounded by {@code rates.write.retry.max-attempts}. Between attempts the
+ * caller backs off exponentially with jitter, so colliding writers do not collide again.</p>
+ */
+@Component
+public class OptimisticRetry {
+
+    /**
+     * Total number of attempts, including the first one.
+     */
+    @Value("${rates.write.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * Backoff before the second attempt; doubled after every further conflict.
+     */
+    @Value("${rates.write.retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+
+    /**
+     * Upper bound for the backoff between two attempts.
+     */
+    @Value("${rates.write.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * Runs the given workflow, retrying it on concurrency conflicts.
+     *
+     * <p>The supplier must be safe to call again: it should start its own transaction and
+     * must not reuse entity instances mutated by a failed attempt. When a transaction is
+     * already active the work runs once, since the surrounding transaction cannot recover
+     * from the conflict anyway.</p>
+     *
+     * @param work the transactional workflow
+     * @return the result of the first successful attempt
+     * @throws ConcurrencyFailureException if every attempt conflicted
+     */
+    public <T> T call(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                pause(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * Variant of {@link #call(Supplier)} for work without a result.
+     *
+     * @param work the transactional workflow
+     */
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return number of retries performed since startup
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    private void pause(long backoffMs) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs / 2, backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyFailureException("Interrupted while backing off after a write conflict", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.maxxton.silverheavens.config.ReadAfterWritePinning;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateBatchChangedEvent;
+import com.maxxton.silverheavens.event.RateChangedEvent;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Single-flight layer in front of the pricing fetches, so that a burst of quotes for the
+ * same hot bungalow costs one database round trip instead of one per request.
+ *
+ * <p>Two kinds of load are coalesced: the rows of a bungalow bookable on one booking date,
+ * used by quotes that go to the database through whichever fetch path is configured and
+ * shared by all stays quoted for that date, and the complete bungalow timeline loaded by
+ * the replica-local cache on a miss. After a local rate change commits, loads of that
+ * bungalow that are still running are detached, so a writer's next quote never joins a
+ * fetch that started before its write became visible. Callers pinned to the primary by
+ * {@link ReadAfterWritePinning} neither join nor lead a shared bookable-rows load, since
+ * it may run on a replica that has not seen their write yet.</p>
+ *
+ * <p>Exposes {@code rates.fetch.requests} (tagged {@code fetch} and {@code role} =
+ * {@code leader} or {@code coalesced}) and {@code rates.fetch.inflight}.</p>
+ */
+@Component
+public class RateFetchCoalescer {
+
+    private record BookableKey(long bungalowId, LocalDate bookingDate) {
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReadAfterWritePinning pinning;
+
+    private final SingleFlight<BookableKey, RateTimeline> bookableLoads = new SingleFlight<>();
+
+    private final SingleFlight<Long, RateTimeline> bungalowLoads = new SingleFlight<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        register("bookable", bookableLoads);
+        register("bungalow", bungalowLoads);
+    }
+
+    private void register(String fetch, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("rates.fetch.requests", flight, SingleFlight::getLeaderCount)
+                .description("Pricing fetches, by whether the caller ran the query or joined one in flight")
+                .tags("fetch", fetch, "role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("rates.fetch.requests", flight, SingleFlight::getCoalescedCount)
+                .description("Pricing fetches, by whether the caller ran the query or joined one in flight")
+                .tags("fetch", fetch, "role", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("rates.fetch.inflight", flight, SingleFlight::getInFlight)
+                .description("Pricing fetches currently running")
+                .tag("fetch", fetch)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the rows of a bungalow bookable on a date, sharing the load with concurrent
+     * callers asking for the same bungalow and booking date, whatever stay they quote.
+     * Callers pinned to the primary run {@code loader} on their own.
+     *
+     * @param bungalowId bungalow to price
+     * @param bookingDate date on which the booking is made
+     * @param loader fetches the rows
+     * @return the rows returned by {@code loader}, shared with concurrent callers
+     */
+    public RateTimeline bookableTimeline(long bungalowId, LocalDate bookingDate, Supplier<RateTimeline> loader) {
+        if (pinning.isPinned()) {
+            return loader.get();
+        }
+        return bookableLoads.load(new BookableKey(bungalowId, bookingDate), loader);
+    }
+
+    /**
+     * Loads the complete timeline of a bungalow, sharing the load with concurrent callers.
+     *
+     * @param bungalowId bungalow to load
+     * @param loader fetches the rows
+     * @return every row of the bungalow, shared with concurrent callers
+     */
+    public RateTimeline bungalowTimeline(long bungalowId, Supplier<RateTimeline> loader) {
+        return bungalowLoads.load(bungalowId, loader);
+    }
+
+    /**
+     * Detaches running loads of a bungalow once a change to its rates has committed.
+     *
+     * @param event the committed mutation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRateChanged(RateChangedEvent event) {
+        long bungalowId = event.rate().getBungalowId();
+        bookableLoads.forget(key -> key.bungalowId() == bungalowId);
+        bungalowLoads.forget(key -> key == bungalowId);
+    }
+
+    /**
+     * Detaches running loads of every bungalow changed by a committed set-based change.
+     *
+     * @param event the committed mutation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatesChanged(RateBatchChangedEvent event) {
+        Set<Long> bungalowIds = new HashSet<>();
+        for (Rates rate : event.rates()) {
+            bungalowIds.add(rate.getBungalowId());
+        }
+        bookableLoads.forget(key -> bungalowIds.contains(key.bungalowId()));
+        bungalowLoads.forget(bungalowIds::contains);
+    }
+
+    /**
+     * @return counters of the bookable-rows loads
+     */
+    public SingleFlight<?, ?> getBookableLoads() {
+        return bookableLoads;
+    }
+
+    /**
+     * @return counters of the complete-timeline loads
+     */
+    public SingleFlight<?, ?> getBungalowLoads() {
+        return bungalowLoads;
+    }
+}
@@ -0,0 +1,81 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Deadline of the request running on the current thread, so that code far below the
+ * controller can bound its own waiting to what is left of the request's budget.
+ *
+ * <p>The JDBC repository applies the remaining time as the query timeout of its pricing
+ * statements, and the database limiter stops queueing for a connection once it has
+ * passed. JDBC only accepts whole seconds, so statements get the remaining time rounded
+ * up; a request never waits on the database for more than a second past its deadline.</p>
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Runs the given work with a deadline of {@code timeoutMs} from now. A deadline that
+     * is already set on this thread is kept, since an inner call can only shorten what the
+     * request has left, never extend it.
+     *
+     * @param timeoutMs time budget of the work; 0 or less runs it without a deadline
+     * @param work the work to run
+     * @return the result of {@code work}
+     */
+    public static <T> T call(long timeoutMs, Supplier<T> work) {
+        if (timeoutMs <= 0 || DEADLINE_NANOS.get() != null) {
+            return work.get();
+        }
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        try {
+            return work.get();
+        } finally {
+            DEADLINE_NANOS.remove();
+        }
+    }
+
+    /**
+     * Caps a wait at the time the current request has left.
+     *
+     * @param waitMs the wait the caller would otherwise use
+     * @return the smaller of {@code waitMs} and the remaining time, never negative
+     */
+    public static long capMillis(long waitMs) {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return waitMs;
+        }
+        return Math.max(0, Math.min(waitMs, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    }
+
+    /**
+     * Sets the query timeout of a statement to the time the current request has left.
+     * Does nothing if no deadline is set.
+     *
+     * @param statement statement about to be executed
+     * @throws SQLException if the driver rejects the timeout
+     * @throws QueryTimeoutException if the deadline has already passed
+     */
+    public static void applyTo(Statement statement) throws SQLException {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return;
+        }
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new QueryTimeoutException("Request deadline passed before the query started");
+        }
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE,
+                (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+    }
+}
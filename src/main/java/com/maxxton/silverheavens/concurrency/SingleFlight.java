@@ -0,0 +1,103 @@
+package com.maxxton.silverheavens.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one.
+ *
+ * <p>The first caller for a key becomes the leader and runs the loader on its own thread;
+ * callers arriving while it runs wait for the leader's result instead of loading again.
+ * The key is released as soon as the load finishes, so results are never cached here: a
+ * caller arriving after completion starts a new load. Failures are propagated to the
+ * leader and every waiter alike.</p>
+ *
+ * @param <K> key type; must implement {@code equals} and {@code hashCode}
+ * @param <V> result type; shared between threads, so it should be immutable
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Returns the result of the load in progress for the key, or runs the loader if none is.
+     *
+     * @param key identifies the load
+     * @param loader computes the result; runs at most once per concurrent group of callers
+     * @return the loaded result
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Detaches the loads in progress for matching keys, so that later callers start a
+     * fresh load instead of joining one that may have read outdated data. Callers already
+     * waiting still receive the detached load's result.
+     *
+     * @param keys selects the keys to detach
+     */
+    public void forget(Predicate<K> keys) {
+        inFlight.keySet().removeIf(keys);
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of calls that ran the loader themselves
+     */
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * @return number of calls that were served by another caller's load
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return number of keys currently being loaded
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
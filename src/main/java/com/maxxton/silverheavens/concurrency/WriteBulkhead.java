@@ -0,0 +1,112 @@
+package com.maxxton.silverheavens.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Separate, fixed capacity for the admin write endpoints.
+ *
+ * <p>Pricing traffic is bounded by {@link AdaptiveConcurrencyLimiter} and writes by this
+ * bulkhead, so neither can take all server threads and connections from the other: a
+ * storm of quotes against a slow database still leaves room for rate changes, and a large
+ * import cannot crowd out quotes. Writes wait briefly for a slot and are otherwise rejected
+ * with 503 and {@code Retry-After}. For full isolation, keep
+ * {@code rates.write.bulkhead.max-concurrent} plus {@code rates.jdbc.limiter.max-concurrent}
+ * within the connection pool size.</p>
+ *
+ * <p>The bulkhead is opt-in through {@code rates.write.bulkhead.enabled}; when disabled
+ * every call passes straight through.</p>
+ */
+@Component
+public class WriteBulkhead {
+
+    /**
+     * Whether writes are gated at all.
+     */
+    @Value("${rates.write.bulkhead.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Maximum number of write requests running at the same time.
+     */
+    @Value("${rates.write.bulkhead.max-concurrent:4}")
+    private int maxConcurrent;
+
+    /**
+     * How long a write may wait for a slot before it is rejected.
+     */
+    @Value("${rates.write.bulkhead.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    /**
+     * Seconds after which rejected clients are told to retry.
+     */
+    @Value("${rates.write.bulkhead.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private BoundedPermits permits;
+
+    @PostConstruct
+    void init() {
+        permits = new BoundedPermits(maxConcurrent, "write slot",
+                "Too many concurrent rate changes, try again shortly", retryAfterSeconds);
+    }
+
+    /**
+     * A write workflow, which may throw a checked exception such as an {@code IOException}
+     * from an upload.
+     *
+     * @param <T> result type
+     * @param <E> checked exception type
+     */
+    @FunctionalInterface
+    public interface Write<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Runs the given write once a slot is available.
+     *
+     * @param work the write workflow, including any retries
+     * @return the result of {@code work}
+     * @throws E if {@code work} fails with it
+     * @throws ServiceOverloadedException if no slot became available within the timeout
+     */
+    public <T, E extends Exception> T call(Write<T, E> work) throws E {
+        if (!enabled) {
+            return work.run();
+        }
+
+        return permits.call(acquireTimeoutMs, work::run);
+    }
+
+    /**
+     * Variant of {@link #call(Write)} for work without a result or checked exceptions.
+     *
+     * @param work the write workflow
+     */
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return number of writes currently running
+     */
+    public int getInFlight() {
+        return permits.getInFlight();
+    }
+
+    /**
+     * @return configured slot count
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+}
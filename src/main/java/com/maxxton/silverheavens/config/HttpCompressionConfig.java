@@ -0,0 +1,24 @@
+package com.maxxton.silverheavens.config;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets Tomcat gzip responses that carry a strong {@code ETag}.
+ *
+ * <p>By default Tomcat skips compression for strongly tagged responses, because the
+ * compressed bytes would otherwise share a tag with the uncompressed ones. The rate
+ * endpoints give gzip-accepting clients a tag of their own (see
+ * {@code controller.RateETags}), so compression can stay on for them.</p>
+ */
+@Configuration
+public class HttpCompressionConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> strongETagCompressionCustomizer() {
+        return factory -> factory.addConnectorCustomizers(
+                connector -> connector.setProperty("noCompressionStrongETag", "false"));
+    }
+}
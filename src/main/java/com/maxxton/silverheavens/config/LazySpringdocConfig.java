@@ -0,0 +1,49 @@
+package com.maxxton.silverheavens.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the springdoc beans on first use instead of during startup
+ * ({@code rates.startup.lazy-springdoc}).
+ *
+ * <p>Their endpoints are still mapped at startup, from the bean types alone, so the first
+ * request to {@code /v3/api-docs} or the Swagger UI creates them and builds the document.
+ * Beans that something else needs during startup are still created then. With Spring
+ * AOT the flag is applied when the build processes the context, not at run time.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "rates.startup.lazy-springdoc", havingValue = "true")
+public class LazySpringdocConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Bean
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isSpringdoc(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    /**
+     * Whether the bean is one of springdoc's, by its class or the configuration class
+     * declaring its factory method.
+     */
+    private static boolean isSpringdoc(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition instanceof AnnotatedBeanDefinition annotated
+                && annotated.getFactoryMethodMetadata() != null) {
+            className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
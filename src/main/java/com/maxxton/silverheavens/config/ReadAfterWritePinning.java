@@ -0,0 +1,115 @@
+package com.maxxton.silverheavens.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxxton.silverheavens.event.RateBatchChangedEvent;
+import com.maxxton.silverheavens.event.RateChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Decides whether read-only work should temporarily stay on the primary database
+ * because its caller has just committed a write that replicas may not have yet.
+ *
+ * <p>Pins are kept per caller, not per node, so a steady stream of writes from some
+ * clients does not keep every other reader off the replica. The caller is whatever
+ * {@link #bindCaller} bound to the current thread; for HTTP requests that is the value
+ * of the {@code rates.datasource.replica.pin-header} header (see
+ * {@link ReadAfterWritePinningFilter}). Work without a caller is never pinned.</p>
+ *
+ * <p>Disabled when {@code rates.datasource.replica.pin-after-write-ms} is 0.</p>
+ */
+@Component
+public class ReadAfterWritePinning {
+
+    /**
+     * Restores the previously bound caller when closed.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * How long after a write the same caller's read-only transactions keep using the primary.
+     */
+    @Value("${rates.datasource.replica.pin-after-write-ms:0}")
+    private long pinWindowMs;
+
+    /**
+     * Upper bound on callers pinned at once; the least recently pinned go first.
+     */
+    @Value("${rates.datasource.replica.max-pinned-callers:100000}")
+    private long maxPinnedCallers;
+
+    private final ThreadLocal<String> currentCaller = new ThreadLocal<>();
+
+    private Cache<String, Boolean> pinnedCallers;
+
+    @PostConstruct
+    void init() {
+        pinnedCallers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(1L, pinWindowMs)))
+                .maximumSize(maxPinnedCallers)
+                .build();
+    }
+
+    /**
+     * Binds the caller of the work running on this thread until the scope is closed.
+     *
+     * @param caller identifies the client, e.g. its session; {@code null} for none
+     * @return scope restoring the previous caller
+     */
+    public Scope bindCaller(String caller) {
+        String previous = currentCaller.get();
+        currentCaller.set(caller);
+        return () -> {
+            if (previous == null) {
+                currentCaller.remove();
+            } else {
+                currentCaller.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Records the commit of a rate mutation by the current caller.
+     *
+     * @param event the committed mutation
+     */
+    @TransactionalEventListener
+    public void onRateChanged(RateChangedEvent event) {
+        pinCurrentCaller();
+    }
+
+    /**
+     * Records the commit of a set-based rate mutation by the current caller.
+     *
+     * @param event the committed mutation
+     */
+    @TransactionalEventListener
+    public void onRatesChanged(RateBatchChangedEvent event) {
+        pinCurrentCaller();
+    }
+
+    private void pinCurrentCaller() {
+        String caller = currentCaller.get();
+        if (pinWindowMs > 0 && caller != null) {
+            pinnedCallers.put(caller, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return {@code true} if the current caller's reads should go to the primary right now
+     */
+    public boolean isPinned() {
+        String caller = currentCaller.get();
+        return pinWindowMs > 0 && caller != null && pinnedCallers.getIfPresent(caller) != null;
+    }
+}
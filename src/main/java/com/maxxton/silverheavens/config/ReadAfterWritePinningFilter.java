@@ -0,0 +1,44 @@
+package com.maxxton.silverheavens.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Binds the caller named by the {@code rates.datasource.replica.pin-header} request
+ * header to the request thread, so {@link ReadAfterWritePinning} can keep that caller's
+ * reads on the primary right after its own writes.
+ */
+@Component
+public class ReadAfterWritePinningFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ReadAfterWritePinning pinning;
+
+    /**
+     * Request header identifying the caller, e.g. a client session id.
+     */
+    @Value("${rates.datasource.replica.pin-header:X-Rates-Session}")
+    private String pinHeader;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String caller = request.getHeader(pinHeader);
+        if (caller == null || caller.isBlank()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ReadAfterWritePinning.Scope scope = pinning.bindCaller(caller)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.maxxton.silverheavens.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Routes read-only transactions to a replica pool while writes stay on the primary.
+ *
+ * <p>Active only when {@code rates.datasource.replica.url} is set. The exposed
+ * {@link DataSource} is a {@link LazyConnectionDataSourceProxy}: it hands out a
+ * connection handle immediately but fetches the physical connection only when the first
+ * statement runs. By then the transaction manager has marked the connection read-only
+ * for {@code @Transactional(readOnly = true)} work, and the proxy takes it from the
+ * replica side instead of the primary. The replica side itself falls back to the primary
+ * while {@link ReadAfterWritePinning} reports a recent write by the same caller.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "rates.datasource.replica.url")
+public class ReadReplicaDataSourceConfig {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    /**
+     * Write pool, configured through the regular {@code spring.datasource.*} properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Read pool, configured through {@code rates.datasource.replica.*}.
+     */
+    @Bean
+    @ConfigurationProperties("rates.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${rates.datasource.replica.url}") String url,
+            @Value("${rates.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${rates.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     * Data source used by JPA and JDBC, choosing the pool per transaction.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadAfterWritePinning pinning) {
+        AbstractRoutingDataSource readOnly = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return pinning.isPinned() ? PRIMARY : REPLICA;
+            }
+        };
+        readOnly.setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        readOnly.setDefaultTargetDataSource(replica);
+        readOnly.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(readOnly);
+        return proxy;
+    }
+}
@@ -0,0 +1,56 @@
+package com.maxxton.silverheavens.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maxxton.silverheavens.concurrency.AdaptiveConcurrencyLimiter;
+import com.maxxton.silverheavens.concurrency.JdbcConcurrencyLimiter;
+import com.maxxton.silverheavens.pricing.QuoteExplanation;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Controller explaining individual quotes, for triaging slow or wrong prices.
+ *
+ * <p>Only registered when {@code rates.pricing.explain.enabled} is set; otherwise the
+ * endpoint does not exist and the regular pricing endpoints are unaffected either way.</p>
+ */
+@RestController
+@RequestMapping("/rates/calculatePrice/explain")
+@ConditionalOnProperty(name = "rates.pricing.explain.enabled", havingValue = "true")
+public class QuoteExplainController {
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private JdbcConcurrencyLimiter jdbcLimiter;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter pricingLimiter;
+
+    /**
+     * Prices a stay like {@code /rates/calculatePrice} and reports how the price was produced.
+     *
+     * @param bungalowId ID of the bungalow
+     * @param arrivalDate date stay begins (inclusive)
+     * @param departureDate date stay ends (exclusive)
+     * @param bookingDate date booking is made for rate validity
+     * @return source of the rows, rows used, rate per night and timings
+     */
+    @GetMapping
+    public QuoteExplanation explainPrice(
+            @RequestParam(name = "bungId") Long bungalowId,
+            @RequestParam(name = "arrrivalDate") LocalDate arrivalDate,
+            @RequestParam(name = "departureDate") LocalDate departureDate,
+            @RequestParam(name = "bookingDate") LocalDate bookingDate) {
+
+        return pricingLimiter.call(() -> jdbcLimiter.call(() ->
+                rateService.explainPrice(bungalowId, arrivalDate, departureDate, bookingDate)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.maxxton.silverheavens.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maxxton.silverheavens.concurrency.JdbcConcurrencyLimiter;
+import com.maxxton.silverheavens.pricing.RateAnalytics;
+import com.maxxton.silverheavens.service.RateAnalyticsService;
+
+/**
+ * Controller exposing portfolio-wide rate aggregates for management reports, so that
+ * they no longer have to be computed from a full export.
+ */
+@RestController
+@RequestMapping("/rates/analytics")
+public class RateAnalyticsController {
+
+    @Autowired
+    private RateAnalyticsService rateAnalyticsService;
+
+    @Autowired
+    private JdbcConcurrencyLimiter jdbcLimiter;
+
+    /**
+     * @return number of bungalows, and of all, active and closed rates
+     */
+    @GetMapping("/summary")
+    public RateAnalytics.Summary summary() {
+        return jdbcLimiter.call(rateAnalyticsService::summary);
+    }
+
+    /**
+     * Average, lowest and highest nightly price of the active rates by month.
+     *
+     * @param from first stay start date (inclusive)
+     * @param to last stay start date (inclusive)
+     * @return one entry per month with active rates
+     */
+    @GetMapping("/monthly")
+    public List<RateAnalytics.MonthlyRate> monthlyRates(@RequestParam(name = "from") LocalDate from,
+                                                        @RequestParam(name = "to") LocalDate to) {
+        return jdbcLimiter.call(() -> rateAnalyticsService.monthlyRates(from, to));
+    }
+
+    /**
+     * Nightly price range and number of active rates per bungalow. Consumers pass the
+     * last bungalow id of a page to fetch the next one.
+     *
+     * @param after last bungalow id of the previous page, 0 for the first page
+     * @param limit maximum number of bungalows to return
+     * @return next page of bungalows in id order
+     */
+    @GetMapping("/bungalows")
+    public List<RateAnalytics.BungalowRange> bungalowRanges(
+            @RequestParam(name = "after", defaultValue = "0") long after,
+            @RequestParam(name = "limit", defaultValue = "1000") int limit) {
+        return jdbcLimiter.call(() -> rateAnalyticsService.bungalowRanges(after, limit));
+    }
+}
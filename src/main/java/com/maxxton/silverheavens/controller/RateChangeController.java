@@ -0,0 +1,38 @@
+package com.maxxton.silverheavens.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maxxton.silverheavens.entity.RateChange;
+import com.maxxton.silverheavens.service.RateChangeLog;
+
+/**
+ * Controller exposing the rate change log so downstream systems can sync
+ * incrementally instead of reloading the full rate table.
+ */
+@RestController
+@RequestMapping("/rates/changes")
+public class RateChangeController {
+
+    @Autowired
+    private RateChangeLog rateChangeLog;
+
+    /**
+     * Returns the changes recorded after the given sequence number.
+     * Consumers pass the sequence of the last entry they applied to continue tailing.
+     *
+     * @param after last applied sequence number, 0 for the full history
+     * @param limit maximum number of entries to return
+     * @return next page of changes, oldest first
+     */
+    @GetMapping
+    public List<RateChange> getChanges(@RequestParam(name = "after", defaultValue = "0") long after,
+                                       @RequestParam(name = "limit", defaultValue = "1000") int limit) {
+        return rateChangeLog.readAfter(after, limit);
+    }
+}
@@ -2,8 +2,11 @@ package com.maxxton.silverheavens.controller;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
@@ -15,14 +18,31 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.maxxton.silverheavens.cache.RateTimelineCache;
+import com.maxxton.silverheavens.concurrency.AdaptiveConcurrencyLimiter;
+import com.maxxton.silverheavens.concurrency.JdbcConcurrencyLimiter;
+import com.maxxton.silverheavens.concurrency.OptimisticRetry;
+import com.maxxton.silverheavens.concurrency.WriteBulkhead;
 import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.pricing.ArrivalQuote;
+import com.maxxton.silverheavens.pricing.PriceBreakdown;
+import com.maxxton.silverheavens.service.RateBulkChange;
+import com.maxxton.silverheavens.service.RateIngestService;
+import com.maxxton.silverheavens.service.RateSearchService;
+import com.maxxton.silverheavens.service.RateSimulation;
 import com.maxxton.silverheavens.service.RateService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 /**
  * Controller handling REST endpoints for managing rate configurations
  * for bungalows including CRUD operations, imports, exports, and price calculations.
@@ -34,6 +54,52 @@ public class RateController {
     @Autowired
     private RateService rateService;
 
+    @Autowired
+    private RateSearchService rateSearchService;
+
+    @Autowired
+    private RateIngestService rateIngestService;
+
+    /**
+     * Gates read and pricing calls before they open a transaction, so that
+     * concurrent requests never queue on the connection pool itself.
+     */
+    @Autowired
+    private JdbcConcurrencyLimiter jdbcLimiter;
+
+    /**
+     * Sheds pricing requests beyond what the database currently sustains with a fast 503,
+     * and gives admitted ones a deadline that also bounds their queries.
+     */
+    @Autowired
+    private AdaptiveConcurrencyLimiter pricingLimiter;
+
+    /**
+     * Isolated capacity for write endpoints, so they keep working while pricing is
+     * overloaded and cannot starve pricing in turn.
+     */
+    @Autowired
+    private WriteBulkhead writeBulkhead;
+
+    /**
+     * Re-runs write workflows that conflicted with a concurrent change. Every attempt
+     * works on a fresh copy of the request payload, since the service mutates it.
+     */
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    /**
+     * Answers conditional GETs from the per-bungalow and per-rate versions.
+     */
+    @Autowired
+    private RateETags rateETags;
+
+    /**
+     * Replica-local timeline cache, switched to scan-resistant mode for bulk re-pricing.
+     */
+    @Autowired
+    private RateTimelineCache rateTimelineCache;
+
     /**
      * Creates and stores a new rate configuration.
      *
@@ -42,7 +108,19 @@ public class RateController {
      */
     @PostMapping
     public Rates createRate(Rates rate){
-        return rateService.createRate(rate);
+        return writeBulkhead.call(() -> optimisticRetry.call(() -> rateService.createRate(new Rates(rate))));
+    }
+
+    /**
+     * Shows what creating a rate would change, without writing anything: the rows that
+     * would be inserted, closed and deleted, and the price of sample stays before and after.
+     *
+     * @param request rate to simulate and optional sample stays to quote
+     * @return simulated diff and price deltas
+     */
+    @PostMapping("/simulate")
+    public RateSimulation simulateCreateRate(@RequestBody RateSimulation.Request request) {
+        return jdbcLimiter.call(() -> rateService.simulateCreateRate(request.rate(), request.sampleStays()));
     }
 
     /**
@@ -52,29 +130,35 @@ public class RateController {
      */
     @GetMapping
     public List<Rates> getAllRates() {
-        return rateService.getAllRates();
+        return jdbcLimiter.call(rateService::getAllRates);
     }
 
     /**
      * Fetches rates configured for a specific bungalow, ordered by stay start date.
+     * Supports {@code If-None-Match}: the response is tagged with the bungalow's rate
+     * version and an unchanged listing is answered with 304.
      *
      * @param bungId identifier of the bungalow
-     * @return list of valid rate definitions for that bungalow
+     * @param request current request, used for conditional handling
+     * @return list of valid rate definitions for that bungalow, or nothing if not modified
      */
     @GetMapping("/get-bungalow-rates")
-    public List<Rates> getRatesByBungalowId(@RequestParam(name = "bungalowId") long bungId) {
-        return rateService.getRatesByBungalowId(bungId);
+    public List<Rates> getRatesByBungalowId(@RequestParam(name = "bungalowId") long bungId, WebRequest request) {
+        return jdbcLimiter.call(() -> rateETags.ifBungalowModified(bungId, request,
+                () -> rateService.getRatesByBungalowId(bungId)));
     }
 
     /**
      * Retrieves a specific rate record based on ID.
+     * Supports {@code If-None-Match} based on the rate's version.
      *
      * @param id identifier for the desired rate
-     * @return matching rate record if found
+     * @param request current request, used for conditional handling
+     * @return matching rate record if found, or nothing if not modified
      */
     @GetMapping("/get-rate")
-    public Rates getRateById(@RequestParam(name = "rateId") long id) {
-        return rateService.getRateById(id);
+    public Rates getRateById(@RequestParam(name = "rateId") long id, WebRequest request) {
+        return jdbcLimiter.call(() -> rateETags.ifRateModified(id, request, () -> rateService.getRateById(id)));
     }
 
     /**
@@ -87,7 +171,7 @@ public class RateController {
      */
     @PutMapping
     public Rates updateRate(@RequestParam(name = "rateId") Long id, Rates updatedRate){
-        return rateService.updateRate(id, updatedRate);
+        return writeBulkhead.call(() -> optimisticRetry.call(() -> rateService.updateRate(id, new Rates(updatedRate))));
     }
 
     /**
@@ -98,7 +182,7 @@ public class RateController {
      */
     @DeleteMapping
     public void closeRate(@RequestParam(name = "rateId") Long rateId, @RequestParam(name = "Date") LocalDate dated){
-        rateService.closeRate(rateId, dated);
+        writeBulkhead.run(() -> optimisticRetry.run(() -> rateService.closeRate(rateId, dated)));
     }
 
     /**
@@ -108,9 +192,33 @@ public class RateController {
      */
     @DeleteMapping("/delete")
     public void deleteRate(@RequestParam(name = "rateId") Long rateId){
-        rateService.deleteRate(rateId);
+        writeBulkhead.run(() -> optimisticRetry.run(() -> rateService.deleteRate(rateId)));
+    }
+
+
+    /**
+     * Closes all active rates of a set of bungalows whose stay overlaps a window,
+     * in a single statement.
+     *
+     * @param request bungalows, stay window and last available booking date
+     * @return number of closed rates and the affected bungalows
+     */
+    @PostMapping("/bulk/close")
+    public RateBulkChange closeRates(@RequestBody RateBulkChange.CloseRequest request) {
+        return writeBulkhead.call(() -> optimisticRetry.call(() -> rateService.closeRates(request)));
+    }
+
+    /**
+     * Permanently deletes all rates of a set of bungalows whose stay overlaps a window,
+     * in a single statement.
+     *
+     * @param request bungalows, stay window and optional booking-window filter
+     * @return number of deleted rates and the affected bungalows
+     */
+    @PostMapping("/bulk/purge")
+    public RateBulkChange purgeRates(@RequestBody RateBulkChange.PurgeRequest request) {
+        return writeBulkhead.call(() -> optimisticRetry.call(() -> rateService.purgeRates(request)));
     }
-    
 
     /**
      * Exports all stored rates to an Excel file for download.
@@ -138,10 +246,66 @@ public class RateController {
      */
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> importRates(@RequestParam("file") MultipartFile file) throws IOException {
-        rateService.importRatesFromExcel(file);
+        writeBulkhead.call(() -> {
+            rateService.importRatesFromExcel(file);
+            return null;
+        });
         return ResponseEntity.ok("Rates uploaded successfully!");
     }
 
+    /**
+     * Streams all stored rates in the compact columnar binary format.
+     * Much smaller and faster to produce than the Excel export.
+     *
+     * @return streamed binary export
+     */
+    @GetMapping("/export/binary")
+    public ResponseEntity<StreamingResponseBody> exportRatesBinary() {
+        StreamingResponseBody body = out -> rateService.exportRatesToBinary(Channels.newChannel(out));
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=rates.ratb")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    /**
+     * Imports rates from a file produced by the binary export.
+     *
+     * @param file binary export containing rate rows
+     * @return success message with the number of imported rows
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping(value = "/import/binary", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<String> importRatesBinary(@RequestParam("file") MultipartFile file) throws IOException {
+        long imported = writeBulkhead.call(() -> {
+            try (ReadableByteChannel channel = Channels.newChannel(file.getInputStream())) {
+                return rateService.importRatesFromBinary(channel);
+            }
+        });
+        return ResponseEntity.ok(imported + " rates imported successfully!");
+    }
+
+    /**
+     * Creates rates from a streamed NDJSON or CSV body through the regular create workflow,
+     * answering with one NDJSON result per line as each batch is stored. Clients should read
+     * the response while still sending, since results start arriving before the body ends.
+     *
+     * @param request body with one rate per line, {@code application/x-ndjson} or {@code text/csv}
+     * @param response receives the per-line results and a final summary line
+     * @throws IOException if the body cannot be read or the results cannot be written
+     */
+    @PostMapping(value = "/ingest", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void ingestRates(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        RateIngestService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? RateIngestService.Format.CSV
+                : RateIngestService.Format.NDJSON;
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        rateIngestService.ingest(request.getInputStream(), format, response.getOutputStream());
+    }
+
     /**
      * Calculates the total price for a stay by evaluating nightly rates
      * based on stay and booking dates.
@@ -150,16 +314,67 @@ public class RateController {
      * @param arrivalDate date stay begins (inclusive)
      * @param departureDate date stay ends (exclusive)
      * @param bookingDate date booking is made for rate validity
+     * @param scan set by bulk re-pricing jobs so that their lookups do not displace
+     *             popular bungalows from the timeline cache
      * @return computed price for the requested stay period
      */
     @GetMapping("/calculatePrice")
     public double calculatePrice(
+            @RequestParam(name = "bungId") Long bungalowId,
+            @RequestParam(name = "arrrivalDate") LocalDate arrivalDate,
+            @RequestParam(name = "departureDate") LocalDate departureDate,
+            @RequestParam(name = "bookingDate") LocalDate bookingDate,
+            @RequestParam(name = "scan", defaultValue = "false") boolean scan) {
+
+        return pricingLimiter.call(() -> jdbcLimiter.call(() -> scan
+                ? rateTimelineCache.scan(() -> rateService.calculatePrice(bungalowId, arrivalDate, departureDate, bookingDate))
+                : rateService.calculatePrice(bungalowId, arrivalDate, departureDate, bookingDate)));
+    }
+
+    /**
+     * Calculates the price of a stay together with its breakdown: one segment per run
+     * of consecutive nights priced by the same rate.
+     *
+     * @param bungalowId ID of the bungalow
+     * @param arrivalDate date stay begins (inclusive)
+     * @param departureDate date stay ends (exclusive)
+     * @param bookingDate date booking is made for rate validity
+     * @return total price and the segments it is made of
+     */
+    @GetMapping("/calculatePrice/breakdown")
+    public PriceBreakdown calculatePriceBreakdown(
             @RequestParam(name = "bungId") Long bungalowId,
             @RequestParam(name = "arrrivalDate") LocalDate arrivalDate,
             @RequestParam(name = "departureDate") LocalDate departureDate,
             @RequestParam(name = "bookingDate") LocalDate bookingDate) {
 
-        return rateService.calculatePrice(bungalowId, arrivalDate, departureDate, bookingDate);
+        return pricingLimiter.call(() -> jdbcLimiter.call(() ->
+                rateService.calculatePriceBreakdown(bungalowId, arrivalDate, departureDate, bookingDate)));
+    }
+
+    /**
+     * Finds the cheapest arrival dates for a fixed length of stay, for one or more
+     * bungalows, using a single rate fetch for the whole window.
+     *
+     * @param bungalowIds bungalows to search
+     * @param from earliest arrival date
+     * @param to latest departure date
+     * @param nights length of stay
+     * @param bookingDate date booking is made for rate validity
+     * @param limit number of arrivals to return per bungalow
+     * @return cheapest stays per bungalow, cheapest first
+     */
+    @GetMapping("/search/cheapest-arrivals")
+    public Map<Long, List<ArrivalQuote>> findCheapestArrivals(
+            @RequestParam(name = "bungalowIds") List<Long> bungalowIds,
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to,
+            @RequestParam(name = "nights") int nights,
+            @RequestParam(name = "bookingDate") LocalDate bookingDate,
+            @RequestParam(name = "limit", defaultValue = "5") int limit) {
+
+        return pricingLimiter.call(() -> jdbcLimiter.call(() ->
+                rateSearchService.findCheapestArrivals(bungalowIds, from, to, nights, bookingDate, limit)));
     }
 
 }
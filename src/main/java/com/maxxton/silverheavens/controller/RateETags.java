@@ -0,0 +1,84 @@
+package com.maxxton.silverheavens.controller;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Strong entity tags for the rate read endpoints.
+ *
+ * <p>Bungalow listings are tagged with the bungalow's {@code rate_version}, which
+ * {@code RateVersionRecorder} bumps in the same transaction as every mutation of its
+ * rates. Single rates are tagged with their own optimistic-locking version. Both are
+ * one primary-key lookup, so a matching {@code If-None-Match} is answered with 304
+ * before any rate rows are loaded or serialized.</p>
+ *
+ * <p>The version and the body are read in one read-only transaction, so on one
+ * connection: with read replicas both come from the same replica, however far it lags.
+ * The version is read first, so a write committing in between can only make a tag older
+ * than its body, never newer, and a client holding that tag fetches the body again.</p>
+ *
+ * <p>Responses may be gzip-compressed by the server. A strong tag must identify the
+ * exact bytes sent, so clients accepting gzip get a tag of their own and every tagged
+ * response carries {@code Vary: Accept-Encoding}.</p>
+ */
+@Component
+public class RateETags {
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    /**
+     * Tags the listing of a bungalow's rates and reads it unless the client's copy,
+     * named by {@code If-None-Match}, is current.
+     *
+     * @param bungalowId bungalow being listed
+     * @param request current request; receives the {@code ETag} header
+     * @param body reads the listing; runs in the transaction that read the tag
+     * @return the listing, or {@code null} if a 304 should be sent
+     */
+    @Transactional(readOnly = true)
+    public <T> T ifBungalowModified(long bungalowId, WebRequest request, Supplier<T> body) {
+        String tag = "bungalow-" + bungalowId + "-v" + rateJdbcRepository.findRateVersion(bungalowId);
+        return check(tag, request) ? null : body.get();
+    }
+
+    /**
+     * Tags a single rate and reads it unless the client's copy, named by
+     * {@code If-None-Match}, is current.
+     *
+     * @param rateId rate being fetched
+     * @param request current request; receives the {@code ETag} header if the rate exists
+     * @param body reads the rate; runs in the transaction that read the tag
+     * @return the rate, or {@code null} if a 304 should be sent
+     */
+    @Transactional(readOnly = true)
+    public <T> T ifRateModified(long rateId, WebRequest request, Supplier<T> body) {
+        Optional<Long> version = rateJdbcRepository.findRowVersion(rateId);
+        return version.isPresent() && check("rate-" + rateId + "-v" + version.get(), request) ? null : body.get();
+    }
+
+    private boolean check(String tag, WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            tag += "-gzip";
+        }
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+        return request.checkNotModified("\"" + tag + "\"");
+    }
+}
@@ -0,0 +1,33 @@
+package com.maxxton.silverheavens.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maxxton.silverheavens.service.RateIntegrityReport;
+import com.maxxton.silverheavens.service.RateIntegrityScanner;
+
+/**
+ * Controller running the portfolio-wide check of the rate timeline invariants.
+ */
+@RestController
+@RequestMapping("/rates/integrity")
+public class RateIntegrityController {
+
+    @Autowired
+    private RateIntegrityScanner rateIntegrityScanner;
+
+    /**
+     * Scans the active rates of every bungalow for overlaps, unmerged segments and
+     * invalid rows. Only one scan runs at a time.
+     *
+     * @param repair whether to merge again the bungalows found with unmerged segments
+     * @return violation counts, the first violations found and the outcome of the repair
+     */
+    @PostMapping("/scan")
+    public RateIntegrityReport scan(@RequestParam(name = "repair", defaultValue = "false") boolean repair) {
+        return rateIntegrityScanner.scan(repair);
+    }
+}
@@ -0,0 +1,116 @@
+package com.maxxton.silverheavens.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry in the append-only log of mutations applied to {@link Rates}.
+ * <p>
+ * Every entry carries a snapshot of the rate as it was after the mutation, so
+ * downstream consumers can apply the log incrementally without reading the
+ * {@code rates} table. Entries are ordered by a database-generated, monotonically
+ * increasing sequence number, which becomes visible in commit order
+ * (see {@link RateChangeHead}).
+ */
+@Entity
+@Table(name = "rate_change", indexes = @Index(name = "idx_rate_change_bungalow", columnList = "bungalow_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateChange {
+
+    /**
+     * Position of this entry in the change log.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long sequence;
+
+    /**
+     * Kind of mutation that produced this entry, stored by name in a VARCHAR column
+     * rather than a native enum, so new types need no schema change.
+     */
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private RateChangeType type;
+
+    /**
+     * Moment the mutation was recorded.
+     */
+    @JdbcType(UtcTimestampJdbcType.class)
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    /**
+     * Identifier of the affected rate.
+     */
+    @Column(name = "rate_id", nullable = false)
+    private Long rateId;
+
+    /**
+     * Identifier of the bungalow the affected rate belongs to.
+     */
+    @Column(name = "bungalow_id", nullable = false)
+    private Long bungalowId;
+
+    @Column(name = "stay_date_from")
+    private LocalDate stayDateFrom;
+
+    @Column(name = "stay_date_to")
+    private LocalDate stayDateTo;
+
+    private Integer nights;
+
+    /**
+     * Price in minor currency units.
+     */
+    @Column(name = "value_minor")
+    private long valueMinor;
+
+    @Column(name = "book_date_from")
+    private LocalDate bookDateFrom;
+
+    @Column(name = "book_date_to")
+    private LocalDate bookDateTo;
+
+    /**
+     * Builds a log entry capturing the current state of the given rate.
+     *
+     * @param type kind of mutation
+     * @param rate the rate after the mutation (or just before removal)
+     * @return unsaved log entry
+     */
+    public static RateChange of(RateChangeType type, Rates rate) {
+        RateChange change = new RateChange();
+        change.setType(type);
+        change.setChangedAt(Instant.now());
+        change.setRateId(rate.getId());
+        change.setBungalowId(rate.getBungalowId());
+        change.setStayDateFrom(rate.getStayDateFrom());
+        change.setStayDateTo(rate.getStayDateTo());
+        change.setNights(rate.getNights());
+        change.setValueMinor(rate.getValueMinor());
+        change.setBookDateFrom(rate.getBookDateFrom());
+        change.setBookDateTo(rate.getBookDateTo());
+        return change;
+    }
+}
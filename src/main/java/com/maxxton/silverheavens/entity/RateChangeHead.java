@@ -0,0 +1,29 @@
+package com.maxxton.silverheavens.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row guarding appends to the {@link RateChange} log.
+ * <p>
+ * Every transaction that appends changes locks this row before its inserts and holds
+ * the lock until it commits. Sequence numbers are therefore taken and made visible in
+ * commit order, which lets consumers tail the log by the last sequence they applied.
+ */
+@Entity
+@Table(name = "rate_change_head")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateChangeHead {
+
+    /**
+     * Always 1.
+     */
+    @Id
+    private Integer id;
+}
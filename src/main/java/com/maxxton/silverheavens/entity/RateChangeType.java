@@ -0,0 +1,22 @@
+package com.maxxton.silverheavens.entity;
+
+/**
+ * Kind of mutation recorded in the rate change log.
+ */
+public enum RateChangeType {
+
+    /** A new rate was inserted as requested by the caller. */
+    CREATED,
+
+    /** A "before" or "after" segment was inserted while splitting an overlapped rate. */
+    SPLIT,
+
+    /** A continuous rate was inserted by merging two adjacent segments. */
+    MERGED,
+
+    /** A rate's booking window was closed by setting {@code bookDateTo}. */
+    CLOSED,
+
+    /** A rate was permanently removed. */
+    DELETED
+}
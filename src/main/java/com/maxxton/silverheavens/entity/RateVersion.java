@@ -0,0 +1,50 @@
+package com.maxxton.silverheavens.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.JdbcType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-bungalow version counter of the rate timeline.
+ * <p>
+ * The version is incremented once for every committed transaction that changes any
+ * rate of the bungalow. Replicas compare it with the version of their locally cached
+ * timeline to detect staleness, and poll recently updated rows as a fallback when
+ * invalidation messages are lost.
+ */
+@Entity
+@Table(name = "rate_version", indexes = @Index(name = "idx_rate_version_updated_at", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateVersion {
+
+    /**
+     * Identifier of the bungalow this version belongs to.
+     */
+    @Id
+    @Column(name = "bungalow_id")
+    private Long bungalowId;
+
+    /**
+     * Number of committed transactions that changed the bungalow's rates.
+     */
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Moment of the latest increment, used by the polling fallback.
+     */
+    @JdbcType(UtcTimestampJdbcType.class)
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
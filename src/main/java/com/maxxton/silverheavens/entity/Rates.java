@@ -2,11 +2,15 @@ package com.maxxton.silverheavens.entity;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.maxxton.silverheavens.pricing.Money;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -37,6 +41,14 @@ public class Rates {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Optimistic-locking version, incremented by every update. Writing a stale copy
+     * of the row fails instead of silently overwriting a concurrent change.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Identifier of the bungalow to which this rate applies.
      */
@@ -63,10 +75,13 @@ public class Rates {
     private Integer nights;
 
     /**
-     * The price applicable for this stay period, covering the defined number of nights.
+     * The price applicable for this stay period, covering the defined number of nights,
+     * in minor currency units (cents). See {@link Money} for the rounding policy.
+     * Serialized to JSON only as {@link #getValue()} in major units.
      */
-    @Column(name = "`value`",nullable = false)
-    private double value;
+    @JsonIgnore
+    @Column(name = "value_minor", nullable = false)
+    private long valueMinor;
 
     /**
      * The first date from which customers are allowed to book this rate.
@@ -80,4 +95,31 @@ public class Rates {
      */
     @Column(name = "book_date_to")
     private LocalDate bookDateTo;
+
+    /**
+     * Creates a detached copy of another rate, including its id and version.
+     *
+     * @param source rate to copy
+     */
+    public Rates(Rates source) {
+        this(source.id, source.version, source.bungalowId, source.stayDateFrom, source.stayDateTo,
+                source.nights, source.valueMinor, source.bookDateFrom, source.bookDateTo);
+    }
+
+    /**
+     * @return the price of this stay period in major currency units
+     */
+    public double getValue() {
+        return Money.toMajor(valueMinor);
+    }
+
+    /**
+     * Sets the price of this stay period from major currency units,
+     * rounding half-even to whole minor units.
+     *
+     * @param value price in major currency units
+     */
+    public void setValue(double value) {
+        this.valueMinor = Money.toMinor(value);
+    }
 }
@@ -0,0 +1,20 @@
+package com.maxxton.silverheavens.entity;
+
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.jdbc.InstantAsTimestampJdbcType;
+
+/**
+ * Maps an {@link java.time.Instant} to a plain timestamp column ({@code DATETIME(6)} on
+ * MySQL) holding the UTC time, as created by the Flyway migrations and written by
+ * {@code RateJdbcRepository}.
+ * <p>
+ * Hibernate declares {@code Instant} columns as timestamps with time zone by default,
+ * which {@code ddl-auto=validate} rejects against the migrated schema.
+ */
+public class UtcTimestampJdbcType extends InstantAsTimestampJdbcType {
+
+    @Override
+    public int getDefaultSqlTypeCode() {
+        return SqlTypes.TIMESTAMP;
+    }
+}
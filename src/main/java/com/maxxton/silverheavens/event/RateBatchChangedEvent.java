@@ -0,0 +1,18 @@
+package com.maxxton.silverheavens.event;
+
+import java.util.List;
+
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * Published synchronously by the rate service for a set-based mutation of many
+ * {@link Rates} rows at once (binary import, bulk close, bulk purge), inside the
+ * transaction that performs it. Listeners handle it as they would one
+ * {@link RateChangedEvent} per row, but in a single batch.
+ *
+ * @param type kind of mutation, the same for every row
+ * @param rates the affected rates; listeners must copy what they need before returning
+ */
+public record RateBatchChangedEvent(RateChangeType type, List<Rates> rates) {
+}
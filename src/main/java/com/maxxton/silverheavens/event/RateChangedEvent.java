@@ -0,0 +1,14 @@
+package com.maxxton.silverheavens.event;
+
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * Published synchronously by the rate service for every mutation of a {@link Rates} row,
+ * inside the transaction that performs it.
+ *
+ * @param type kind of mutation
+ * @param rate the affected rate; listeners must copy what they need before returning
+ */
+public record RateChangedEvent(RateChangeType type, Rates rate) {
+}
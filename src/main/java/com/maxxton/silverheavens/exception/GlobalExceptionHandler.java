@@ -1,5 +1,8 @@
 package com.maxxton.silverheavens.exception;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,6 +21,27 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    /** Reject requests with 503 and a Retry-After hint when the service is at capacity */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleOverloaded(ServiceOverloadedException ex) {
+        Map<String, Object> body = buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()).getBody();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    /** Reject requests whose deadline expired while waiting on the database, like an overload */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleQueryTimeout(QueryTimeoutException ex) {
+        return handleOverloaded(new ServiceOverloadedException("Request deadline exceeded, try again shortly", 1));
+    }
+
+    /** Report writes that kept conflicting with concurrent changes after all retries */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return buildResponse(HttpStatus.CONFLICT, "Rate was modified concurrently, please retry");
+    }
+
     /** Handle illegal arguments and null values */
     @ExceptionHandler({IllegalArgumentException.class, NullPointerException.class})
     public ResponseEntity<Map<String, Object>> handleIllegalOrNull(Exception ex) {
@@ -0,0 +1,19 @@
+package com.maxxton.silverheavens.exception;
+
+/**
+ * Thrown when a request cannot be admitted because the service is at capacity.
+ * Carries the number of seconds after which the client may retry.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,85 @@
+package com.maxxton.silverheavens.pricing;
+
+/**
+ * Heap-backed {@link RateTimeline} with one primitive array per column.
+ */
+final class ArrayRateTimeline implements RateTimeline {
+
+    static final ArrayRateTimeline EMPTY = new ArrayRateTimeline(0, new long[0], new int[0], new int[0], new int[0],
+            new int[0], new int[0], new long[0], new long[0]);
+
+    private final int size;
+    private final long[] rateId;
+    private final int[] stayFrom;
+    private final int[] stayTo;
+    private final int[] bookFrom;
+    private final int[] bookTo;
+    private final int[] nights;
+    private final long[] valueMinor;
+    private final long[] nightlyMinor;
+
+    ArrayRateTimeline(int size, long[] rateId, int[] stayFrom, int[] stayTo, int[] bookFrom, int[] bookTo,
+                      int[] nights, long[] valueMinor, long[] nightlyMinor) {
+        this.size = size;
+        this.rateId = rateId;
+        this.stayFrom = stayFrom;
+        this.stayTo = stayTo;
+        this.bookFrom = bookFrom;
+        this.bookTo = bookTo;
+        this.nights = nights;
+        this.valueMinor = valueMinor;
+        this.nightlyMinor = nightlyMinor;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long rateId(int row) {
+        return rateId[row];
+    }
+
+    @Override
+    public int stayFrom(int row) {
+        return stayFrom[row];
+    }
+
+    @Override
+    public int stayTo(int row) {
+        return stayTo[row];
+    }
+
+    @Override
+    public int bookFrom(int row) {
+        return bookFrom[row];
+    }
+
+    @Override
+    public int bookTo(int row) {
+        return bookTo[row];
+    }
+
+    @Override
+    public int nights(int row) {
+        return nights[row];
+    }
+
+    @Override
+    public long valueMinor(int row) {
+        return valueMinor[row];
+    }
+
+    @Override
+    public long nightlyMinor(int row) {
+        return nightlyMinor[row];
+    }
+
+    @Override
+    public long heapBytes() {
+        // Object header with size and eight references, eight array headers, then the
+        // elements at full capacity, since builder arrays are not trimmed
+        return 56 + 8 * 16L + (long) stayFrom.length * (3 * Long.BYTES + 5 * Integer.BYTES);
+    }
+}
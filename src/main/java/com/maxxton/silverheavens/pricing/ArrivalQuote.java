@@ -0,0 +1,13 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.time.LocalDate;
+
+/**
+ * Price of one candidate stay returned by the cheapest-arrival search.
+ *
+ * @param arrival first night of the stay
+ * @param departure departure date (exclusive)
+ * @param price total price of the stay
+ */
+public record ArrivalQuote(LocalDate arrival, LocalDate departure, double price) {
+}
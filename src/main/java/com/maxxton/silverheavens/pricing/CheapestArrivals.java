@@ -0,0 +1,92 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the cheapest arrival dates for a fixed length of stay within a date window.
+ *
+ * <p>The effective nightly prices of the whole window are resolved once, then a window
+ * of {@code nights} slides over them, adding the entering night and subtracting the
+ * leaving one, so every candidate total costs O(1) instead of a full quote. Nights
+ * without an applicable rate are counted rather than summed; a candidate is only
+ * eligible while that count is zero. The best {@code limit} candidates are kept in a
+ * bounded heap. Sums are exact minor units, so the returned prices are exactly what
+ * {@link PricingKernel#totalPrice} would return.</p>
+ */
+public final class CheapestArrivals {
+
+    private CheapestArrivals() {
+    }
+
+    private record Candidate(int offset, long total) {
+    }
+
+    /** Orders candidates from worst to best: higher price first, later arrival on ties. */
+    private static final Comparator<Candidate> WORST_FIRST = Comparator
+            .comparingLong(Candidate::total)
+            .thenComparingInt(Candidate::offset)
+            .reversed();
+
+    /**
+     * Searches one bungalow.
+     *
+     * @param timeline candidate rates for the bungalow
+     * @param from earliest arrival date
+     * @param to latest departure date; every returned stay lies within {@code [from, to)}
+     * @param nights length of stay
+     * @param bookingDate date on which the booking is made
+     * @param limit maximum number of arrivals to return
+     * @return up to {@code limit} bookable stays, cheapest first, earlier arrival on ties
+     */
+    public static List<ArrivalQuote> find(RateTimeline timeline, LocalDate from, LocalDate to, int nights,
+                                          LocalDate bookingDate, int limit) {
+        int first = (int) from.toEpochDay();
+        int days = (int) to.toEpochDay() - first;
+        if (timeline.isEmpty() || days < nights) {
+            return List.of();
+        }
+
+        long[] nightly = PricingKernel.nightlyPrices(timeline, first, first + days, (int) bookingDate.toEpochDay());
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        long sum = 0L;
+        int missing = 0;
+        for (int night = 0; night < days; night++) {
+            if (nightly[night] == PricingKernel.NO_PRICE) {
+                missing++;
+            } else {
+                sum += nightly[night];
+            }
+
+            int leaving = night - nights;
+            if (leaving >= 0) {
+                if (nightly[leaving] == PricingKernel.NO_PRICE) {
+                    missing--;
+                } else {
+                    sum -= nightly[leaving];
+                }
+            }
+
+            if (leaving >= -1 && missing == 0) {
+                best.offer(new Candidate(leaving + 1, sum));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Candidate> selected = new ArrayList<>(best);
+        selected.sort(WORST_FIRST.reversed());
+
+        List<ArrivalQuote> quotes = new ArrayList<>(selected.size());
+        for (Candidate candidate : selected) {
+            LocalDate arrival = from.plusDays(candidate.offset());
+            quotes.add(new ArrivalQuote(arrival, arrival.plusDays(nights), Money.toMajor(candidate.total())));
+        }
+        return quotes;
+    }
+}
@@ -0,0 +1,105 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point representation of monetary amounts.
+ *
+ * <p>Amounts are stored and computed as {@code long} minor units (cents), with
+ * {@link #SCALE} decimal places. Conversions from decimal input and every division use
+ * {@link RoundingMode#HALF_EVEN}, so repeated operations do not drift in one direction.
+ * Amounts that are charged in parts, such as a rate spread over its nights, are split
+ * with {@link #share} instead, so the parts add up to the amount exactly.
+ * Conversions to {@code double} only happen at the API boundary.</p>
+ */
+public final class Money {
+
+    /** Number of decimal places kept in minor units. */
+    public static final int SCALE = 2;
+
+    /** Minor units per major unit. */
+    public static final long MINOR_PER_MAJOR = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a major-unit amount to minor units.
+     *
+     * @param major amount in major units, e.g. {@code 12.345}
+     * @return amount in minor units, rounded half-even, e.g. {@code 1234}
+     * @throws IllegalArgumentException if the amount is not finite or does not fit in a {@code long}
+     */
+    public static long toMinor(double major) {
+        if (!Double.isFinite(major)) {
+            throw new IllegalArgumentException("Amount must be a finite number: " + major);
+        }
+        return toMinor(BigDecimal.valueOf(major));
+    }
+
+    /**
+     * Converts a major-unit amount to minor units.
+     *
+     * @param major amount in major units
+     * @return amount in minor units, rounded half-even
+     * @throws IllegalArgumentException if the amount does not fit in a {@code long}
+     */
+    public static long toMinor(BigDecimal major) {
+        try {
+            return major.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + major, e);
+        }
+    }
+
+    /**
+     * Converts minor units to a major-unit {@code double} for display and legacy APIs.
+     *
+     * @param minor amount in minor units
+     * @return nearest {@code double} to the exact major-unit amount
+     */
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Divides an amount, rounding half-even to whole minor units.
+     *
+     * @param minor dividend in minor units
+     * @param divisor positive divisor
+     * @return quotient in minor units
+     * @throws IllegalArgumentException if {@code divisor} is not positive
+     */
+    public static long divide(long minor, long divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive: " + divisor);
+        }
+        long quotient = Math.floorDiv(minor, divisor);
+        long twiceRemainder = 2 * Math.floorMod(minor, divisor);
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    /**
+     * One part of an amount split into {@code parts} nearly equal parts that add up to it
+     * exactly: the parts differ by at most one minor unit, and the remainder goes to the
+     * last ones, e.g. 100.00 in three parts is 33.33, 33.33 and 33.34.
+     *
+     * @param minor amount in minor units
+     * @param parts positive number of parts
+     * @param index part to return, from 0 to {@code parts - 1}
+     * @return the part in minor units
+     * @throws IllegalArgumentException if {@code parts} is not positive or {@code index} is out of range
+     * @throws ArithmeticException if {@code minor * parts} overflows a {@code long}
+     */
+    public static long share(long minor, int parts, int index) {
+        if (parts <= 0 || index < 0 || index >= parts) {
+            throw new IllegalArgumentException("Part " + index + " of " + parts + " does not exist");
+        }
+        return Math.floorDiv(Math.multiplyExact(minor, index + 1L), parts)
+                - Math.floorDiv(Math.multiplyExact(minor, (long) index), parts);
+    }
+}
@@ -0,0 +1,419 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Immutable snapshot of many bungalows' rate rows held outside the Java heap.
+ *
+ * <p>Rows are fixed-width records in one direct {@link ByteBuffer}, grouped by bungalow
+ * and in pricing order within a bungalow. A primitive open-addressing index, also
+ * off-heap, maps each bungalow id to the offset and count of its rows. Neither the rows
+ * nor the index create Java objects, so the heap footprint and GC work stay the same
+ * whatever the size of the portfolio; {@link #timeline} hands out a small view that
+ * {@link PricingKernel} reads in place.</p>
+ *
+ * <p>Rows closed for booking before {@link #horizonDay()} are left out, so the snapshot
+ * can only answer quotes booked on or after that day. The only mutation after
+ * {@link Builder#build()} is {@link #invalidate}, which marks a bungalow as stale so
+ * that callers fall back to the database until the next snapshot.</p>
+ */
+public final class OffHeapRateStore {
+
+    /** Bytes per row record. */
+    static final int RECORD_BYTES = 48;
+
+    private static final int RATE_ID = 0;
+    private static final int VALUE_MINOR = 8;
+    private static final int NIGHTLY_MINOR = 16;
+    private static final int STAY_FROM = 24;
+    private static final int STAY_TO = 28;
+    private static final int BOOK_FROM = 32;
+    private static final int BOOK_TO = 36;
+    private static final int NIGHTS = 40;
+
+    /** Most rows a snapshot can hold, bounded by int offsets into one buffer. */
+    static final int MAX_ROWS = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private final ByteBuffer records;
+    private final int rowCount;
+    private final Index index;
+    private final int horizonDay;
+
+    private OffHeapRateStore(ByteBuffer records, int rowCount, Index index, int horizonDay) {
+        this.records = records;
+        this.rowCount = rowCount;
+        this.index = index;
+        this.horizonDay = horizonDay;
+    }
+
+    /**
+     * Returns the rows of a bungalow as a timeline backed by the off-heap records.
+     *
+     * @param bungalowId bungalow to look up
+     * @param bookingDay booking date as epoch day
+     * @return the bungalow's rows, or {@code null} if the snapshot cannot answer: the
+     *         bungalow is unknown, has no rows, was invalidated, or the booking date lies
+     *         before the horizon
+     */
+    public RateTimeline timeline(long bungalowId, int bookingDay) {
+        if (bookingDay < horizonDay) {
+            return null;
+        }
+        int slot = index.find(bungalowId);
+        if (slot < 0 || index.version(slot) == Index.STALE) {
+            return null;
+        }
+        int count = index.count(slot);
+        return count == 0 ? null : new View(index.offset(slot), count);
+    }
+
+    /**
+     * Marks a bungalow stale if the given version is newer than the one its rows were read at.
+     *
+     * @param bungalowId bungalow whose rates changed
+     * @param version version reached by the change
+     */
+    public void invalidate(long bungalowId, long version) {
+        int slot = index.find(bungalowId);
+        if (slot >= 0) {
+            index.invalidate(slot, version);
+        }
+    }
+
+    /**
+     * @return number of rows in the snapshot
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return number of bungalows in the snapshot
+     */
+    public int bungalowCount() {
+        return index.size;
+    }
+
+    /**
+     * @return off-heap bytes used by rows and index
+     */
+    public long offHeapBytes() {
+        return (long) records.capacity() + index.slots.capacity();
+    }
+
+    /**
+     * @return earliest booking date, as epoch day, the snapshot can price
+     */
+    public int horizonDay() {
+        return horizonDay;
+    }
+
+    /**
+     * Rows of one bungalow, read in place from the record buffer.
+     */
+    private final class View implements RateTimeline {
+
+        private final int base;
+        private final int size;
+
+        View(int firstRow, int size) {
+            this.base = firstRow * RECORD_BYTES;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public long rateId(int row) {
+            return records.getLong(address(row) + RATE_ID);
+        }
+
+        @Override
+        public int stayFrom(int row) {
+            return records.getInt(address(row) + STAY_FROM);
+        }
+
+        @Override
+        public int stayTo(int row) {
+            return records.getInt(address(row) + STAY_TO);
+        }
+
+        @Override
+        public int bookFrom(int row) {
+            return records.getInt(address(row) + BOOK_FROM);
+        }
+
+        @Override
+        public int bookTo(int row) {
+            return records.getInt(address(row) + BOOK_TO);
+        }
+
+        @Override
+        public int nights(int row) {
+            return records.getInt(address(row) + NIGHTS);
+        }
+
+        @Override
+        public long valueMinor(int row) {
+            return records.getLong(address(row) + VALUE_MINOR);
+        }
+
+        @Override
+        public long nightlyMinor(int row) {
+            return records.getLong(address(row) + NIGHTLY_MINOR);
+        }
+
+        @Override
+        public long heapBytes() {
+            // Header, two ints and the reference to the store; the rows stay off-heap
+            return 24;
+        }
+
+        private int address(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException(row);
+            }
+            return base + row * RECORD_BYTES;
+        }
+    }
+
+    /**
+     * Open-addressing hash index from bungalow id to row range, with linear probing,
+     * stored in a direct buffer. Each slot holds the key, the version the rows were read
+     * at, and the offset and count of the rows. Kept at most half full.
+     */
+    static final class Index {
+
+        static final int SLOT_BYTES = 24;
+
+        /** Version of a bungalow changed after the snapshot was taken. */
+        static final long STALE = Long.MAX_VALUE;
+
+        private static final long EMPTY = Long.MIN_VALUE;
+        private static final int KEY = 0;
+        private static final int VERSION = 8;
+        private static final int OFFSET = 16;
+        private static final int COUNT = 20;
+
+        private static final VarHandle LONGS =
+                MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+        private ByteBuffer slots;
+        private int mask;
+        private int size;
+
+        Index(int expectedKeys) {
+            allocate(Integer.highestOneBit(Math.max(expectedKeys, 4) * 2 - 1) << 1);
+        }
+
+        private void allocate(int capacity) {
+            slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            for (int slot = 0; slot < capacity; slot++) {
+                slots.putLong(slot * SLOT_BYTES + KEY, EMPTY);
+            }
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        /**
+         * @return slot holding the key, or -1 if absent
+         */
+        int find(long key) {
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                long stored = slots.getLong(slot * SLOT_BYTES + KEY);
+                if (stored == key) {
+                    return slot;
+                }
+                if (stored == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Returns the slot of the key, inserting an empty entry if absent. Build time only.
+         */
+        int findOrInsert(long key) {
+            if (key == EMPTY) {
+                throw new IllegalArgumentException("Unsupported bungalow id: " + key);
+            }
+            if ((size + 1) * 2 > mask + 1) {
+                rehash();
+            }
+            int slot = hash(key) & mask;
+            while (true) {
+                long stored = slots.getLong(slot * SLOT_BYTES + KEY);
+                if (stored == key) {
+                    return slot;
+                }
+                if (stored == EMPTY) {
+                    int at = slot * SLOT_BYTES;
+                    slots.putLong(at + KEY, key);
+                    slots.putLong(at + VERSION, 0L);
+                    slots.putInt(at + OFFSET, 0);
+                    slots.putInt(at + COUNT, 0);
+                    size++;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        long version(int slot) {
+            return (long) LONGS.getAcquire(slots, slot * SLOT_BYTES + VERSION);
+        }
+
+        void setVersion(int slot, long version) {
+            slots.putLong(slot * SLOT_BYTES + VERSION, version);
+        }
+
+        void invalidate(int slot, long version) {
+            int at = slot * SLOT_BYTES + VERSION;
+            long current;
+            do {
+                current = (long) LONGS.getAcquire(slots, at);
+                if (version <= current) {
+                    return;
+                }
+            } while (!LONGS.compareAndSet(slots, at, current, STALE));
+        }
+
+        int offset(int slot) {
+            return slots.getInt(slot * SLOT_BYTES + OFFSET);
+        }
+
+        int count(int slot) {
+            return slots.getInt(slot * SLOT_BYTES + COUNT);
+        }
+
+        void setRange(int slot, int offset, int count) {
+            slots.putInt(slot * SLOT_BYTES + OFFSET, offset);
+            slots.putInt(slot * SLOT_BYTES + COUNT, count);
+        }
+
+        private void rehash() {
+            ByteBuffer old = slots;
+            int oldCapacity = mask + 1;
+            allocate(oldCapacity * 2);
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                int at = slot * SLOT_BYTES;
+                long key = old.getLong(at + KEY);
+                if (key != EMPTY) {
+                    int moved = findOrInsert(key);
+                    setVersion(moved, old.getLong(at + VERSION));
+                    setRange(moved, old.getInt(at + OFFSET), old.getInt(at + COUNT));
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Single-threaded builder. Versions are registered first, then rows are appended
+     * grouped by bungalow in pricing order.
+     */
+    public static final class Builder {
+
+        private final int horizonDay;
+        private final Index index;
+        private ByteBuffer records;
+        private int rowCount;
+
+        private long currentBungalow;
+        private int currentSlot = -1;
+        private int currentFirstRow;
+
+        /**
+         * @param expectedRows sizing hint for the record buffer
+         * @param expectedBungalows sizing hint for the index
+         * @param horizonDay rows with a booking end before this epoch day are skipped
+         */
+        public Builder(int expectedRows, int expectedBungalows, int horizonDay) {
+            this.horizonDay = horizonDay;
+            this.index = new Index(expectedBungalows);
+            this.records = ByteBuffer.allocateDirect(Math.min(Math.max(expectedRows, 16), MAX_ROWS) * RECORD_BYTES)
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        /**
+         * Records the version a bungalow's rows are read at.
+         */
+        public Builder version(long bungalowId, long version) {
+            index.setVersion(index.findOrInsert(bungalowId), version);
+            return this;
+        }
+
+        /**
+         * Appends one row of a bungalow.
+         *
+         * @throws IllegalArgumentException if the bungalow's rows are not contiguous
+         */
+        public Builder add(long bungalowId, long rateId, int stayFromDay, int stayToDay, int bookFromDay,
+                           int bookToDay, int nights, long valueMinor) {
+            if (currentSlot < 0 || bungalowId != currentBungalow) {
+                startBungalow(bungalowId);
+            }
+            if (bookToDay < horizonDay) {
+                return this;
+            }
+            if (rowCount == MAX_ROWS) {
+                throw new IllegalStateException("Off-heap rate store is limited to " + MAX_ROWS + " rows");
+            }
+            if ((rowCount + 1) * RECORD_BYTES > records.capacity()) {
+                grow();
+            }
+            int at = rowCount * RECORD_BYTES;
+            records.putLong(at + RATE_ID, rateId);
+            records.putLong(at + VALUE_MINOR, valueMinor);
+            records.putLong(at + NIGHTLY_MINOR, RateTimeline.perNightMinor(valueMinor, nights));
+            records.putInt(at + STAY_FROM, stayFromDay);
+            records.putInt(at + STAY_TO, stayToDay);
+            records.putInt(at + BOOK_FROM, bookFromDay);
+            records.putInt(at + BOOK_TO, bookToDay);
+            records.putInt(at + NIGHTS, nights);
+            rowCount++;
+            return this;
+        }
+
+        public OffHeapRateStore build() {
+            closeBungalow();
+            return new OffHeapRateStore(records, rowCount, index, horizonDay);
+        }
+
+        private void startBungalow(long bungalowId) {
+            closeBungalow();
+            int slot = index.findOrInsert(bungalowId);
+            if (index.count(slot) > 0) {
+                throw new IllegalArgumentException("Rows of bungalow " + bungalowId + " are not contiguous");
+            }
+            currentBungalow = bungalowId;
+            currentSlot = slot;
+            currentFirstRow = rowCount;
+        }
+
+        private void closeBungalow() {
+            if (currentSlot >= 0) {
+                // The slot may have moved if the index grew since the bungalow started
+                index.setRange(index.find(currentBungalow), currentFirstRow, rowCount - currentFirstRow);
+                currentSlot = -1;
+            }
+        }
+
+        private void grow() {
+            long capacity = Math.min((long) records.capacity() * 2, (long) MAX_ROWS * RECORD_BYTES);
+            ByteBuffer larger = ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+            larger.put(0, records, 0, rowCount * RECORD_BYTES);
+            records = larger;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Total price of a stay together with the rates it was built from, as run-length
+ * encoded segments: consecutive nights priced by the same rate row form one segment,
+ * so the payload grows with the number of rate changes inside the stay, not its length.
+ *
+ * @param total total price of the stay in major units
+ * @param segments consecutive runs of nights, in stay order, covering every night exactly once
+ */
+public record PriceBreakdown(double total, List<Segment> segments) {
+
+    /**
+     * A run of nights priced by one rate.
+     *
+     * @param fromNight first night of the run (inclusive)
+     * @param toNight last night of the run (inclusive)
+     * @param nights number of nights in the run
+     * @param perNightValue average price per night of the applied rate in major units; the
+     *                      nights of a multi-night rate share its value exactly, so single
+     *                      nights may differ from this by one minor unit
+     * @param rateId id of the applied rate, or {@link RateTimeline#NO_ID} for unsaved rows
+     */
+    public record Segment(LocalDate fromNight, LocalDate toNight, int nights, double perNightValue, long rateId) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.maxxton.silverheavens.exception.RateNotFoundException;
+
+/**
+ * Allocation-light pricing loop over a {@link RateTimeline}.
+ *
+ * <p>For every night of the stay the first row (in timeline order) whose stay window
+ * contains the night and whose booking window contains the booking date is applied,
+ * contributing its share of {@code value} over {@code nights} (see
+ * {@link RateTimeline#nightMinor}), so whole runs of a multi-night rate cost exactly its
+ * value. Instead of rescanning all rows for each night,
+ * rows are visited once and each claims the still-unassigned nights it covers, which
+ * gives the same first-match result. Every bookable row walks the part of the stay it
+ * overlaps, so this is {@code O(rows + nights)} when the bookable rows do not overlap,
+ * as for active timelines, and {@code O(rows × nights)} in the worst case when many
+ * bookable rows cover the same nights. The sweep stops once every night is assigned.
+ * Totals are exact integer sums of minor units.</p>
+ */
+public final class PricingKernel {
+
+    /** Marker in {@link #nightlyPrices} for a night without a usable rate. */
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    private PricingKernel() {
+    }
+
+    /**
+     * Sums the nightly prices for a stay.
+     *
+     * @param timeline candidate rates for the bungalow
+     * @param arrival first night of the stay (inclusive)
+     * @param departure departure date (exclusive)
+     * @param bookingDate date on which the booking is made
+     * @return total price of the stay in major units
+     * @throws RateNotFoundException if some night has no applicable rate
+     * @throws IllegalArgumentException if the applicable rate for some night has zero nights
+     */
+    public static double totalPrice(RateTimeline timeline, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        return Money.toMajor(totalPriceMinor(timeline, arrival, departure, bookingDate));
+    }
+
+    /**
+     * Sums the nightly prices for a stay in minor units.
+     *
+     * @see #totalPrice(RateTimeline, LocalDate, LocalDate, LocalDate)
+     */
+    public static long totalPriceMinor(RateTimeline timeline, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        int first = (int) arrival.toEpochDay();
+        int[] matched = matchNights(timeline, first, (int) departure.toEpochDay(), (int) bookingDate.toEpochDay());
+
+        long total = 0L;
+        for (int night = 0; night < matched.length; night++) {
+            int row = checkedRow(timeline, matched, night, first);
+            total += timeline.nightMinor(row, first + night);
+        }
+        return total;
+    }
+
+    /**
+     * Prices a stay and describes it as run-length encoded segments in the same pass:
+     * a new segment starts whenever the matched row changes, so a stay covered by one
+     * rate yields one segment regardless of its length.
+     *
+     * @param timeline candidate rates for the bungalow
+     * @param arrival first night of the stay (inclusive)
+     * @param departure departure date (exclusive)
+     * @param bookingDate date on which the booking is made
+     * @return total price and the segments it is made of
+     * @throws RateNotFoundException if some night has no applicable rate
+     * @throws IllegalArgumentException if the applicable rate for some night has zero nights
+     */
+    public static PriceBreakdown breakdown(RateTimeline timeline, LocalDate arrival, LocalDate departure,
+                                           LocalDate bookingDate) {
+        int first = (int) arrival.toEpochDay();
+        int[] matched = matchNights(timeline, first, (int) departure.toEpochDay(), (int) bookingDate.toEpochDay());
+
+        List<PriceBreakdown.Segment> segments = new ArrayList<>();
+        long total = 0L;
+        int runStart = 0;
+        int runRow = -1;
+        for (int night = 0; night < matched.length; night++) {
+            int row = checkedRow(timeline, matched, night, first);
+            total += timeline.nightMinor(row, first + night);
+            if (row != runRow) {
+                if (runRow >= 0) {
+                    segments.add(segment(timeline, runRow, first + runStart, night - runStart));
+                }
+                runStart = night;
+                runRow = row;
+            }
+        }
+        if (runRow >= 0) {
+            segments.add(segment(timeline, runRow, first + runStart, matched.length - runStart));
+        }
+        return new PriceBreakdown(Money.toMajor(total), segments);
+    }
+
+    private static PriceBreakdown.Segment segment(RateTimeline t, int row, int firstDay, int nights) {
+        return new PriceBreakdown.Segment(LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(firstDay + nights - 1L),
+                nights, Money.toMajor(t.nightlyMinor(row)), t.rateId(row));
+    }
+
+    /**
+     * Effective price of every night in {@code [first, end)}, for scanning many stays at once.
+     *
+     * @param timeline candidate rates for the bungalow
+     * @param first first night as epoch day (inclusive)
+     * @param end last departure as epoch day (exclusive)
+     * @param booking booking date as epoch day
+     * @return price per night in minor units, {@link #NO_PRICE} where no usable rate applies
+     */
+    public static long[] nightlyPrices(RateTimeline timeline, int first, int end, int booking) {
+        int[] matched = matchNights(timeline, first, end, booking);
+        long[] prices = new long[matched.length];
+        for (int night = 0; night < matched.length; night++) {
+            int row = matched[night];
+            prices[night] = row < 0 || timeline.nights(row) == 0 ? NO_PRICE : timeline.nightMinor(row, first + night);
+        }
+        return prices;
+    }
+
+    /**
+     * Describes the rows of a timeline whose stay window overlaps a stay, for the explain
+     * endpoint.
+     *
+     * @param timeline candidate rates for the bungalow
+     * @param arrival first night of the stay (inclusive)
+     * @param departure departure date (exclusive)
+     * @param bookingDate date on which the booking is made
+     * @return overlapping rows in timeline order, flagged with whether they are bookable
+     */
+    public static List<QuoteExplanation.Row> explainRows(RateTimeline timeline, LocalDate arrival, LocalDate departure,
+                                                         LocalDate bookingDate) {
+        int first = (int) arrival.toEpochDay();
+        int last = (int) departure.toEpochDay() - 1;
+        int booking = (int) bookingDate.toEpochDay();
+
+        List<QuoteExplanation.Row> rows = new ArrayList<>();
+        for (int row = 0; row < timeline.size(); row++) {
+            if (timeline.stayTo(row) < first || timeline.stayFrom(row) > last) {
+                continue;
+            }
+            int bookTo = timeline.bookTo(row);
+            rows.add(new QuoteExplanation.Row(timeline.rateId(row),
+                    LocalDate.ofEpochDay(timeline.stayFrom(row)), LocalDate.ofEpochDay(timeline.stayTo(row)),
+                    LocalDate.ofEpochDay(timeline.bookFrom(row)),
+                    bookTo == RateTimeline.OPEN_END ? null : LocalDate.ofEpochDay(bookTo),
+                    timeline.nights(row), Money.toMajor(timeline.valueMinor(row)),
+                    booking >= timeline.bookFrom(row) && booking <= bookTo));
+        }
+        return rows;
+    }
+
+    /**
+     * Reports the row the pricing sweep matched for every night of a stay, from the same
+     * {@link #matchNights} pass that prices it. The sweep visits rows in timeline order and
+     * each claims the nights it covers first, so a night was assigned after visiting the
+     * rows up to and including its match; a night nothing matched was still open after
+     * the sweep visited every row.
+     *
+     * @param timeline candidate rates for the bungalow
+     * @param arrival first night of the stay (inclusive)
+     * @param departure departure date (exclusive)
+     * @param bookingDate date on which the booking is made
+     * @return matched rate and rows visited per night, in stay order
+     */
+    public static List<QuoteExplanation.Night> explainNights(RateTimeline timeline, LocalDate arrival,
+                                                             LocalDate departure, LocalDate bookingDate) {
+        int first = (int) arrival.toEpochDay();
+        int[] matched = matchNights(timeline, first, (int) departure.toEpochDay(), (int) bookingDate.toEpochDay());
+
+        List<QuoteExplanation.Night> nights = new ArrayList<>(matched.length);
+        for (int night = 0; night < matched.length; night++) {
+            int row = matched[night];
+            int day = first + night;
+            nights.add(row < 0
+                    ? new QuoteExplanation.Night(LocalDate.ofEpochDay(day), null, null, timeline.size())
+                    : new QuoteExplanation.Night(LocalDate.ofEpochDay(day), timeline.rateId(row),
+                            timeline.nights(row) == 0 ? null : Money.toMajor(timeline.nightMinor(row, day)),
+                            row + 1));
+        }
+        return nights;
+    }
+
+    /**
+     * Resolves the applicable row for each night of {@code [first, end)}.
+     *
+     * @return row index per night, or -1 where no row applies
+     */
+    static int[] matchNights(RateTimeline t, int first, int end, int booking) {
+        int[] matched = new int[end - first];
+        Arrays.fill(matched, -1);
+        int unassigned = matched.length;
+
+        int size = t.size();
+        for (int row = 0; row < size && unassigned > 0; row++) {
+            if (booking < t.bookFrom(row) || booking > t.bookTo(row)) {
+                continue;
+            }
+            int from = Math.max(t.stayFrom(row), first);
+            int to = Math.min(t.stayTo(row), end - 1);
+            for (int day = from; day <= to; day++) {
+                int night = day - first;
+                if (matched[night] < 0) {
+                    matched[night] = row;
+                    unassigned--;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the row matched for a night, validating it the same way for every caller.
+     */
+    static int checkedRow(RateTimeline t, int[] matched, int night, int first) {
+        int row = matched[night];
+        if (row < 0) {
+            throw new RateNotFoundException("No applicable rate found for date: " + LocalDate.ofEpochDay(first + night));
+        }
+        if (t.nights(row) == 0) {
+            throw new IllegalArgumentException("Rate nights cannot be zero for date: " + LocalDate.ofEpochDay(first + night));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,74 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * How a single quote was produced: where its rows came from, which rate priced each
+ * night, and where the time went. Built only on request by the explain endpoint, so
+ * ordinary quotes never pay for it.
+ *
+ * @param source where the rows were read from
+ * @param fetchMicros time spent fetching the rows (database, cache or snapshot)
+ * @param pricingMicros time spent in the pricing loop
+ * @param total total price of the stay in major units, or {@code null} if it could not be priced
+ * @param error why the stay could not be priced, or {@code null}
+ * @param timelineRows number of rows the pricing loop received
+ * @param rows the received rows whose stay window overlaps the stay, in timeline order
+ * @param nights the rate matched for every night of the stay
+ */
+public record QuoteExplanation(Source source, long fetchMicros, long pricingMicros, Double total, String error,
+                               int timelineRows, List<Row> rows, List<Night> nights) {
+
+    /**
+     * Where the pricing rows were read from.
+     */
+    public enum Source {
+        /** Snapshot of the rows bookable today. */
+        EFFECTIVE_SNAPSHOT,
+        /** Portfolio-wide off-heap snapshot. */
+        OFF_HEAP,
+        /** Replica-local timeline cache, entry already present. */
+        CACHE_HIT,
+        /** Replica-local timeline cache, entry loaded for this quote. */
+        CACHE_MISS,
+        /**
+         * JDBC or JPA fetch of the bookable rows, shared with concurrent quotes for the
+         * same bungalow and booking date.
+         */
+        COALESCED_FETCH,
+        /** Price-only JDBC query. */
+        JDBC,
+        /** {@code findRelevantRates} through JPA. */
+        JPA
+    }
+
+    /**
+     * A row handed to the pricing loop.
+     *
+     * @param rateId id of the rate, or {@link RateTimeline#NO_ID} for unsaved rows
+     * @param stayFrom first night the rate applies to
+     * @param stayTo last night the rate applies to
+     * @param bookFrom first booking date the rate is valid for
+     * @param bookTo last booking date the rate is valid for, {@code null} if open-ended
+     * @param nights number of nights the value is spread over
+     * @param value rate value in major units
+     * @param bookable whether the booking date falls inside the booking window
+     */
+    public record Row(long rateId, LocalDate stayFrom, LocalDate stayTo, LocalDate bookFrom, LocalDate bookTo,
+                      int nights, double value, boolean bookable) {
+    }
+
+    /**
+     * The rate applied to one night.
+     *
+     * @param night the night
+     * @param rateId id of the matched rate, or {@code null} if none applies
+     * @param value price of the night in major units, or {@code null} if it has none
+     * @param candidatesScanned rows the pricing sweep had visited, in timeline order, when
+     *                          it assigned this night: up to and including the match, or
+     *                          all of them when nothing matched
+     */
+    public record Night(LocalDate night, Long rateId, Double value, int candidatesScanned) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Compact portfolio-wide aggregates over the rate table, computed in the database.
+ * Nightly prices are {@code value / nights} per row, rounded half-even to minor units
+ * and given in major units; rows without nights are left out of them.
+ */
+public final class RateAnalytics {
+
+    private RateAnalytics() {
+    }
+
+    /**
+     * Size of the portfolio.
+     *
+     * @param bungalows bungalows with at least one rate
+     * @param rates all rate rows
+     * @param activeRates rows without a booking end date
+     * @param closedRates rows closed for booking
+     */
+    public record Summary(long bungalows, long rates, long activeRates, long closedRates) {
+    }
+
+    /**
+     * Nightly prices of the active rates starting in one month.
+     *
+     * @param month month of the stay start date
+     * @param rates number of active rates starting in the month
+     * @param averageNightly average nightly price of those rates
+     * @param minNightly lowest nightly price
+     * @param maxNightly highest nightly price
+     */
+    public record MonthlyRate(YearMonth month, long rates, double averageNightly, double minNightly,
+                              double maxNightly) {
+    }
+
+    /**
+     * Nightly price range of the active rates of one bungalow.
+     *
+     * @param bungalowId the bungalow
+     * @param activeRates number of active rates
+     * @param minNightly lowest nightly price
+     * @param maxNightly highest nightly price
+     * @param firstNight first night covered by an active rate
+     * @param lastNight last night covered by an active rate
+     */
+    public record BungalowRange(long bungalowId, long activeRates, double minNightly, double maxNightly,
+                                LocalDate firstNight, LocalDate lastNight) {
+    }
+}
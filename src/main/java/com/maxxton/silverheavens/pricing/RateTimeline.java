@@ -0,0 +1,221 @@
+package com.maxxton.silverheavens.pricing;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * Primitive, row-indexed view of the rate rows needed to price a stay.
+ *
+ * <p>Dates are exposed as epoch days and an open-ended booking window as
+ * {@link #OPEN_END}, so the pricing loop compares plain ints instead of
+ * {@link java.time.LocalDate} objects. Rows keep the order in which they were
+ * fetched (by stay start date), which decides which rate wins when several match.</p>
+ *
+ * <p>Values are kept in minor units, together with the per-night price of each row
+ * ({@code value / nights}, rounded half-even), so pricing a stay is a sum of longs.</p>
+ *
+ * <p>Rows either live in heap arrays ({@link Builder}) or in an off-heap
+ * {@link OffHeapRateStore}; {@link PricingKernel} reads both through this interface.</p>
+ */
+public interface RateTimeline {
+
+    /** Epoch day used for a missing {@code bookDateTo}. */
+    int OPEN_END = Integer.MAX_VALUE;
+
+    /** Rate id used for rows that have not been persisted. */
+    long NO_ID = 0L;
+
+    /**
+     * @return a timeline without rows
+     */
+    static RateTimeline empty() {
+        return ArrayRateTimeline.EMPTY;
+    }
+
+    /**
+     * Converts entities into a timeline, keeping their order.
+     *
+     * @param rates rate entities, typically ordered by stay start date
+     * @return primitive timeline over the same rows
+     */
+    static RateTimeline of(List<Rates> rates) {
+        if (rates == null || rates.isEmpty()) {
+            return ArrayRateTimeline.EMPTY;
+        }
+
+        Builder builder = new Builder(rates.size());
+        for (Rates r : rates) {
+            builder.add(
+                    r.getId() == null ? NO_ID : r.getId(),
+                    (int) r.getStayDateFrom().toEpochDay(),
+                    (int) r.getStayDateTo().toEpochDay(),
+                    (int) r.getBookDateFrom().toEpochDay(),
+                    r.getBookDateTo() == null ? OPEN_END : (int) r.getBookDateTo().toEpochDay(),
+                    r.getNights() == null ? 0 : r.getNights(),
+                    r.getValueMinor());
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of rows
+     */
+    int size();
+
+    /**
+     * @return {@code true} if the timeline has no rows
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    long rateId(int row);
+
+    int stayFrom(int row);
+
+    int stayTo(int row);
+
+    int bookFrom(int row);
+
+    int bookTo(int row);
+
+    int nights(int row);
+
+    long valueMinor(int row);
+
+    /**
+     * @return average per-night price of the row in minor units, rounded half-even, for
+     *         display; 0 for rows with zero nights. What each night is charged is
+     *         {@link #nightMinor}.
+     */
+    long nightlyMinor(int row);
+
+    /**
+     * Price charged for one night of a row. The value of a multi-night row is split over
+     * each run of {@code nights} consecutive nights from its stay start with
+     * {@link Money#share}, so a stay covering whole runs pays exactly the row's value
+     * per run.
+     *
+     * @param row row priced
+     * @param day night as epoch day, inside the row's stay window
+     * @return price of the night in minor units; 0 for rows with zero nights
+     */
+    default long nightMinor(int row, int day) {
+        int nights = nights(row);
+        if (nights == 1) {
+            return valueMinor(row);
+        }
+        return nights > 0 ? Money.share(valueMinor(row), nights, Math.floorMod(day - stayFrom(row), nights)) : 0L;
+    }
+
+    /**
+     * Rows whose stay window overlaps the given days, in their original order: the rows
+     * a per-stay fetch would have returned from the rows this timeline holds.
+     *
+     * @param fromDay first day, as epoch day (inclusive)
+     * @param toDay last day, as epoch day (inclusive)
+     * @return the overlapping rows; this timeline itself if every row overlaps
+     */
+    default RateTimeline slice(int fromDay, int toDay) {
+        int kept = 0;
+        for (int row = 0; row < size(); row++) {
+            if (stayTo(row) >= fromDay && stayFrom(row) <= toDay) {
+                kept++;
+            }
+        }
+        if (kept == size()) {
+            return this;
+        }
+
+        Builder builder = new Builder(kept);
+        for (int row = 0; row < size(); row++) {
+            if (stayTo(row) >= fromDay && stayFrom(row) <= toDay) {
+                builder.add(rateId(row), stayFrom(row), stayTo(row), bookFrom(row), bookTo(row), nights(row),
+                        valueMinor(row));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return approximate heap footprint of this timeline in bytes, used to weigh cache
+     *         entries; rows held off-heap are not counted
+     */
+    long heapBytes();
+
+    /**
+     * Average per-night price of a row as stored by every implementation.
+     */
+    static long perNightMinor(long valueMinor, int nights) {
+        return nights > 0 ? Money.divide(valueMinor, nights) : 0L;
+    }
+
+    /**
+     * Growable builder of heap-backed timelines, used when the row count is not known up front.
+     */
+    final class Builder {
+
+        private int size;
+        private long[] rateId;
+        private int[] stayFrom;
+        private int[] stayTo;
+        private int[] bookFrom;
+        private int[] bookTo;
+        private int[] nights;
+        private long[] valueMinor;
+        private long[] nightlyMinor;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 8);
+            rateId = new long[capacity];
+            stayFrom = new int[capacity];
+            stayTo = new int[capacity];
+            bookFrom = new int[capacity];
+            bookTo = new int[capacity];
+            nights = new int[capacity];
+            valueMinor = new long[capacity];
+            nightlyMinor = new long[capacity];
+        }
+
+        /**
+         * Appends one row.
+         */
+        public Builder add(long id, int stayFromDay, int stayToDay, int bookFromDay, int bookToDay, int nightCount,
+                           long rateValueMinor) {
+            if (size == stayFrom.length) {
+                grow();
+            }
+            rateId[size] = id;
+            stayFrom[size] = stayFromDay;
+            stayTo[size] = stayToDay;
+            bookFrom[size] = bookFromDay;
+            bookTo[size] = bookToDay;
+            nights[size] = nightCount;
+            valueMinor[size] = rateValueMinor;
+            nightlyMinor[size] = RateTimeline.perNightMinor(rateValueMinor, nightCount);
+            size++;
+            return this;
+        }
+
+        public RateTimeline build() {
+            return size == 0
+                    ? ArrayRateTimeline.EMPTY
+                    : new ArrayRateTimeline(size, rateId, stayFrom, stayTo, bookFrom, bookTo, nights, valueMinor,
+                            nightlyMinor);
+        }
+
+        private void grow() {
+            int capacity = stayFrom.length * 2;
+            rateId = Arrays.copyOf(rateId, capacity);
+            stayFrom = Arrays.copyOf(stayFrom, capacity);
+            stayTo = Arrays.copyOf(stayTo, capacity);
+            bookFrom = Arrays.copyOf(bookFrom, capacity);
+            bookTo = Arrays.copyOf(bookTo, capacity);
+            nights = Arrays.copyOf(nights, capacity);
+            valueMinor = Arrays.copyOf(valueMinor, capacity);
+            nightlyMinor = Arrays.copyOf(nightlyMinor, capacity);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.maxxton.silverheavens.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.maxxton.silverheavens.entity.RateChange;
+
+/**
+ * Repository for the append-only {@link RateChange} log.
+ */
+public interface RateChangeRepository extends JpaRepository<RateChange, Long> {
+
+    /**
+     * Reads log entries strictly after the given sequence number, oldest first.
+     *
+     * @param after last sequence number the consumer has already applied
+     * @param limit maximum number of entries to return
+     * @return next page of the change log
+     */
+    List<RateChange> findBySequenceGreaterThanOrderBySequence(Long after, Limit limit);
+}
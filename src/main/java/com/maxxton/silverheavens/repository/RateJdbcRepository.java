@@ -0,0 +1,758 @@
+package com.maxxton.silverheavens.repository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.maxxton.silverheavens.concurrency.RequestDeadline;
+import com.maxxton.silverheavens.entity.RateChange;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.pricing.Money;
+import com.maxxton.silverheavens.pricing.RateAnalytics;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Plain JDBC access to the {@code rates} table for bulk and hot paths where
+ * Hibernate entity hydration and the persistence context are pure overhead.
+ *
+ * <p>Reads stream rows from a server-side cursor with a bounded fetch size and never
+ * materialize the full result, so memory stays flat regardless of table size.</p>
+ *
+ * <p>Queries on the pricing path run with the time left to the current
+ * {@link RequestDeadline} as their query timeout.</p>
+ */
+@Repository
+public class RateJdbcRepository {
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Shared template for short point queries on the pricing hot path.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rows fetched per round trip when streaming the whole table.
+     */
+    @Value("${rates.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate streamingTemplate;
+
+    private String pricingSql;
+
+    private String bungalowTimelineSql;
+
+    private String bookableTimelineSql;
+
+    private final ResultSetExtractor<RateTimeline> timelineExtractor = this::toTimeline;
+
+    /**
+     * Zone of stored {@code Instant} columns, as Hibernate writes them.
+     */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static final String ROW_COLUMNS = "SELECT id, version, bungalow_id, stay_date_from, stay_date_to, nights,"
+            + " value_minor, book_date_from, book_date_to";
+
+    /**
+     * Maps the columns of {@link #ROW_COLUMNS} into a detached {@link Rates}.
+     */
+    private final RowMapper<Rates> rowMapper = (rs, i) -> new Rates(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getLong(3),
+            rs.getObject(4, LocalDate.class),
+            rs.getObject(5, LocalDate.class),
+            rs.getInt(6),
+            rs.getLong(7),
+            rs.getObject(8, LocalDate.class),
+            rs.getObject(9, LocalDate.class));
+
+    @PostConstruct
+    void init() {
+        streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(fetchSize);
+
+        pricingSql = "SELECT id, stay_date_from, stay_date_to, book_date_from, book_date_to, nights, value_minor"
+                + " FROM rates"
+                + " WHERE bungalow_id = ?"
+                + " AND stay_date_to >= ?"
+                + " AND stay_date_from <= ?"
+                + " AND (book_date_to IS NULL OR book_date_to >= ?)"
+                + " AND book_date_from <= ?"
+                + " ORDER BY stay_date_from";
+
+        bungalowTimelineSql = "SELECT id, stay_date_from, stay_date_to, book_date_from, book_date_to, nights, value_minor"
+                + " FROM rates WHERE bungalow_id = ? ORDER BY stay_date_from";
+
+        bookableTimelineSql = "SELECT id, stay_date_from, stay_date_to, book_date_from, book_date_to, nights, value_minor"
+                + " FROM rates"
+                + " WHERE bungalow_id = ?"
+                + " AND (book_date_to IS NULL OR book_date_to >= ?)"
+                + " AND book_date_from <= ?"
+                + " ORDER BY stay_date_from";
+    }
+
+    /**
+     * Price-only equivalent of {@link RateRepository#findRelevantRates}: same filter and
+     * order, but fetches only the columns the pricing loop needs and maps them
+     * straight into primitive arrays, bypassing entity hydration and the persistence context.
+     *
+     * @param bungalowId the bungalow whose rates should be fetched
+     * @param arrival the arrival date of the booking (inclusive)
+     * @param departure the departure date of the booking (exclusive)
+     * @param bookingDate the date on which the booking is made
+     * @return matching rows ordered by stay start date
+     */
+    public RateTimeline findPricingTimeline(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        return jdbcTemplate.query(pricingSql, ps -> {
+            RequestDeadline.applyTo(ps);
+            ps.setLong(1, bungalowId);
+            ps.setObject(2, arrival);
+            ps.setObject(3, departure);
+            ps.setObject(4, bookingDate);
+            ps.setObject(5, bookingDate);
+        }, timelineExtractor);
+    }
+
+    /**
+     * Fetches every row of a bungalow that is bookable on the given date, whatever its
+     * stay window. One such timeline can price any stay booked on that date, which lets
+     * the effective-rate snapshots hold one timeline per bungalow and day, and lets
+     * concurrent quotes for different stays share one coalesced fetch.
+     *
+     * @param bungalowId the bungalow whose rates should be fetched
+     * @param bookingDate the date on which the booking is made
+     * @return bookable rows ordered by stay start date
+     */
+    public RateTimeline findBookableTimeline(long bungalowId, LocalDate bookingDate) {
+        return jdbcTemplate.query(bookableTimelineSql, ps -> {
+            RequestDeadline.applyTo(ps);
+            ps.setLong(1, bungalowId);
+            ps.setObject(2, bookingDate);
+            ps.setObject(3, bookingDate);
+        }, timelineExtractor);
+    }
+
+    /**
+     * Maps the pricing columns of a result set into a {@link RateTimeline}.
+     */
+    private RateTimeline toTimeline(ResultSet rs) throws SQLException {
+        RateTimeline.Builder builder = new RateTimeline.Builder(16);
+        while (rs.next()) {
+            LocalDate bookTo = rs.getObject(5, LocalDate.class);
+            builder.add(
+                    rs.getLong(1),
+                    (int) rs.getObject(2, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(3, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                    bookTo == null ? RateTimeline.OPEN_END : (int) bookTo.toEpochDay(),
+                    rs.getInt(6),
+                    rs.getLong(7));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Fetches the pricing rows of several bungalows for a whole date window in one query.
+     * Uses the same filter as {@link #findPricingTimeline}, with the window in place of a
+     * single stay, so each timeline can price any stay inside the window.
+     *
+     * @param bungalowIds bungalows to fetch
+     * @param from first night of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @param bookingDate the date on which the booking is made
+     * @return timeline per bungalow; bungalows without matching rows are absent
+     */
+    public Map<Long, RateTimeline> findPricingTimelines(Collection<Long> bungalowIds, LocalDate from, LocalDate to,
+                                                        LocalDate bookingDate) {
+        if (bungalowIds.isEmpty()) {
+            return Map.of();
+        }
+
+        String sql = "SELECT bungalow_id, id, stay_date_from, stay_date_to, book_date_from, book_date_to, nights, value_minor"
+                + " FROM rates"
+                + " WHERE bungalow_id IN (" + String.join(", ", Collections.nCopies(bungalowIds.size(), "?")) + ")"
+                + " AND stay_date_to >= ?"
+                + " AND stay_date_from <= ?"
+                + " AND (book_date_to IS NULL OR book_date_to >= ?)"
+                + " AND book_date_from <= ?"
+                + " ORDER BY bungalow_id, stay_date_from";
+
+        Map<Long, RateTimeline.Builder> builders = new HashMap<>();
+        jdbcTemplate.query(sql, ps -> {
+            RequestDeadline.applyTo(ps);
+            int i = 1;
+            for (Long bungalowId : bungalowIds) {
+                ps.setLong(i++, bungalowId);
+            }
+            ps.setObject(i++, from);
+            ps.setObject(i++, to);
+            ps.setObject(i++, bookingDate);
+            ps.setObject(i, bookingDate);
+        }, (RowCallbackHandler) rs -> {
+            LocalDate bookTo = rs.getObject(6, LocalDate.class);
+            builders.computeIfAbsent(rs.getLong(1), id -> new RateTimeline.Builder(16)).add(
+                    rs.getLong(2),
+                    (int) rs.getObject(3, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(5, LocalDate.class).toEpochDay(),
+                    bookTo == null ? RateTimeline.OPEN_END : (int) bookTo.toEpochDay(),
+                    rs.getInt(7),
+                    rs.getLong(8));
+        });
+
+        Map<Long, RateTimeline> timelines = new HashMap<>(builders.size() * 2);
+        builders.forEach((id, builder) -> timelines.put(id, builder.build()));
+        return timelines;
+    }
+
+    /**
+     * Reads the current {@code rate_version} of a bungalow.
+     *
+     * @param bungalowId bungalow to look up
+     * @return current version, or 0 if its rates never changed
+     */
+    public long findRateVersion(long bungalowId) {
+        List<Long> versions = jdbcTemplate.query("SELECT version FROM rate_version WHERE bungalow_id = ?", ps -> {
+            RequestDeadline.applyTo(ps);
+            ps.setLong(1, bungalowId);
+        }, (rs, i) -> rs.getLong(1));
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    /**
+     * Creates the {@code rate_version} row of a bungalow at version 1. Runs as a plain
+     * statement, so that losing a race with another first write fails only this insert
+     * with a {@link org.springframework.dao.DuplicateKeyException} and leaves the
+     * surrounding transaction usable.
+     *
+     * @param bungalowId bungalow changed for the first time
+     * @param now timestamp to record as the moment of change
+     */
+    public void insertRateVersion(long bungalowId, Instant now) {
+        jdbcTemplate.update("INSERT INTO rate_version (bungalow_id, version, updated_at) VALUES (?, 1, ?)", ps -> {
+            ps.setLong(1, bungalowId);
+            ps.setTimestamp(2, Timestamp.from(now), Calendar.getInstance(UTC));
+        });
+    }
+
+    /**
+     * Reads the optimistic-locking version of a single rate.
+     *
+     * @param rateId rate to look up
+     * @return the row version, or empty if the rate does not exist
+     */
+    public Optional<Long> findRowVersion(long rateId) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM rates WHERE id = ?", Long.class, rateId);
+        return versions.isEmpty() ? Optional.empty() : Optional.of(versions.get(0));
+    }
+
+    /**
+     * Fetches every rate row of a bungalow, active and closed, in pricing order.
+     * Used to build cached timelines that can answer quotes for any booking date.
+     *
+     * @param bungalowId bungalow to fetch
+     * @return all rows of the bungalow ordered by stay start date
+     */
+    public RateTimeline findBungalowTimeline(long bungalowId) {
+        return jdbcTemplate.query(bungalowTimelineSql, ps -> {
+            RequestDeadline.applyTo(ps);
+            ps.setLong(1, bungalowId);
+        }, timelineExtractor);
+    }
+
+    /**
+     * Callback receiving one pricing row of the whole table, dates as epoch days.
+     */
+    @FunctionalInterface
+    public interface PricingRowHandler {
+        void handle(long bungalowId, long id, int stayFrom, int stayTo, int bookFrom, int bookTo, int nights,
+                    long valueMinor);
+    }
+
+    /**
+     * Number of rows and distinct bungalows.
+     */
+    public record RowCount(long rows, long bungalows) {
+    }
+
+    /**
+     * Counts the rows and bungalows {@link #streamPricingRows} would return, for sizing.
+     *
+     * @param bookedFrom rows closed for booking before this date are excluded
+     * @return row count and distinct bungalow count
+     */
+    public RowCount countPricingRows(LocalDate bookedFrom) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), COUNT(DISTINCT bungalow_id) FROM rates WHERE book_date_to IS NULL OR book_date_to >= ?",
+                (rs, i) -> new RowCount(rs.getLong(1), rs.getLong(2)), bookedFrom);
+    }
+
+    /**
+     * Streams the pricing columns of every row still bookable on or after the given date,
+     * grouped by bungalow and ordered by stay start date within each bungalow.
+     *
+     * @param bookedFrom rows closed for booking before this date are skipped
+     * @param handler receiver for each row
+     */
+    public void streamPricingRows(LocalDate bookedFrom, PricingRowHandler handler) {
+        String sql = "SELECT bungalow_id, id, stay_date_from, stay_date_to, book_date_from, book_date_to, nights, value_minor"
+                + " FROM rates WHERE book_date_to IS NULL OR book_date_to >= ?"
+                + " ORDER BY bungalow_id, stay_date_from";
+
+        streamingTemplate.query(sql, ps -> ps.setObject(1, bookedFrom), (RowCallbackHandler) rs -> {
+            LocalDate bookTo = rs.getObject(6, LocalDate.class);
+            handler.handle(
+                    rs.getLong(1),
+                    rs.getLong(2),
+                    (int) rs.getObject(3, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(5, LocalDate.class).toEpochDay(),
+                    bookTo == null ? RateTimeline.OPEN_END : (int) bookTo.toEpochDay(),
+                    rs.getInt(7),
+                    rs.getLong(8));
+        });
+    }
+
+    /**
+     * Streams the current {@code rate_version} of every bungalow.
+     *
+     * @param handler receiver of bungalow id and version
+     */
+    public void streamRateVersions(RateVersionHandler handler) {
+        streamingTemplate.query("SELECT bungalow_id, version FROM rate_version",
+                (RowCallbackHandler) rs -> handler.handle(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /**
+     * Callback receiving one bungalow version.
+     */
+    @FunctionalInterface
+    public interface RateVersionHandler {
+        void handle(long bungalowId, long version);
+    }
+
+    /**
+     * Finds which of the given bungalows already have rows, active or closed.
+     *
+     * @param bungalowIds bungalows to check; must not be empty
+     * @return ids of those that have at least one row
+     */
+    public List<Long> findBungalowsWithRates(Collection<Long> bungalowIds) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT bungalow_id FROM rates WHERE bungalow_id IN ("
+                + String.join(", ", Collections.nCopies(bungalowIds.size(), "?")) + ")",
+                Long.class, bungalowIds.toArray());
+    }
+
+    /**
+     * Finds the bungalows whose bookable rows change when the booking date moves from the
+     * day before {@code day} to {@code day}: some row opens for booking on {@code day} or
+     * closed for booking the day before.
+     *
+     * @param day the new booking date
+     * @return ids of the affected bungalows
+     */
+    public List<Long> findBookingBoundaryBungalows(LocalDate day) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT bungalow_id FROM rates WHERE book_date_from = ? OR book_date_to = ?",
+                Long.class, day, day.minusDays(1));
+    }
+
+    /**
+     * Portfolio-wide version: the sum of all per-bungalow {@code rate_version} values. Every
+     * committed rate change bumps one of them, so the sum grows with every change
+     * regardless of the order in which transactions commit.
+     *
+     * @return current portfolio version, 0 before the first change
+     */
+    public long findPortfolioVersion() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(version), 0) FROM rate_version", Long.class);
+    }
+
+    /**
+     * Number of bungalows with rates, and of all and active rows.
+     *
+     * @return portfolio-wide counts
+     */
+    public RateAnalytics.Summary findSummary() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT bungalow_id), COUNT(*),"
+                        + " COALESCE(SUM(CASE WHEN book_date_to IS NULL THEN 1 ELSE 0 END), 0) FROM rates",
+                (rs, i) -> new RateAnalytics.Summary(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                        rs.getLong(2) - rs.getLong(3)));
+    }
+
+    /**
+     * Groups the active, priced rows starting in {@code [from, to]} by the month of their
+     * stay start date.
+     *
+     * @param from first stay start date (inclusive)
+     * @param to last stay start date (inclusive)
+     * @return one entry per month with at least one row, in calendar order
+     */
+    public List<RateAnalytics.MonthlyRate> findMonthlyRates(LocalDate from, LocalDate to) {
+        String sql = "SELECT YEAR(stay_date_from), MONTH(stay_date_from), COUNT(*),"
+                + " AVG(value_minor * 1.0 / nights), MIN(value_minor * 1.0 / nights), MAX(value_minor * 1.0 / nights)"
+                + " FROM rates"
+                + " WHERE book_date_to IS NULL AND nights > 0 AND stay_date_from >= ? AND stay_date_from <= ?"
+                + " GROUP BY YEAR(stay_date_from), MONTH(stay_date_from)"
+                + " ORDER BY YEAR(stay_date_from), MONTH(stay_date_from)";
+
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+        }, (rs, i) -> new RateAnalytics.MonthlyRate(
+                YearMonth.of(rs.getInt(1), rs.getInt(2)),
+                rs.getLong(3),
+                toMajor(rs.getBigDecimal(4)),
+                toMajor(rs.getBigDecimal(5)),
+                toMajor(rs.getBigDecimal(6))));
+    }
+
+    /**
+     * Nightly price range and active row count per bungalow, over active, priced rows,
+     * one page at a time in bungalow id order.
+     *
+     * @param afterBungalowId only bungalows with a greater id are returned
+     * @param limit maximum number of bungalows to return
+     * @return next page of bungalows
+     */
+    public List<RateAnalytics.BungalowRange> findBungalowRanges(long afterBungalowId, int limit) {
+        String sql = "SELECT bungalow_id, COUNT(*), MIN(value_minor * 1.0 / nights), MAX(value_minor * 1.0 / nights),"
+                + " MIN(stay_date_from), MAX(stay_date_to)"
+                + " FROM rates"
+                + " WHERE book_date_to IS NULL AND nights > 0 AND bungalow_id > ?"
+                + " GROUP BY bungalow_id"
+                + " ORDER BY bungalow_id"
+                + " LIMIT ?";
+
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setLong(1, afterBungalowId);
+            ps.setInt(2, limit);
+        }, (rs, i) -> new RateAnalytics.BungalowRange(
+                rs.getLong(1),
+                rs.getLong(2),
+                toMajor(rs.getBigDecimal(3)),
+                toMajor(rs.getBigDecimal(4)),
+                rs.getObject(5, LocalDate.class),
+                rs.getObject(6, LocalDate.class)));
+    }
+
+    /**
+     * Rounds a per-night amount in minor units half-even, like {@link Money#divide}, and
+     * converts it to major units.
+     */
+    private static double toMajor(BigDecimal minor) {
+        return Money.toMajor(minor.setScale(0, RoundingMode.HALF_EVEN).longValueExact());
+    }
+
+    /**
+     * Callback receiving one active rate row, dates as epoch days.
+     */
+    @FunctionalInterface
+    public interface ActiveRowHandler {
+        void handle(long bungalowId, long id, int stayFrom, int stayTo, int nights, long valueMinor);
+    }
+
+    /**
+     * Streams every row without a booking end date, grouped by bungalow and ordered by
+     * stay start date (then id) within each bungalow.
+     *
+     * @param handler receiver for each row
+     */
+    public void streamActiveRows(ActiveRowHandler handler) {
+        String sql = "SELECT bungalow_id, id, stay_date_from, stay_date_to, nights, value_minor"
+                + " FROM rates WHERE book_date_to IS NULL"
+                + " ORDER BY bungalow_id, stay_date_from, id";
+
+        streamingTemplate.query(sql, (RowCallbackHandler) rs -> handler.handle(
+                rs.getLong(1),
+                rs.getLong(2),
+                (int) rs.getObject(3, LocalDate.class).toEpochDay(),
+                (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                rs.getInt(5),
+                rs.getLong(6)));
+    }
+
+    /**
+     * Callback receiving one streamed rate row as primitives and dates.
+     */
+    @FunctionalInterface
+    public interface RateRowHandler {
+        void handle(long id, long bungalowId, LocalDate stayDateFrom, LocalDate stayDateTo, int nights,
+                    long valueMinor, LocalDate bookDateFrom, LocalDate bookDateTo) throws IOException;
+    }
+
+    /**
+     * Streams every rate row ordered by id to the given handler without creating entities.
+     *
+     * @param handler receiver for each row
+     * @return number of rows streamed
+     */
+    public long streamAll(RateRowHandler handler) {
+        String sql = "SELECT id, bungalow_id, stay_date_from, stay_date_to, nights, value_minor,"
+                + " book_date_from, book_date_to FROM rates ORDER BY id";
+
+        long[] count = {0};
+        streamingTemplate.query(sql, (RowCallbackHandler) rs -> {
+            try {
+                handler.handle(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getObject(3, LocalDate.class),
+                        rs.getObject(4, LocalDate.class),
+                        rs.getInt(5),
+                        rs.getLong(6),
+                        rs.getObject(7, LocalDate.class),
+                        rs.getObject(8, LocalDate.class));
+            } catch (IOException e) {
+                throw new SQLException("Failed to stream rate row " + rs.getLong(1), e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Selects and locks the rows {@link #closeActive} would close: rows of the given
+     * bungalows that are bookable on {@code dated} without an end date and whose stay
+     * overlaps the window.
+     *
+     * @param bungalowIds bungalows to match; must not be empty
+     * @param stayFrom first day of the stay window (inclusive)
+     * @param stayTo last day of the stay window (inclusive)
+     * @param dated date as of which the rows must be open for booking
+     * @return the matching rows, locked until the transaction ends
+     */
+    public List<Rates> lockActive(Collection<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo, LocalDate dated) {
+        return jdbcTemplate.query(ROW_COLUMNS + " FROM rates" + activeWhere(bungalowIds.size()) + " FOR UPDATE",
+                ps -> bindActive(ps, bungalowIds, stayFrom, stayTo, dated), rowMapper);
+    }
+
+    /**
+     * Closes, in a single statement, every row {@link #lockActive} matches by setting its
+     * booking end date to {@code dated}. The row version is incremented as a JPA update would.
+     *
+     * @param bungalowIds bungalows to match; must not be empty
+     * @param stayFrom first day of the stay window (inclusive)
+     * @param stayTo last day of the stay window (inclusive)
+     * @param dated new booking end date
+     * @return number of rows closed
+     */
+    public int closeActive(Collection<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo, LocalDate dated) {
+        return jdbcTemplate.update("UPDATE rates SET book_date_to = ?, version = version + 1"
+                + activeWhere(bungalowIds.size()), ps -> {
+            ps.setObject(1, dated);
+            bindActive(ps, bungalowIds, stayFrom, stayTo, dated, 2);
+        });
+    }
+
+    /**
+     * Selects and locks the rows {@link #purge} would delete: rows of the given bungalows,
+     * active or closed, whose stay overlaps the window.
+     *
+     * @param bungalowIds bungalows to match; must not be empty
+     * @param stayFrom first day of the stay window (inclusive)
+     * @param stayTo last day of the stay window (inclusive)
+     * @param bookedFrom if not {@code null}, only rows whose booking window opens on or after this date match
+     * @return the matching rows, locked until the transaction ends
+     */
+    public List<Rates> lockPurgeable(Collection<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo,
+                                     LocalDate bookedFrom) {
+        return jdbcTemplate.query(ROW_COLUMNS + " FROM rates" + purgeWhere(bungalowIds.size(), bookedFrom) + " FOR UPDATE",
+                ps -> bindPurge(ps, bungalowIds, stayFrom, stayTo, bookedFrom), rowMapper);
+    }
+
+    /**
+     * Deletes, in a single statement, every row {@link #lockPurgeable} matches.
+     *
+     * @param bungalowIds bungalows to match; must not be empty
+     * @param stayFrom first day of the stay window (inclusive)
+     * @param stayTo last day of the stay window (inclusive)
+     * @param bookedFrom if not {@code null}, only rows whose booking window opens on or after this date match
+     * @return number of rows deleted
+     */
+    public int purge(Collection<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo, LocalDate bookedFrom) {
+        return jdbcTemplate.update("DELETE FROM rates" + purgeWhere(bungalowIds.size(), bookedFrom),
+                ps -> bindPurge(ps, bungalowIds, stayFrom, stayTo, bookedFrom));
+    }
+
+    private static String bungalowStayWhere(int bungalows) {
+        return " WHERE bungalow_id IN (" + String.join(", ", Collections.nCopies(bungalows, "?")) + ")"
+                + " AND stay_date_to >= ?"
+                + " AND stay_date_from <= ?";
+    }
+
+    private static String activeWhere(int bungalows) {
+        return bungalowStayWhere(bungalows) + " AND book_date_to IS NULL AND book_date_from <= ?";
+    }
+
+    private static String purgeWhere(int bungalows, LocalDate bookedFrom) {
+        return bungalowStayWhere(bungalows) + (bookedFrom == null ? "" : " AND book_date_from >= ?");
+    }
+
+    private static int bindBungalowStay(PreparedStatement ps, Collection<Long> bungalowIds, LocalDate stayFrom,
+                                        LocalDate stayTo, int index) throws SQLException {
+        for (Long bungalowId : bungalowIds) {
+            ps.setLong(index++, bungalowId);
+        }
+        ps.setObject(index++, stayFrom);
+        ps.setObject(index++, stayTo);
+        return index;
+    }
+
+    private static void bindActive(PreparedStatement ps, Collection<Long> bungalowIds, LocalDate stayFrom,
+                                   LocalDate stayTo, LocalDate dated) throws SQLException {
+        bindActive(ps, bungalowIds, stayFrom, stayTo, dated, 1);
+    }
+
+    private static void bindActive(PreparedStatement ps, Collection<Long> bungalowIds, LocalDate stayFrom,
+                                   LocalDate stayTo, LocalDate dated, int index) throws SQLException {
+        ps.setObject(bindBungalowStay(ps, bungalowIds, stayFrom, stayTo, index), dated);
+    }
+
+    private static void bindPurge(PreparedStatement ps, Collection<Long> bungalowIds, LocalDate stayFrom,
+                                  LocalDate stayTo, LocalDate bookedFrom) throws SQLException {
+        int index = bindBungalowStay(ps, bungalowIds, stayFrom, stayTo, 1);
+        if (bookedFrom != null) {
+            ps.setObject(index, bookedFrom);
+        }
+    }
+
+    /**
+     * Locks the {@code rate_change_head} row until the current transaction ends,
+     * creating it if the schema was not built by the migrations.
+     */
+    public void lockChangeLogHead() {
+        String lock = "SELECT id FROM rate_change_head WHERE id = 1 FOR UPDATE";
+        if (!jdbcTemplate.queryForList(lock, Integer.class).isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO rate_change_head (id) VALUES (1)");
+        } catch (DuplicateKeyException e) {
+            // Another transaction created the row first; wait for its lock instead
+            jdbcTemplate.queryForList(lock, Integer.class);
+        }
+    }
+
+    /**
+     * Appends change log entries as a single JDBC batch. Sequence numbers are assigned by
+     * the database in list order.
+     *
+     * @param changes unsaved entries to insert
+     */
+    public void insertChanges(List<RateChange> changes) {
+        String sql = "INSERT INTO rate_change (change_type, changed_at, rate_id, bungalow_id, stay_date_from,"
+                + " stay_date_to, nights, value_minor, book_date_from, book_date_to)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RateChange change = changes.get(i);
+                ps.setString(1, change.getType().name());
+                ps.setTimestamp(2, Timestamp.from(change.getChangedAt()), Calendar.getInstance(UTC));
+                ps.setLong(3, change.getRateId());
+                ps.setLong(4, change.getBungalowId());
+                ps.setObject(5, change.getStayDateFrom());
+                ps.setObject(6, change.getStayDateTo());
+                ps.setObject(7, change.getNights(), Types.INTEGER);
+                ps.setLong(8, change.getValueMinor());
+                ps.setObject(9, change.getBookDateFrom());
+                if (change.getBookDateTo() == null) {
+                    ps.setNull(10, Types.DATE);
+                } else {
+                    ps.setObject(10, change.getBookDateTo());
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return changes.size();
+            }
+        });
+    }
+
+    /**
+     * Inserts the given rates verbatim as a single JDBC batch. Ids are assigned by the
+     * database and written back to the entities, which start at version 0.
+     *
+     * @param rates rows to insert
+     * @return number of rows inserted
+     */
+    public int insertAll(List<Rates> rates) {
+        String sql = "INSERT INTO rates (version, bungalow_id, stay_date_from, stay_date_to, nights, value_minor,"
+                + " book_date_from, book_date_to) VALUES (0, ?, ?, ?, ?, ?, ?, ?)";
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        PreparedStatementCreator insert = connection -> connection.prepareStatement(sql, new String[] {"id"});
+        streamingTemplate.batchUpdate(insert, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Rates rate = rates.get(i);
+                ps.setLong(1, rate.getBungalowId());
+                ps.setObject(2, rate.getStayDateFrom());
+                ps.setObject(3, rate.getStayDateTo());
+                ps.setInt(4, rate.getNights());
+                ps.setLong(5, rate.getValueMinor());
+                ps.setObject(6, rate.getBookDateFrom());
+                if (rate.getBookDateTo() == null) {
+                    ps.setNull(7, Types.DATE);
+                } else {
+                    ps.setObject(7, rate.getBookDateTo());
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rates.size();
+            }
+        }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < generated.size() && i < rates.size(); i++) {
+            Number id = (Number) generated.get(i).values().iterator().next();
+            rates.get(i).setId(id.longValue());
+            rates.get(i).setVersion(0L);
+        }
+        return rates.size();
+    }
+}
@@ -52,6 +52,26 @@ import com.maxxton.silverheavens.entity.Rates;
             @Param("departure") LocalDate departure,
             @Param("bookingDate") LocalDate bookingDate);
 
+    /**
+     * Entity equivalent of {@code RateJdbcRepository.findBookableTimeline}: every rate of
+     * a bungalow bookable on the given date, whatever its stay window, ordered by
+     * {@code stayDateFrom}.
+     *
+     * @param bungalowId the unique identifier of the bungalow whose rates should be fetched
+     * @param bookingDate the date on which the booking is made
+     * @return bookable rates ordered by stay start date
+     */
+    @Query("""
+        SELECT r FROM Rates r
+        WHERE r.bungalowId = :bungalowId
+        AND (r.bookDateTo IS NULL OR r.bookDateTo >= :bookingDate)
+        AND r.bookDateFrom <= :bookingDate
+        ORDER BY r.stayDateFrom
+    """)
+    List<Rates> findBookableRates(
+            @Param("bungalowId") Long bungalowId,
+            @Param("bookingDate") LocalDate bookingDate);
+
     /**
      * Retrieves active rate entries for a bungalow where booking end date is not defined,
      * and the stay date range overlaps with the provided date range.
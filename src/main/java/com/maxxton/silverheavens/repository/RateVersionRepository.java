@@ -0,0 +1,46 @@
+package com.maxxton.silverheavens.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.maxxton.silverheavens.entity.RateVersion;
+
+/**
+ * Repository for per-bungalow {@link RateVersion} counters.
+ */
+public interface RateVersionRepository extends JpaRepository<RateVersion, Long> {
+
+    /**
+     * Atomically increments the version of a bungalow.
+     *
+     * @param bungalowId bungalow whose version should be bumped
+     * @param now timestamp to record as the moment of change
+     * @return number of updated rows; 0 if the bungalow has no version row yet
+     */
+    @Modifying
+    @Query("UPDATE RateVersion v SET v.version = v.version + 1, v.updatedAt = :now WHERE v.bungalowId = :bungalowId")
+    int increment(@Param("bungalowId") Long bungalowId, @Param("now") Instant now);
+
+    /**
+     * Reads the current version straight from the database, bypassing the persistence context.
+     *
+     * @param bungalowId bungalow to look up
+     * @return current version, or empty if the bungalow never changed
+     */
+    @Query("SELECT v.version FROM RateVersion v WHERE v.bungalowId = :bungalowId")
+    Optional<Long> findVersion(@Param("bungalowId") Long bungalowId);
+
+    /**
+     * Retrieves all versions that changed after the given moment.
+     *
+     * @param since lower bound (exclusive) of the change timestamp
+     * @return recently changed versions
+     */
+    List<RateVersion> findByUpdatedAtAfter(Instant since);
+}
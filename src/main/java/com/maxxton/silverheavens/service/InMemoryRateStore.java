@@ -0,0 +1,139 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * {@link RateStore} over a private copy of one bungalow's timeline, used to simulate
+ * a change without writing to the database.
+ *
+ * <p>Rows inserted during the simulation get temporary negative ids. After the run,
+ * {@link #inserted()}, {@link #updated()} and {@link #deleted()} compare the final
+ * state with the original snapshot, so rows that were created and then merged away
+ * within the same run do not show up in the diff.</p>
+ */
+class InMemoryRateStore implements RateStore {
+
+    private static final Comparator<Rates> BY_STAY_FROM = Comparator.comparing(Rates::getStayDateFrom);
+
+    private final Map<Long, Rates> original = new LinkedHashMap<>();
+    private final Map<Long, Rates> rows = new LinkedHashMap<>();
+    private long nextTemporaryId = -1;
+
+    /**
+     * @param timeline current rows of the bungalow; copied, never modified
+     */
+    InMemoryRateStore(List<Rates> timeline) {
+        for (Rates rate : timeline) {
+            original.put(rate.getId(), new Rates(rate));
+            rows.put(rate.getId(), new Rates(rate));
+        }
+    }
+
+    @Override
+    public List<Rates> findAll(Long bungalowId) {
+        return select(rate -> true);
+    }
+
+    @Override
+    public List<Rates> findActiveOverlapping(Long bungalowId, LocalDate from, LocalDate to) {
+        return select(rate -> rate.getBookDateTo() == null
+                && !rate.getStayDateTo().isBefore(from)
+                && !rate.getStayDateFrom().isAfter(to));
+    }
+
+    @Override
+    public List<Rates> findActive(Long bungalowId) {
+        return select(rate -> rate.getBookDateTo() == null);
+    }
+
+    @Override
+    public Rates save(Rates rate, RateChangeType type) {
+        if (rate.getId() == null) {
+            rate.setId(nextTemporaryId--);
+        }
+        rows.put(rate.getId(), rate);
+        return rate;
+    }
+
+    @Override
+    public void delete(Rates rate) {
+        rows.remove(rate.getId());
+    }
+
+    /**
+     * @return all rows as they would be after the simulated change, ordered by stay start date
+     */
+    List<Rates> current() {
+        return select(rate -> true);
+    }
+
+    /**
+     * @return all rows as they were before the simulation, ordered by stay start date
+     */
+    List<Rates> before() {
+        List<Rates> result = new ArrayList<>(original.values());
+        result.sort(BY_STAY_FROM);
+        return result;
+    }
+
+    /**
+     * @return rows that would be inserted, without ids
+     */
+    List<Rates> inserted() {
+        List<Rates> result = new ArrayList<>();
+        for (Rates rate : current()) {
+            if (rate.getId() < 0) {
+                Rates insert = new Rates(rate);
+                insert.setId(null);
+                result.add(insert);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return existing rows that would be changed (in practice: closed), in their new state
+     */
+    List<Rates> updated() {
+        List<Rates> result = new ArrayList<>();
+        for (Rates rate : current()) {
+            Rates before = original.get(rate.getId());
+            if (before != null && !before.equals(rate)) {
+                result.add(new Rates(rate));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return existing rows that would be removed
+     */
+    List<Rates> deleted() {
+        Map<Long, Rates> removed = new HashMap<>(original);
+        removed.keySet().removeAll(rows.keySet());
+        List<Rates> result = new ArrayList<>(removed.values());
+        result.sort(BY_STAY_FROM);
+        return result;
+    }
+
+    private List<Rates> select(Predicate<Rates> filter) {
+        List<Rates> result = new ArrayList<>();
+        for (Rates rate : rows.values()) {
+            if (filter.test(rate)) {
+                result.add(rate);
+            }
+        }
+        result.sort(BY_STAY_FROM);
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxxton.silverheavens.concurrency.SingleFlight;
+import com.maxxton.silverheavens.pricing.RateAnalytics;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Management aggregates over the whole portfolio, grouped in SQL so that reports no
+ * longer need a full {@code /rates/export}.
+ *
+ * <p>Results are cached per portfolio version ({@link RateJdbcRepository#findPortfolioVersion}):
+ * a request reads the version first and reuses the cached result computed at that
+ * version, so aggregates are recomputed once after each change instead of on every
+ * request. Concurrent requests for the same aggregate at the same version share one
+ * computation. Because the version is read before the aggregate, a concurrent write can
+ * only make a cached result newer than its version, never older.</p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class RateAnalyticsService {
+
+    private record Versioned(long version, Object value) {
+    }
+
+    private record Key(String aggregate, Object from, Object to) {
+    }
+
+    private record VersionedKey(Key key, long version) {
+    }
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    /**
+     * Maximum number of distinct aggregates (endpoint and parameters) kept in the cache.
+     */
+    @Value("${rates.analytics.cache.max-entries:256}")
+    private int maxEntries;
+
+    /**
+     * Maximum length of the stay window of the monthly aggregate in days.
+     */
+    @Value("${rates.analytics.max-window-days:1830}")
+    private int maxWindowDays;
+
+    /**
+     * Maximum number of bungalows per page of the per-bungalow aggregate.
+     */
+    @Value("${rates.analytics.max-page-size:5000}")
+    private int maxPageSize;
+
+    private Cache<Key, Versioned> results;
+
+    private final SingleFlight<VersionedKey, Object> computations = new SingleFlight<>();
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * @return number of bungalows, and of all, active and closed rates
+     */
+    public RateAnalytics.Summary summary() {
+        return cached(new Key("summary", null, null), rateJdbcRepository::findSummary);
+    }
+
+    /**
+     * Average, lowest and highest nightly price of the active rates, by month of their
+     * stay start date.
+     *
+     * @param from first stay start date (inclusive)
+     * @param to last stay start date (inclusive)
+     * @return one entry per month with active rates, in calendar order
+     * @throws IllegalArgumentException if the window is missing, inverted or too long
+     */
+    public List<RateAnalytics.MonthlyRate> monthlyRates(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("From and to dates cannot be null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxWindowDays) {
+            throw new IllegalArgumentException("Window cannot exceed " + maxWindowDays + " days");
+        }
+        return cached(new Key("monthly", from, to), () -> rateJdbcRepository.findMonthlyRates(from, to));
+    }
+
+    /**
+     * Lowest and highest nightly price and number of active rates per bungalow, one page
+     * at a time.
+     *
+     * @param afterBungalowId last bungalow id of the previous page, 0 for the first page
+     * @param limit maximum number of bungalows to return
+     * @return next page of bungalows in id order
+     * @throws IllegalArgumentException if the limit is not positive or too large
+     */
+    public List<RateAnalytics.BungalowRange> bungalowRanges(long afterBungalowId, int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize);
+        }
+        return cached(new Key("bungalows", afterBungalowId, limit),
+                () -> rateJdbcRepository.findBungalowRanges(afterBungalowId, limit));
+    }
+
+    /**
+     * Returns the result computed at the current portfolio version, computing it if needed.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(Key key, Supplier<T> aggregate) {
+        long version = rateJdbcRepository.findPortfolioVersion();
+        Versioned hit = results.getIfPresent(key);
+        if (hit != null && hit.version() == version) {
+            return (T) hit.value();
+        }
+        return (T) computations.load(new VersionedKey(key, version), () -> {
+            T value = aggregate.get();
+            results.asMap().merge(key, new Versioned(version, value),
+                    (old, computed) -> old.version() > computed.version() ? old : computed);
+            return value;
+        });
+    }
+}
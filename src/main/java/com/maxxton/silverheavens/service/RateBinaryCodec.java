@@ -0,0 +1,332 @@
+package com.maxxton.silverheavens.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+import com.maxxton.silverheavens.pricing.Money;
+
+/**
+ * Compact columnar binary format for bulk rate transfer.
+ *
+ * <p>The stream starts with a fixed header ({@code magic}, {@code version}) followed by
+ * blocks of up to {@link #BLOCK_ROWS} rows. Each block is laid out column by column so
+ * that values of the same type sit next to each other:</p>
+ * <ul>
+ *   <li>{@code int rowCount}, {@code int payloadBytes} (a row count of 0 ends the stream)</li>
+ *   <li>ids as varint deltas from the previous id</li>
+ *   <li>bungalow ids and nights as varints</li>
+ *   <li>stay and booking dates as epoch-day ints ({@link #NO_DATE} for an open booking end)</li>
+ *   <li>values in minor units as zigzag varints</li>
+ * </ul>
+ *
+ * <p>Version 1 streams, which stored values as doubles in major units, are still
+ * accepted by the {@link Reader} and converted with {@link Money#toMinor(double)}.</p>
+ *
+ * <p>All fixed-width fields are little-endian. Reading and writing go through NIO
+ * channels with a single reused buffer per block, so memory use is independent of
+ * the number of rows.</p>
+ */
+public final class RateBinaryCodec {
+
+    /** "RATB" in ASCII. */
+    static final int MAGIC = 0x52415442;
+
+    static final int VERSION = 2;
+
+    /** Previous format with values stored as doubles in major units. */
+    static final int VERSION_DOUBLE_VALUES = 1;
+
+    /** Maximum number of rows per columnar block. */
+    public static final int BLOCK_ROWS = 4096;
+
+    /** Epoch-day marker for a missing (open-ended) booking date. */
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * Worst-case encoded bytes for one row: four varints of up to 10 bytes each, since a
+     * negative bungalow id or night count is sign-extended, plus four ints (a version 1
+     * row is smaller).
+     */
+    private static final int MAX_ROW_BYTES = 4 * 10 + 4 * Integer.BYTES;
+
+    private static final int BLOCK_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private RateBinaryCodec() {
+    }
+
+    /**
+     * Columnar buffer for one block of rates. Arrays are reused between blocks and
+     * only the first {@link #size} entries are valid.
+     */
+    public static final class Block {
+        public final long[] ids = new long[BLOCK_ROWS];
+        public final long[] bungalowIds = new long[BLOCK_ROWS];
+        public final int[] stayFrom = new int[BLOCK_ROWS];
+        public final int[] stayTo = new int[BLOCK_ROWS];
+        public final int[] nights = new int[BLOCK_ROWS];
+        public final long[] valuesMinor = new long[BLOCK_ROWS];
+        public final int[] bookFrom = new int[BLOCK_ROWS];
+        public final int[] bookTo = new int[BLOCK_ROWS];
+        public int size;
+
+        /**
+         * @return the booking end date of row {@code i}, or {@code null} if the row is open-ended
+         */
+        public LocalDate bookDateTo(int i) {
+            return bookTo[i] == NO_DATE ? null : LocalDate.ofEpochDay(bookTo[i]);
+        }
+    }
+
+    /**
+     * Streams rows into a channel, flushing a block every {@link #BLOCK_ROWS} rows.
+     * Closing the writer flushes the final block and writes the end marker; it does
+     * not close the underlying channel.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer =
+                ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES + BLOCK_ROWS * MAX_ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final Block block = new Block();
+        private long rowsWritten;
+
+        public Writer(WritableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.putInt(MAGIC).putInt(VERSION);
+            drain();
+        }
+
+        /**
+         * Appends one row. {@code bookDateTo} may be {@code null}.
+         */
+        public void write(long id, long bungalowId, LocalDate stayDateFrom, LocalDate stayDateTo,
+                          int nights, long valueMinor, LocalDate bookDateFrom, LocalDate bookDateTo) throws IOException {
+            int i = block.size++;
+            block.ids[i] = id;
+            block.bungalowIds[i] = bungalowId;
+            block.stayFrom[i] = (int) stayDateFrom.toEpochDay();
+            block.stayTo[i] = (int) stayDateTo.toEpochDay();
+            block.nights[i] = nights;
+            block.valuesMinor[i] = valueMinor;
+            block.bookFrom[i] = (int) bookDateFrom.toEpochDay();
+            block.bookTo[i] = bookDateTo == null ? NO_DATE : (int) bookDateTo.toEpochDay();
+
+            if (block.size == BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * @return number of rows accepted so far
+         */
+        public long getRowsWritten() {
+            return rowsWritten + block.size;
+        }
+
+        private void flushBlock() throws IOException {
+            int n = block.size;
+            if (n == 0) {
+                return;
+            }
+
+            buffer.clear();
+            buffer.position(BLOCK_HEADER_BYTES);
+
+            long previousId = 0;
+            for (int i = 0; i < n; i++) {
+                putVarLong(buffer, zigZag(block.ids[i] - previousId));
+                previousId = block.ids[i];
+            }
+            for (int i = 0; i < n; i++) {
+                putVarLong(buffer, block.bungalowIds[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                putVarLong(buffer, block.nights[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putInt(block.stayFrom[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putInt(block.stayTo[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putInt(block.bookFrom[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putInt(block.bookTo[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                putVarLong(buffer, zigZag(block.valuesMinor[i]));
+            }
+
+            buffer.putInt(0, n);
+            buffer.putInt(Integer.BYTES, buffer.position() - BLOCK_HEADER_BYTES);
+            buffer.flip();
+            drainFlipped();
+
+            rowsWritten += n;
+            block.size = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushBlock();
+            buffer.clear();
+            buffer.putInt(0).putInt(0);
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            drainFlipped();
+        }
+
+        private void drainFlipped() throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads blocks back from a channel produced by {@link Writer}.
+     */
+    public static final class Reader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer payload =
+                ByteBuffer.allocateDirect(BLOCK_ROWS * MAX_ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final Block block = new Block();
+        private final int version;
+        private boolean finished;
+
+        public Reader(ReadableByteChannel channel) throws IOException {
+            this.channel = channel;
+            header.clear();
+            readFully(header);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary rates export");
+            }
+            version = header.getInt();
+            if (version != VERSION && version != VERSION_DOUBLE_VALUES) {
+                throw new IllegalArgumentException("Unsupported binary rates export version: " + version);
+            }
+        }
+
+        /**
+         * Decodes the next block.
+         *
+         * @return the decoded block, or {@code null} once the end marker has been read.
+         *         The returned instance is reused by the next call.
+         * @throws IllegalArgumentException if the stream is malformed
+         */
+        public Block nextBlock() throws IOException {
+            if (finished) {
+                return null;
+            }
+
+            header.clear();
+            readFully(header);
+            int n = header.getInt();
+            int payloadBytes = header.getInt();
+            if (n == 0) {
+                finished = true;
+                return null;
+            }
+            if (n < 0 || n > BLOCK_ROWS || payloadBytes < 0 || payloadBytes > n * MAX_ROW_BYTES) {
+                throw new IllegalArgumentException("Corrupt block header: rows=" + n + ", bytes=" + payloadBytes);
+            }
+
+            payload.clear().limit(payloadBytes);
+            readFully(payload);
+
+            try {
+                long previousId = 0;
+                for (int i = 0; i < n; i++) {
+                    previousId += unZigZag(getVarLong(payload));
+                    block.ids[i] = previousId;
+                }
+                for (int i = 0; i < n; i++) {
+                    block.bungalowIds[i] = getVarLong(payload);
+                }
+                for (int i = 0; i < n; i++) {
+                    block.nights[i] = (int) getVarLong(payload);
+                }
+                for (int i = 0; i < n; i++) {
+                    block.stayFrom[i] = payload.getInt();
+                }
+                for (int i = 0; i < n; i++) {
+                    block.stayTo[i] = payload.getInt();
+                }
+                for (int i = 0; i < n; i++) {
+                    block.bookFrom[i] = payload.getInt();
+                }
+                for (int i = 0; i < n; i++) {
+                    block.bookTo[i] = payload.getInt();
+                }
+                if (version == VERSION_DOUBLE_VALUES) {
+                    for (int i = 0; i < n; i++) {
+                        block.valuesMinor[i] = Money.toMinor(payload.getDouble());
+                    }
+                } else {
+                    for (int i = 0; i < n; i++) {
+                        block.valuesMinor[i] = unZigZag(getVarLong(payload));
+                    }
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("Truncated block payload", e);
+            }
+
+            block.size = n;
+            return block;
+        }
+
+        /**
+         * Fills {@code target} up to its limit and flips it for reading.
+         */
+        private void readFully(ByteBuffer target) throws IOException {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new EOFException("Unexpected end of binary rates stream");
+                }
+            }
+            target.flip();
+        }
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of a set-based bulk operation of {@link RateService}.
+ *
+ * @param affectedRows number of rows closed or deleted
+ * @param bungalowIds bungalows that had at least one affected row, ascending
+ */
+public record RateBulkChange(int affectedRows, List<Long> bungalowIds) {
+
+    /**
+     * Request body of the bulk close endpoint.
+     *
+     * @param bungalowIds bungalows whose rates should be closed
+     * @param stayFrom first day of the stay window (inclusive)
+     * @param stayTo last day of the stay window (inclusive)
+     * @param dated last booking date of the closed rates
+     */
+    public record CloseRequest(List<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo, LocalDate dated) {
+    }
+
+    /**
+     * Request body of the bulk purge endpoint.
+     *
+     * @param bungalowIds bungalows whose rates should be removed
+     * @param stayFrom first day of the stay window (inclusive)
+     * @param stayTo last day of the stay window (inclusive)
+     * @param bookedFrom optional; restricts the purge to rows bookable from this date onwards
+     */
+    public record PurgeRequest(List<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo, LocalDate bookedFrom) {
+    }
+}
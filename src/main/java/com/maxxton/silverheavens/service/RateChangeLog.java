@@ -0,0 +1,132 @@
+package com.maxxton.silverheavens.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.maxxton.silverheavens.entity.RateChange;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateBatchChangedEvent;
+import com.maxxton.silverheavens.event.RateChangedEvent;
+import com.maxxton.silverheavens.repository.RateChangeRepository;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+/**
+ * Durable, append-only change log of all rate mutations.
+ *
+ * <p>Entries are collected by a synchronous listener while the mutating transaction
+ * runs and written in that transaction just before it commits, all in one JDBC batch, so
+ * a change is in the log if and only if it was committed. Consumers tail the log by
+ * remembering the last sequence number they applied and asking for everything after it.</p>
+ *
+ * <p>Sequence numbers are assigned at insert time. For tailing by offset to lose
+ * nothing, they must also become visible in that order, so a transaction first locks the
+ * {@link com.maxxton.silverheavens.entity.RateChangeHead} row and holds it from its
+ * inserts until its commit. A later transaction can only take higher sequence numbers
+ * after the earlier one committed, so no lower number appears once a consumer has read
+ * past it. Only the final inserts and the commit are serialized, not the work before.</p>
+ */
+@Service
+@Transactional
+public class RateChangeLog {
+
+    @Autowired
+    private RateChangeRepository changeRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    /**
+     * Upper bound on the page size a consumer may request.
+     */
+    @Value("${rates.changes.max-page-size:5000}")
+    private int maxPageSize;
+
+    /**
+     * Appends the mutation described by the event to the log.
+     *
+     * @param event mutation published by the rate service
+     */
+    @EventListener
+    public void onRateChanged(RateChangedEvent event) {
+        append(List.of(RateChange.of(event.type(), event.rate())));
+    }
+
+    /**
+     * Appends one entry per row of a set-based mutation.
+     *
+     * @param event mutation published by the rate service
+     */
+    @EventListener
+    public void onRatesChanged(RateBatchChangedEvent event) {
+        if (event.rates().isEmpty()) {
+            return;
+        }
+        List<RateChange> changes = new ArrayList<>(event.rates().size());
+        for (Rates rate : event.rates()) {
+            changes.add(RateChange.of(event.type(), rate));
+        }
+        append(changes);
+    }
+
+    private void append(List<RateChange> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rateJdbcRepository.lockChangeLogHead();
+            rateJdbcRepository.insertChanges(changes);
+            return;
+        }
+
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.addAll(changes);
+    }
+
+    /**
+     * Reads the next page of the change log.
+     *
+     * @param after last sequence number already applied by the consumer; 0 to start from the beginning
+     * @param limit maximum number of entries to return, capped at the configured page size
+     * @return entries with a sequence number greater than {@code after}, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<RateChange> readAfter(long after, int limit) {
+        if (after < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return changeRepository.findBySequenceGreaterThanOrderBySequence(after, Limit.of(Math.min(limit, maxPageSize)));
+    }
+
+    /**
+     * Entries appended by the current transaction, written just before it commits.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<RateChange> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            rateJdbcRepository.lockChangeLogHead();
+            rateJdbcRepository.insertChanges(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RateChangeLog.this);
+        }
+    }
+}
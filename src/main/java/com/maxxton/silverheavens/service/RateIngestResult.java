@@ -0,0 +1,32 @@
+package com.maxxton.silverheavens.service;
+
+/**
+ * Outcome of one line of a streaming ingest, written back to the client as one NDJSON line.
+ *
+ * @param line line number in the request body, starting at 1 (a CSV header is line 1)
+ * @param status whether a rate was created from the line
+ * @param rateId id of the created rate, or {@code null} if the line was rejected
+ * @param error why the line was rejected, or {@code null}
+ */
+public record RateIngestResult(long line, Status status, Long rateId, String error) {
+
+    /**
+     * Result of a line.
+     */
+    public enum Status {
+        /** The line was stored through the regular create workflow. */
+        CREATED,
+        /** The line could not be parsed, failed validation or could not be stored. */
+        REJECTED
+    }
+
+    /**
+     * Final line of an ingest response.
+     *
+     * @param lines non-blank data lines read
+     * @param created lines stored
+     * @param rejected lines rejected
+     */
+    public record Summary(long lines, long created, long rejected) {
+    }
+}
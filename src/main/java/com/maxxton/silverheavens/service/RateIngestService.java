@@ -0,0 +1,289 @@
+package com.maxxton.silverheavens.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxxton.silverheavens.concurrency.OptimisticRetry;
+import com.maxxton.silverheavens.concurrency.WriteBulkhead;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.exception.RateNotFoundException;
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+
+/**
+ * Streaming bulk ingest of new rates from NDJSON or CSV.
+ *
+ * <p>The request body is read one line at a time and every line is parsed and checked
+ * with {@link RateValidator} as soon as it arrives. Lines are collected into batches of
+ * {@code rates.ingest.batch-size}; a full batch is stored through
+ * {@link RateService#createRate(Rates)}, so overlap splitting and merging apply exactly as
+ * for single creates, and its per-line results are written back before the next line is
+ * read. While a batch is being stored the body is not read, so a fast producer is slowed
+ * down by the transport instead of filling memory: a batch, its results and one line of
+ * at most {@code rates.ingest.max-line-length} characters are all that is held, whatever
+ * the size of the payload.</p>
+ *
+ * <p>Each batch takes one slot of the {@link WriteBulkhead}. When none is free the ingest
+ * waits and tries again, for up to {@code rates.ingest.max-wait-ms}, before rejecting the
+ * lines of that batch. Each line is its own transaction, so a rejected line never undoes
+ * the lines stored before it. Rejections report validation messages as they are; any
+ * other failure is reported as "Rate could not be stored".</p>
+ *
+ * <p>NDJSON lines carry a rate in the same shape as {@code POST /rates}. CSV starts with a
+ * header line, followed by the columns of the Excel import: id (ignored), bungalow id,
+ * stay from, stay to, nights, value, book from and an optional book to.</p>
+ */
+@Service
+public class RateIngestService {
+
+    /**
+     * Supported body formats.
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * A line read from the body, or only the fact that it was too long to keep.
+     */
+    private record Line(String text, boolean tooLong) {
+    }
+
+    /**
+     * A line read from the body and, once stored, its result.
+     */
+    private record Pending(long line, Rates rate, String error) {
+    }
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private WriteBulkhead writeBulkhead;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Lines stored per batch, and so held in memory at most.
+     */
+    @Value("${rates.ingest.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Longest accepted line in characters; longer lines are skipped and rejected.
+     */
+    @Value("${rates.ingest.max-line-length:4096}")
+    private int maxLineLength;
+
+    /**
+     * How long a batch waits for a write slot before its lines are rejected.
+     */
+    @Value("${rates.ingest.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    /**
+     * Ingests every line of the body, writing one {@link RateIngestResult} per data line
+     * to {@code out} followed by a {@link RateIngestResult.Summary}.
+     *
+     * @param in request body; read to the end, not closed
+     * @param format format of the body
+     * @param out receives the NDJSON results; flushed after every batch, not closed
+     * @return totals of the ingest
+     * @throws IOException if the body cannot be read or the results cannot be written
+     */
+    public RateIngestResult.Summary ingest(InputStream in, Format format, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        long[] totals = new long[2];
+
+        if (format == Format.CSV && readLine(reader) != null) {
+            lineNumber++;
+        }
+
+        Line line;
+        while ((line = readLine(reader)) != null) {
+            lineNumber++;
+            if (!line.tooLong() && line.text().isBlank()) {
+                continue;
+            }
+            batch.add(parse(lineNumber, line, format));
+            if (batch.size() == batchSize) {
+                store(batch, out, totals);
+            }
+        }
+        store(batch, out, totals);
+
+        RateIngestResult.Summary summary = new RateIngestResult.Summary(totals[0] + totals[1], totals[0], totals[1]);
+        writeLine(out, summary);
+        out.flush();
+        return summary;
+    }
+
+    /**
+     * Reads the next line, or returns {@code null} at the end of the body. A line longer
+     * than the limit is consumed to its end and returned without its text, so it is
+     * rejected without being held in memory.
+     */
+    private Line readLine(BufferedReader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() < maxLineLength) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        if (c == -1 && line.isEmpty() && !tooLong) {
+            return null;
+        }
+        if (tooLong) {
+            return new Line(null, true);
+        }
+        int end = line.length();
+        return new Line(end > 0 && line.charAt(end - 1) == '\r' ? line.substring(0, end - 1) : line.toString(), false);
+    }
+
+    private Pending parse(long lineNumber, Line line, Format format) {
+        if (line.tooLong()) {
+            return new Pending(lineNumber, null, "Line exceeds " + maxLineLength + " characters");
+        }
+        try {
+            Rates rate = format == Format.CSV ? parseCsv(line.text()) : parseJson(line.text());
+            if (rate.getBungalowId() == null) {
+                throw new IllegalArgumentException("Bungalow ID is required");
+            }
+            if (rate.getNights() == null) {
+                throw new IllegalArgumentException("Number of nights is required");
+            }
+            RateValidator.validateNewRate(rate, List.of());
+            return new Pending(lineNumber, rate, null);
+        } catch (JsonProcessingException e) {
+            return new Pending(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (DateTimeParseException e) {
+            return new Pending(lineNumber, null, "Malformed date: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
+            return new Pending(lineNumber, null, e.getMessage());
+        }
+    }
+
+    private Rates parseJson(String line) throws JsonProcessingException {
+        Rates rate = objectMapper.readValue(line, Rates.class);
+        rate.setId(null);
+        rate.setVersion(null);
+        return rate;
+    }
+
+    private Rates parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length < 7 || columns.length > 8) {
+            throw new IllegalArgumentException("Expected 7 or 8 columns but found " + columns.length);
+        }
+        Rates rate = new Rates();
+        rate.setBungalowId(Long.parseLong(columns[1].trim()));
+        rate.setStayDateFrom(LocalDate.parse(columns[2].trim()));
+        rate.setStayDateTo(LocalDate.parse(columns[3].trim()));
+        rate.setNights(Integer.parseInt(columns[4].trim()));
+        rate.setValue(Double.parseDouble(columns[5].trim()));
+        rate.setBookDateFrom(LocalDate.parse(columns[6].trim()));
+        if (columns.length == 8 && !columns[7].isBlank()) {
+            rate.setBookDateTo(LocalDate.parse(columns[7].trim()));
+        }
+        return rate;
+    }
+
+    /**
+     * Stores the valid lines of a batch, writes the result of every line and empties the batch.
+     */
+    private void store(List<Pending> batch, OutputStream out, long[] totals) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<RateIngestResult> results = new ArrayList<>(batch.size());
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        while (results.isEmpty()) {
+            try {
+                writeBulkhead.run(() -> {
+                    for (Pending pending : batch) {
+                        results.add(create(pending));
+                    }
+                });
+            } catch (ServiceOverloadedException e) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    for (Pending pending : batch) {
+                        results.add(rejected(pending.line(), e.getMessage()));
+                    }
+                } else {
+                    pause(Math.min(remaining, e.getRetryAfterSeconds() * 1000L));
+                }
+            }
+        }
+
+        for (RateIngestResult result : results) {
+            totals[result.status() == RateIngestResult.Status.CREATED ? 0 : 1]++;
+            writeLine(out, result);
+        }
+        out.flush();
+        batch.clear();
+    }
+
+    private RateIngestResult create(Pending pending) {
+        if (pending.error() != null) {
+            return rejected(pending.line(), pending.error());
+        }
+        try {
+            Rates saved = optimisticRetry.call(() -> rateService.createRate(new Rates(pending.rate())));
+            return new RateIngestResult(pending.line(), RateIngestResult.Status.CREATED, saved.getId(), null);
+        } catch (IllegalArgumentException | RateNotFoundException e) {
+            return rejected(pending.line(), e.getMessage());
+        } catch (ConcurrencyFailureException e) {
+            return rejected(pending.line(), "Rate was modified concurrently, please retry");
+        } catch (RuntimeException e) {
+            // Anything else may carry SQL or internals that do not belong in the response
+            return rejected(pending.line(), "Rate could not be stored");
+        }
+    }
+
+    private static RateIngestResult rejected(long line, String error) {
+        return new RateIngestResult(line, RateIngestResult.Status.REJECTED, null, error);
+    }
+
+    private static void pause(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(Math.max(1L, millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a write slot");
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,45 @@
+package com.maxxton.silverheavens.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link RateIntegrityScanner} run over the active rates of every bungalow.
+ *
+ * @param rows active rows checked
+ * @param bungalows bungalows with at least one active row
+ * @param durationMs wall-clock time of the scan, including any repair
+ * @param violationCounts number of violations found, per type
+ * @param violations the first violations found, at most the configured reporting limit
+ * @param truncated whether more violations were found than are listed
+ * @param repaired bungalows whose unmerged segments were merged again
+ * @param repairsFailed bungalows whose merge failed, for instance on a concurrent change
+ * @param repairsSkipped bungalows left unrepaired because the repair limit was reached
+ */
+public record RateIntegrityReport(long rows, long bungalows, long durationMs, Map<ViolationType, Long> violationCounts,
+                                  List<Violation> violations, boolean truncated, int repaired, int repairsFailed,
+                                  int repairsSkipped) {
+
+    /**
+     * Invariant broken by an active rate.
+     */
+    public enum ViolationType {
+        /** Two active rates cover the same night. */
+        OVERLAP,
+        /** Two active rates are adjacent with the same value and should have been merged. */
+        UNMERGED,
+        /** A rate ends before it starts or has no nights. */
+        INVALID_ROW
+    }
+
+    /**
+     * A single broken invariant.
+     *
+     * @param type the invariant
+     * @param bungalowId bungalow the rates belong to
+     * @param rateId the offending rate
+     * @param otherRateId the earlier rate it conflicts with, or {@code null} for {@link ViolationType#INVALID_ROW}
+     */
+    public record Violation(ViolationType type, long bungalowId, long rateId, Long otherRateId) {
+    }
+}
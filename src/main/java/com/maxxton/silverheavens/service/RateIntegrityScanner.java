@@ -0,0 +1,358 @@
+package com.maxxton.silverheavens.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import com.maxxton.silverheavens.concurrency.OptimisticRetry;
+import com.maxxton.silverheavens.concurrency.WriteBulkhead;
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.service.RateIntegrityReport.Violation;
+import com.maxxton.silverheavens.service.RateIntegrityReport.ViolationType;
+
+/**
+ * Checks the invariants the split and merge logic of {@link RateService} is meant to keep
+ * for the active rates (no booking end date) of every bungalow:
+ * <ul>
+ *   <li>no two active rates cover the same night,</li>
+ *   <li>adjacent active rates with the same value have been merged,</li>
+ *   <li>every active rate has a valid stay range and at least one night.</li>
+ * </ul>
+ *
+ * <p>The active rows are streamed once, ordered by bungalow, on the calling thread and cut
+ * into chunks of whole bungalows, which are checked in parallel on a {@link ForkJoinPool}.
+ * Only a bounded number of chunks may be waiting or in progress; when they are all taken
+ * the stream pauses, so memory stays at a few chunks of primitive arrays however large the
+ * table is. A single bungalow is never split over chunks, so a chunk exceeds its nominal
+ * size only by the rows of its last bungalow.</p>
+ *
+ * <p>Optionally, bungalows with unmerged segments are repaired afterwards by running
+ * {@link RateService#mergeAdjacentRates} on them again, each in its own transaction and
+ * through the write bulkhead. Overlaps are only reported: which of the conflicting rates
+ * should win is a business decision.</p>
+ */
+@Service
+public class RateIntegrityScanner {
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private WriteBulkhead writeBulkhead;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    /**
+     * Worker threads checking chunks; 0 uses one per available processor.
+     */
+    @Value("${rates.integrity.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Nominal number of rows per chunk.
+     */
+    @Value("${rates.integrity.chunk-rows:10000}")
+    private int chunkRows;
+
+    /**
+     * Chunks that may be queued or in progress before the stream pauses; 0 uses twice the parallelism.
+     */
+    @Value("${rates.integrity.max-pending-chunks:0}")
+    private int maxPendingChunks;
+
+    /**
+     * Maximum number of violations listed in a report; all of them are still counted.
+     */
+    @Value("${rates.integrity.max-reported:1000}")
+    private int maxReported;
+
+    /**
+     * Maximum number of bungalows merged again by one repairing scan.
+     */
+    @Value("${rates.integrity.max-repairs:10000}")
+    private int maxRepairs;
+
+    /**
+     * Rows below which a range of bungalows is checked without splitting it further.
+     */
+    private static final int SPLIT_ROWS = 2048;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Scans the active rates of every bungalow.
+     *
+     * @param repair whether to merge again the bungalows found with unmerged segments
+     * @return counts and the first violations found, and the outcome of the repair
+     * @throws ConcurrencyFailureException if another scan is already running
+     */
+    public RateIntegrityReport scan(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConcurrencyFailureException("An integrity scan is already running");
+        }
+        try {
+            return new Scan().run(repair);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * State of one scan, shared between the streaming thread and the workers.
+     */
+    private final class Scan {
+
+        private final int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        private final int pendingLimit = maxPendingChunks > 0 ? maxPendingChunks : 2 * threads;
+        private final Semaphore pending = new Semaphore(pendingLimit);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private final Map<ViolationType, LongAdder> counts = new EnumMap<>(ViolationType.class);
+        private final Queue<Violation> reported = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reportedCount = new AtomicInteger();
+        private final Queue<Long> unmerged = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger unmergedCount = new AtomicInteger();
+
+        private ForkJoinPool pool;
+        private Chunk chunk = new Chunk(chunkRows);
+        private long rows;
+        private long bungalows;
+        private long lastBungalowId = Long.MIN_VALUE;
+
+        Scan() {
+            for (ViolationType type : ViolationType.values()) {
+                counts.put(type, new LongAdder());
+            }
+        }
+
+        RateIntegrityReport run(boolean repair) {
+            long started = System.nanoTime();
+            pool = new ForkJoinPool(threads);
+            try {
+                rateJdbcRepository.streamActiveRows(this::accept);
+                submit();
+                pending.acquireUninterruptibly(pendingLimit);
+            } finally {
+                pool.shutdownNow();
+            }
+            Throwable error = failure.get();
+            if (error != null) {
+                throw new IllegalStateException("Integrity scan failed: " + error.getMessage(), error);
+            }
+
+            int repaired = 0;
+            int repairsFailed = 0;
+            int repairsSkipped = 0;
+            if (repair) {
+                List<Long> bungalowIds = new ArrayList<>(unmerged);
+                bungalowIds.sort(null);
+                for (Long bungalowId : bungalowIds) {
+                    if (merge(bungalowId)) {
+                        repaired++;
+                    } else {
+                        repairsFailed++;
+                    }
+                }
+                repairsSkipped = unmergedCount.get() - bungalowIds.size();
+            }
+
+            Map<ViolationType, Long> violationCounts = new EnumMap<>(ViolationType.class);
+            counts.forEach((type, count) -> violationCounts.put(type, count.sum()));
+            return new RateIntegrityReport(rows, bungalows,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), violationCounts,
+                    List.copyOf(reported), reportedCount.get() > maxReported, repaired, repairsFailed, repairsSkipped);
+        }
+
+        /**
+         * Appends a streamed row, handing the current chunk to the pool at a bungalow boundary once full.
+         */
+        private void accept(long bungalowId, long id, int stayFrom, int stayTo, int nights, long valueMinor) {
+            if (failure.get() != null) {
+                throw new IllegalStateException("Integrity scan aborted", failure.get());
+            }
+            if (bungalowId != lastBungalowId) {
+                if (chunk.size >= chunkRows) {
+                    submit();
+                }
+                chunk.startBungalow(bungalowId);
+                lastBungalowId = bungalowId;
+                bungalows++;
+            }
+            chunk.add(id, stayFrom, stayTo, nights, valueMinor);
+            rows++;
+        }
+
+        /**
+         * Queues the current chunk for checking, waiting while too many chunks are pending.
+         */
+        private void submit() {
+            if (chunk.bungalows == 0) {
+                return;
+            }
+            Chunk full = chunk;
+            chunk = new Chunk(chunkRows);
+            pending.acquireUninterruptibly();
+            pool.execute(() -> {
+                try {
+                    new CheckRange(full, 0, full.bungalows).invoke();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    pending.release();
+                }
+            });
+        }
+
+        private boolean merge(long bungalowId) {
+            try {
+                writeBulkhead.run(() -> optimisticRetry.run(() -> rateService.mergeAdjacentRates(bungalowId)));
+                return true;
+            } catch (ConcurrencyFailureException | ServiceOverloadedException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Checks one bungalow, whose rows are ordered by stay start date.
+         */
+        private void check(Chunk c, int bungalow) {
+            long bungalowId = c.bungalowIds[bungalow];
+            int start = c.bungalowStarts[bungalow];
+            int end = bungalow + 1 < c.bungalows ? c.bungalowStarts[bungalow + 1] : c.size;
+            boolean needsMerge = false;
+
+            int extentRow = start;
+            for (int row = start; row < end; row++) {
+                if (c.stayFrom[row] > c.stayTo[row] || c.nights[row] <= 0) {
+                    report(ViolationType.INVALID_ROW, bungalowId, c.ids[row], null);
+                }
+                if (row == start) {
+                    continue;
+                }
+                if (c.stayFrom[row] <= c.stayTo[extentRow]) {
+                    report(ViolationType.OVERLAP, bungalowId, c.ids[row], c.ids[extentRow]);
+                } else if (c.stayFrom[row] == c.stayTo[extentRow] + 1 && c.valueMinor[row] == c.valueMinor[extentRow]) {
+                    report(ViolationType.UNMERGED, bungalowId, c.ids[row], c.ids[extentRow]);
+                    needsMerge = true;
+                }
+                if (c.stayTo[row] >= c.stayTo[extentRow]) {
+                    extentRow = row;
+                }
+            }
+            if (needsMerge && unmergedCount.getAndIncrement() < maxRepairs) {
+                unmerged.add(bungalowId);
+            }
+        }
+
+        private void report(ViolationType type, long bungalowId, long rateId, Long otherRateId) {
+            counts.get(type).increment();
+            if (reportedCount.getAndIncrement() < maxReported) {
+                reported.add(new Violation(type, bungalowId, rateId, otherRateId));
+            }
+        }
+
+        /**
+         * Checks a range of bungalows of a chunk, splitting it while it holds many rows.
+         */
+        private final class CheckRange extends RecursiveAction {
+
+            private final Chunk part;
+            private final int from;
+            private final int to;
+
+            CheckRange(Chunk part, int from, int to) {
+                this.part = part;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                int firstRow = part.bungalowStarts[from];
+                int endRow = to < part.bungalows ? part.bungalowStarts[to] : part.size;
+                if (to - from > 1 && endRow - firstRow > SPLIT_ROWS) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new CheckRange(part, from, mid), new CheckRange(part, mid, to));
+                    return;
+                }
+                for (int bungalow = from; bungalow < to; bungalow++) {
+                    check(part, bungalow);
+                }
+            }
+        }
+    }
+
+    /**
+     * Active rows of consecutive bungalows in primitive arrays, grown as needed.
+     */
+    private static final class Chunk {
+
+        private long[] ids;
+        private int[] stayFrom;
+        private int[] stayTo;
+        private int[] nights;
+        private long[] valueMinor;
+        private int size;
+
+        private long[] bungalowIds = new long[16];
+        private int[] bungalowStarts = new int[16];
+        private int bungalows;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            stayFrom = new int[capacity];
+            stayTo = new int[capacity];
+            nights = new int[capacity];
+            valueMinor = new long[capacity];
+        }
+
+        void startBungalow(long bungalowId) {
+            if (bungalows == bungalowIds.length) {
+                bungalowIds = Arrays.copyOf(bungalowIds, bungalows * 2);
+                bungalowStarts = Arrays.copyOf(bungalowStarts, bungalows * 2);
+            }
+            bungalowIds[bungalows] = bungalowId;
+            bungalowStarts[bungalows] = size;
+            bungalows++;
+        }
+
+        void add(long id, int from, int to, int nightCount, long value) {
+            if (size == ids.length) {
+                int capacity = Math.max(16, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                stayFrom = Arrays.copyOf(stayFrom, capacity);
+                stayTo = Arrays.copyOf(stayTo, capacity);
+                nights = Arrays.copyOf(nights, capacity);
+                valueMinor = Arrays.copyOf(valueMinor, capacity);
+            }
+            ids[size] = id;
+            stayFrom[size] = from;
+            stayTo[size] = to;
+            nights[size] = nightCount;
+            valueMinor[size] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.maxxton.silverheavens.pricing.ArrivalQuote;
+import com.maxxton.silverheavens.pricing.CheapestArrivals;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+/**
+ * Answers "cheapest N-night stay in this period" questions.
+ *
+ * <p>Instead of quoting every candidate arrival separately, the rates of all requested
+ * bungalows for the whole window are fetched in a single query and each bungalow is
+ * scanned once with {@link CheapestArrivals}.</p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class RateSearchService {
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    /**
+     * Maximum number of bungalows in one search.
+     */
+    @Value("${rates.search.max-bungalows:200}")
+    private int maxBungalows;
+
+    /**
+     * Maximum length of the search window in days.
+     */
+    @Value("${rates.search.max-window-days:366}")
+    private int maxWindowDays;
+
+    /**
+     * Maximum number of arrivals returned per bungalow.
+     */
+    @Value("${rates.search.max-results:50}")
+    private int maxResults;
+
+    /**
+     * Finds the cheapest arrival dates for each of the given bungalows.
+     *
+     * @param bungalowIds bungalows to search; duplicates are ignored
+     * @param from earliest arrival date
+     * @param to latest departure date
+     * @param nights length of stay
+     * @param bookingDate date on which the booking is made
+     * @param limit number of arrivals to return per bungalow
+     * @return cheapest stays per bungalow in request order, cheapest first;
+     *         bungalows without any bookable stay map to an empty list
+     * @throws IllegalArgumentException if the search parameters are invalid
+     */
+    public Map<Long, List<ArrivalQuote>> findCheapestArrivals(List<Long> bungalowIds, LocalDate from, LocalDate to,
+                                                              int nights, LocalDate bookingDate, int limit) {
+        if (bungalowIds == null || bungalowIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one bungalow ID is required");
+        }
+        if (bungalowIds.contains(null)) {
+            throw new IllegalArgumentException("Bungalow ID cannot be null");
+        }
+        if (from == null || to == null || bookingDate == null) {
+            throw new IllegalArgumentException("Window and booking dates are required");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Window start must be before window end");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxWindowDays) {
+            throw new IllegalArgumentException("Search window cannot exceed " + maxWindowDays + " days");
+        }
+        if (nights <= 0) {
+            throw new IllegalArgumentException("Length of stay must be positive");
+        }
+        if (limit <= 0 || limit > maxResults) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxResults);
+        }
+
+        Set<Long> distinct = new LinkedHashSet<>(bungalowIds);
+        if (distinct.size() > maxBungalows) {
+            throw new IllegalArgumentException("Cannot search more than " + maxBungalows + " bungalows at once");
+        }
+
+        Map<Long, RateTimeline> timelines = rateJdbcRepository.findPricingTimelines(distinct, from, to, bookingDate);
+
+        Map<Long, List<ArrivalQuote>> result = new LinkedHashMap<>();
+        for (Long bungalowId : distinct) {
+            RateTimeline timeline = timelines.getOrDefault(bungalowId, RateTimeline.empty());
+            result.put(bungalowId, CheapestArrivals.find(timeline, from, to, nights, bookingDate, limit));
+        }
+        return result;
+    }
+}
@@ -3,8 +3,14 @@ package com.maxxton.silverheavens.service;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -12,12 +18,28 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.maxxton.silverheavens.cache.EffectiveRateSnapshots;
+import com.maxxton.silverheavens.cache.OffHeapRateSnapshot;
+import com.maxxton.silverheavens.cache.RateTimelineCache;
+import com.maxxton.silverheavens.concurrency.RateFetchCoalescer;
+import com.maxxton.silverheavens.entity.RateChangeType;
 import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateBatchChangedEvent;
+import com.maxxton.silverheavens.event.RateChangedEvent;
 import com.maxxton.silverheavens.exception.RateNotFoundException;
+import com.maxxton.silverheavens.pricing.Money;
+import com.maxxton.silverheavens.pricing.PriceBreakdown;
+import com.maxxton.silverheavens.pricing.PricingKernel;
+import com.maxxton.silverheavens.pricing.QuoteExplanation;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
 import com.maxxton.silverheavens.repository.RateRepository;
 
 /**
@@ -29,13 +51,15 @@ import com.maxxton.silverheavens.repository.RateRepository;
  *   <li>Rates are created correctly with proper date validation and normalization</li>
  *   <li>Adjacent and overlapping rates are intelligently merged or split</li>
  *   <li>Historic (closed) rates remain queryable using booking date rules</li>
- *   <li>Soft and hard delete operations maintain pricing history integrity</li>
- *   <li>Excel import/export supports bulk handling of rate configurations</li>
+ *   <li>Soft and hard delete operations maintain pricing history integrity, one rate at a time
+ *       or as set-based bulk operations</li>
+ *   <li>Excel and compact binary import/export support bulk handling of rate configurations</li>
  *   <li>Dynamic price calculation is performed based on booking and stay dates</li>
  * </ul>
  *
  * <p>All database operations are executed within a transactional context to ensure
- * consistency and rollback behavior."
+ * consistency and rollback behavior. Pure reads run in read-only transactions, which
+ * lets them be served by a read replica when one is configured.
  */
 @Service
 @Transactional
@@ -48,11 +72,127 @@ public class RateService{
     @Autowired
     private RateRepository ratesRepository;
 
+    /**
+     * Plain JDBC access used for bulk transfers that should not go through
+     * entity hydration or the persistence context.
+     */
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    /**
+     * Publishes a {@link RateChangedEvent} for every row this service inserts, closes or
+     * removes, or one {@link RateBatchChangedEvent} per set-based statement, so that the
+     * change log and other listeners can follow along.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Whether {@link #calculatePrice} fetches its rows through the price-only JDBC
+     * query instead of hydrating {@link Rates} entities through JPA.
+     */
+    @Value("${rates.pricing.jdbc-path:true}")
+    private boolean jdbcPricingPath;
+
+    /**
+     * Replica-local cache of complete bungalow timelines, kept coherent across
+     * replicas through per-bungalow versions.
+     */
+    @Autowired
+    private RateTimelineCache rateTimelineCache;
+
+    /**
+     * Whether {@link #calculatePrice} reads timelines from {@link #rateTimelineCache}.
+     */
+    @Value("${rates.cache.enabled:false}")
+    private boolean timelineCacheEnabled;
+
+    /**
+     * Portfolio-wide off-heap snapshot of active and recently closed rates.
+     */
+    @Autowired
+    private OffHeapRateSnapshot offHeapRateSnapshot;
+
+    /**
+     * Whether {@link #calculatePrice} reads timelines from {@link #offHeapRateSnapshot}
+     * when it can answer, before trying the cache or the database.
+     */
+    @Value("${rates.offheap.enabled:false}")
+    private boolean offHeapEnabled;
+
+    /**
+     * Snapshots of the rows bookable today, with tomorrow's prepared before midnight.
+     */
+    @Autowired
+    private EffectiveRateSnapshots effectiveRateSnapshots;
+
+    /**
+     * Whether quotes booked today read their rows from {@link #effectiveRateSnapshots}
+     * before trying any other source.
+     */
+    @Value("${rates.effective.enabled:false}")
+    private boolean effectiveSnapshotsEnabled;
+
+    /**
+     * Shares database fetches between concurrent quotes for the same bungalow and booking date.
+     */
+    @Autowired
+    private RateFetchCoalescer rateFetchCoalescer;
+
+    /**
+     * Whether {@link #calculatePrice} coalesces its database fetches through
+     * {@link #rateFetchCoalescer}. Coalescing only shares the fetch chosen by
+     * {@link #jdbcPricingPath} between concurrent quotes for the same bungalow and booking
+     * date; each quote then prices the same rows a per-stay fetch would have read.
+     */
+    @Value("${rates.pricing.coalesce-fetches:true}")
+    private boolean coalesceFetches;
+
+    /**
+     * Maximum number of bungalows in one bulk close or purge, which bounds the rows
+     * locked and carried by its batch event.
+     */
+    @Value("${rates.bulk.max-bungalows:500}")
+    private int maxBulkBungalows;
+
+    /**
+     * The persisted timelines: reads go through {@link #ratesRepository}, writes also
+     * publish a {@link RateChangedEvent}.
+     */
+    private final RateStore repositoryStore = new RateStore() {
+        @Override
+        public List<Rates> findAll(Long bungalowId) {
+            return ratesRepository.findByBungalowIdOrderByStayDateFrom(bungalowId);
+        }
+
+        @Override
+        public List<Rates> findActiveOverlapping(Long bungalowId, LocalDate from, LocalDate to) {
+            return ratesRepository.findByBungalowIdAndBookDateToIsNullAndStayDateToGreaterThanEqualAndStayDateFromLessThanEqual(
+                    bungalowId, from, to);
+        }
+
+        @Override
+        public List<Rates> findActive(Long bungalowId) {
+            return ratesRepository.findByBungalowIdAndBookDateToIsNullOrderByStayDateFrom(bungalowId);
+        }
+
+        @Override
+        public Rates save(Rates rate, RateChangeType type) {
+            return RateService.this.save(rate, type);
+        }
+
+        @Override
+        public void delete(Rates rate) {
+            RateService.this.delete(rate);
+        }
+    };
+
     /**
      * Retrieves all rate entries stored in the system.
      *
      * @return list of all {@link Rates} entities in the database
      */
+    @Transactional(readOnly = true)
     public List<Rates> getAllRates() {
         return ratesRepository.findAll();
     }
@@ -66,6 +206,7 @@ public class RateService{
      * @param id unique identifier of the rate entity
      * @return matching {@link Rates} record
      */
+    @Transactional(readOnly = true)
     public Rates getRateById(Long id) {
         return ratesRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rate not found with id " + id));
@@ -81,6 +222,7 @@ public class RateService{
      * @param bungalowId identifier representing the bungalow
      * @return list of sorted {@link Rates} linked to the given bungalow
      */
+    @Transactional(readOnly = true)
     public List<Rates> getRatesByBungalowId(Long bungalowId) {
         return ratesRepository.findByBungalowIdOrderByStayDateFrom(bungalowId);
     }
@@ -105,6 +247,13 @@ public class RateService{
      * @return saved {@link Rates} entity with identifier populated
      */
     public Rates createRate(Rates newRate) {
+        return applyNewRate(newRate, repositoryStore);
+    }
+
+    /**
+     * Runs the create algorithm of {@link #createRate(Rates)} against the given store.
+     */
+    private Rates applyNewRate(Rates newRate, RateStore store) {
 
         normalizeRate(newRate);
 
@@ -112,22 +261,80 @@ public class RateService{
             newRate.setBookDateFrom(LocalDate.now());
         }
 
-        List<Rates> existing = ratesRepository.findByBungalowIdOrderByStayDateFrom(newRate.getBungalowId());
+        List<Rates> existing = store.findAll(newRate.getBungalowId());
 
         RateValidator.validateNewRate(newRate, existing);
 
-        splitOverlappingRates(newRate);
+        splitOverlappingRates(newRate, store);
 
         // Insert new rule active
         newRate.setBookDateTo(null);
-        Rates saved = ratesRepository.save(newRate);
+        Rates saved = store.save(newRate, RateChangeType.CREATED);
 
         // Try to merge if rules identical
-        mergeAdjacentRates(newRate.getBungalowId());
+        mergeAdjacentRates(newRate.getBungalowId(), store);
 
         return saved;
     }
 
+    /**
+     * Shows what {@link #createRate(Rates)} would do, without writing anything.
+     *
+     * <p>The bungalow's timeline is read once and the same validation, split and merge
+     * steps run against an in-memory copy of it. The result lists the rows that would be
+     * inserted, closed and deleted, and the price of each sample stay before and after
+     * the change. No rows are locked or written and no events are published.</p>
+     *
+     * @param newRate pricing rule that would be added; left unmodified
+     * @param sampleStays stays to quote before and after the change; may be empty
+     * @return the simulated diff and price deltas
+     * @throws IllegalArgumentException if the rate would be rejected by {@link #createRate(Rates)}
+     */
+    @Transactional(readOnly = true)
+    public RateSimulation simulateCreateRate(Rates newRate, List<RateSimulation.SampleStay> sampleStays) {
+        if (newRate == null || newRate.getBungalowId() == null) {
+            throw new IllegalArgumentException("Bungalow ID is required");
+        }
+
+        InMemoryRateStore store = new InMemoryRateStore(
+                ratesRepository.findByBungalowIdOrderByStayDateFrom(newRate.getBungalowId()));
+        RateTimeline before = RateTimeline.of(store.before());
+
+        Rates candidate = new Rates();
+        candidate.setBungalowId(newRate.getBungalowId());
+        candidate.setStayDateFrom(newRate.getStayDateFrom());
+        candidate.setStayDateTo(newRate.getStayDateTo());
+        candidate.setNights(newRate.getNights());
+        candidate.setValueMinor(newRate.getValueMinor());
+        candidate.setBookDateFrom(newRate.getBookDateFrom());
+        applyNewRate(candidate, store);
+
+        RateTimeline after = RateTimeline.of(store.current());
+        List<RateSimulation.PriceDelta> deltas = new ArrayList<>();
+        if (sampleStays != null) {
+            for (RateSimulation.SampleStay stay : sampleStays) {
+                deltas.add(new RateSimulation.PriceDelta(stay, quote(before, stay), quote(after, stay)));
+            }
+        }
+
+        return new RateSimulation(store.inserted(), store.updated(), store.deleted(), deltas);
+    }
+
+    /**
+     * Prices a sample stay on a timeline, or returns {@code null} if it cannot be booked.
+     */
+    private Double quote(RateTimeline timeline, RateSimulation.SampleStay stay) {
+        if (stay.arrival() == null || stay.departure() == null || stay.bookingDate() == null
+                || !stay.arrival().isBefore(stay.departure())) {
+            throw new IllegalArgumentException("Sample stays need an arrival before departure and a booking date");
+        }
+        try {
+            return PricingKernel.totalPrice(timeline, stay.arrival(), stay.departure(), stay.bookingDate());
+        } catch (RateNotFoundException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Splits existing overlapping active rate records into separate segments
      * to accommodate a newly inserted rate.
@@ -142,14 +349,13 @@ public class RateService{
      * <p>Each new segment inherits value and nights from the original rate.</p>
      *
      * @param newRate the incoming rate that triggers the segmentation
+     * @param store    where the overlapping rates are read and the segments written
      */
-    private void splitOverlappingRates(Rates newRate) {
+    private void splitOverlappingRates(Rates newRate, RateStore store) {
         LocalDate newFrom = newRate.getStayDateFrom();
         LocalDate newTo = newRate.getStayDateTo();
 
-        List<Rates> overlappingRates =
-                ratesRepository.findByBungalowIdAndBookDateToIsNullAndStayDateToGreaterThanEqualAndStayDateFromLessThanEqual(
-                        newRate.getBungalowId(), newFrom, newTo);
+        List<Rates> overlappingRates = store.findActiveOverlapping(newRate.getBungalowId(), newFrom, newTo);
 
         for (Rates oldRate : overlappingRates) {
             LocalDate oldFrom = oldRate.getStayDateFrom();
@@ -157,7 +363,7 @@ public class RateService{
 
             // Close old rate by shifting its end
             oldRate.setBookDateTo(newRate.getBookDateFrom());
-            ratesRepository.save(oldRate);
+            store.save(oldRate, RateChangeType.CLOSED);
 
             // Before
             if (oldFrom.isBefore(newFrom)) {
@@ -167,7 +373,7 @@ public class RateService{
                 before.setBookDateFrom(newRate.getBookDateFrom());
                 before.setBookDateTo(null);
                 before.setId(null);
-                ratesRepository.save(before);
+                store.save(before, RateChangeType.SPLIT);
             }
 
             // After
@@ -178,13 +384,13 @@ public class RateService{
                 after.setBookDateFrom(newRate.getBookDateFrom());
                 after.setBookDateTo(null);
                 after.setId(null);
-                ratesRepository.save(after);
+                store.save(after, RateChangeType.SPLIT);
             }
 
             // Clean up invalid records
             if (oldRate.getBookDateFrom() != null && oldRate.getBookDateTo() != null &&
                     oldRate.getBookDateFrom().isAfter(oldRate.getBookDateTo())) {
-                ratesRepository.delete(oldRate);
+                store.delete(oldRate);
             }
 
         }
@@ -197,7 +403,7 @@ public class RateService{
      * <p>Merging occurs only when:</p>
      * <ul>
      *   <li>Stay date ranges are chronologically continuous</li>
-     *   <li>Values match exactly</li>
+     *   <li>Values and nights match exactly, so both rows price every night the same</li>
      *   <li>No conflicting overlapping rate exists with a different value</li>
      * </ul>
      *
@@ -208,8 +414,11 @@ public class RateService{
      */
     @Transactional
     public void mergeAdjacentRates(Long bungalowId) {
-        List<Rates> activeRates = ratesRepository
-                .findByBungalowIdAndBookDateToIsNullOrderByStayDateFrom(bungalowId);
+        mergeAdjacentRates(bungalowId, repositoryStore);
+    }
+
+    private void mergeAdjacentRates(Long bungalowId, RateStore store) {
+        List<Rates> activeRates = new ArrayList<>(store.findActive(bungalowId));
 
         if (activeRates.size() < 2) return;
 
@@ -217,28 +426,31 @@ public class RateService{
             Rates current = activeRates.get(i);
             Rates next = activeRates.get(i + 1);
 
-            boolean sameValue = current.getValue() == next.getValue();
+            boolean samePrice = current.getValueMinor() == next.getValueMinor()
+                    && Objects.equals(current.getNights(), next.getNights());
             boolean continuous = current.getStayDateTo().plusDays(1).equals(next.getStayDateFrom());
 
-            if (sameValue && continuous) {
+            if (samePrice && continuous) {
                 // Step 1: Close the current rate (add bookDateTo as today)
                 current.setBookDateTo(next.getBookDateFrom());
-                ratesRepository.save(current);
+                store.save(current, RateChangeType.CLOSED);
 
                 // Step 2: Create a new merged rate
                 Rates merged = new Rates();
                 merged.setBungalowId(current.getBungalowId());
                 merged.setStayDateFrom(current.getStayDateFrom());
                 merged.setStayDateTo(next.getStayDateTo());
-                merged.setValue(current.getValue());
-                merged.setNights(1);
+                merged.setValueMinor(current.getValueMinor());
+                merged.setNights(current.getNights());
                 merged.setBookDateFrom(next.getBookDateFrom());
                 merged.setBookDateTo(null);
 
-                ratesRepository.save(merged);
+                merged = store.save(merged, RateChangeType.MERGED);
 
-                // Step 3: Remove the merged next rate from active list
-                ratesRepository.delete(next);
+                // Step 3: Remove the merged next rate from active list, so that a chain of
+                // adjacent rates keeps extending the merged segment
+                store.delete(next);
+                activeRates.set(i + 1, merged);
             }
 
             
@@ -248,17 +460,20 @@ public class RateService{
     /**
      * Converts multi-night pricing into a standardized one-night pricing model.
      *
-     * <p>If a rate indicates more than one night, the value is divided evenly and
-     * the nights field is normalized to 1. This keeps pricing consistent for
-     * calendar-based nightly computations.</p>
+     * <p>If a rate indicates more than one night and its value divides evenly into
+     * whole minor units per night, the value is divided and the nights field is
+     * normalized to 1. This keeps pricing consistent for calendar-based nightly
+     * computations. Rates that do not divide evenly keep their nights, so pricing can
+     * spread the remainder over them instead of rounding it away, see
+     * {@link RateTimeline#nightMinor}.</p>
      *
      * @param rate entity to normalize
      */
     private void normalizeRate(Rates rate) {
-        if (rate.getNights() > 1) {
-            double perNightValue = rate.getValue() / rate.getNights();
+        if (rate.getNights() > 1 && rate.getValueMinor() % rate.getNights() == 0) {
+            long perNightValue = rate.getValueMinor() / rate.getNights();
             rate.setNights(1);
-            rate.setValue(perNightValue);
+            rate.setValueMinor(perNightValue);
         }
     }
 
@@ -274,11 +489,34 @@ public class RateService{
     private Rates cloneRate(Rates source) {
         Rates r = new Rates();
         r.setBungalowId(source.getBungalowId());
-        r.setValue(source.getValue());
+        r.setValueMinor(source.getValueMinor());
         r.setNights(source.getNights());
         return r;
     }
 
+    /**
+     * Persists a rate and publishes the corresponding {@link RateChangedEvent}.
+     *
+     * @param rate entity to insert or update
+     * @param type kind of mutation being recorded
+     * @return the saved entity
+     */
+    private Rates save(Rates rate, RateChangeType type) {
+        Rates saved = ratesRepository.save(rate);
+        eventPublisher.publishEvent(new RateChangedEvent(type, saved));
+        return saved;
+    }
+
+    /**
+     * Removes a rate and publishes a {@link RateChangeType#DELETED} event.
+     *
+     * @param rate entity to remove
+     */
+    private void delete(Rates rate) {
+        ratesRepository.delete(rate);
+        eventPublisher.publishEvent(new RateChangedEvent(RateChangeType.DELETED, rate));
+    }
+
 
     /**
      * Soft deletes a rate by closing its booking availability.
@@ -297,7 +535,7 @@ public class RateService{
 
         // closing the rate by setting the bookingDateTo as today
         rate.setBookDateTo(dated);
-        ratesRepository.save(rate);
+        save(rate, RateChangeType.CLOSED);
     }
 
     /**
@@ -312,10 +550,105 @@ public class RateService{
      * @throws RuntimeException if the rate does not exist
      */
     public void deleteRate(Long rateId) {
-        if (!ratesRepository.existsById(rateId)) {
-            throw new RuntimeException("Rate not found");
+        Rates rate = ratesRepository.findById(rateId)
+                .orElseThrow(() -> new RuntimeException("Rate not found"));
+        delete(rate);
+    }
+
+    /**
+     * Closes, in one statement, every active rate of the given bungalows whose stay
+     * overlaps the window, as {@link #closeRate(Long, LocalDate)} would one by one.
+     *
+     * <p>Only rates open for booking on {@code dated} without an end date are closed. The
+     * matching rows are locked and read once, so that a single {@link RateChangeType#CLOSED}
+     * batch event can still carry each of them; this keeps the change log complete, written
+     * in one batch, and bumps the version of the affected bungalows only, once each.</p>
+     *
+     * @param request bungalows, stay window and closing date
+     * @return number of rates closed and the bungalows they belong to
+     * @throws IllegalArgumentException if the request is incomplete, the window is inverted or
+     *                                  it names more than {@code rates.bulk.max-bungalows} bungalows
+     * @throws ConcurrencyFailureException if the matching rows changed while being closed
+     */
+    public RateBulkChange closeRates(RateBulkChange.CloseRequest request) {
+        validateBulkWindow(request.bungalowIds(), request.stayFrom(), request.stayTo());
+        if (request.dated() == null) {
+            throw new IllegalArgumentException("Closing date is required");
+        }
+        if (request.bungalowIds().isEmpty()) {
+            return new RateBulkChange(0, List.of());
+        }
+
+        List<Rates> rates = rateJdbcRepository.lockActive(
+                request.bungalowIds(), request.stayFrom(), request.stayTo(), request.dated());
+        int closed = rateJdbcRepository.closeActive(
+                request.bungalowIds(), request.stayFrom(), request.stayTo(), request.dated());
+        checkBulkCount(rates, closed);
+
+        for (Rates rate : rates) {
+            rate.setBookDateTo(request.dated());
+            rate.setVersion(rate.getVersion() + 1);
+        }
+        eventPublisher.publishEvent(new RateBatchChangedEvent(RateChangeType.CLOSED, rates));
+        return bulkChange(rates);
+    }
+
+    /**
+     * Permanently removes, in one statement, every rate of the given bungalows whose stay
+     * overlaps the window, active or closed. Meant for cleaning up erroneous rows, for
+     * example a faulty import, which is what {@code bookedFrom} helps to single out.
+     *
+     * <p>As with {@link #closeRates}, the rows are locked and read once so that a
+     * {@link RateChangeType#DELETED} batch event carries each of them.</p>
+     *
+     * @param request bungalows, stay window and optional booking-window filter
+     * @return number of rates deleted and the bungalows they belonged to
+     * @throws IllegalArgumentException if the request is incomplete, the window is inverted or
+     *                                  it names more than {@code rates.bulk.max-bungalows} bungalows
+     * @throws ConcurrencyFailureException if the matching rows changed while being deleted
+     */
+    public RateBulkChange purgeRates(RateBulkChange.PurgeRequest request) {
+        validateBulkWindow(request.bungalowIds(), request.stayFrom(), request.stayTo());
+        if (request.bungalowIds().isEmpty()) {
+            return new RateBulkChange(0, List.of());
+        }
+
+        List<Rates> rates = rateJdbcRepository.lockPurgeable(
+                request.bungalowIds(), request.stayFrom(), request.stayTo(), request.bookedFrom());
+        int deleted = rateJdbcRepository.purge(
+                request.bungalowIds(), request.stayFrom(), request.stayTo(), request.bookedFrom());
+        checkBulkCount(rates, deleted);
+
+        eventPublisher.publishEvent(new RateBatchChangedEvent(RateChangeType.DELETED, rates));
+        return bulkChange(rates);
+    }
+
+    private void validateBulkWindow(List<Long> bungalowIds, LocalDate stayFrom, LocalDate stayTo) {
+        if (bungalowIds == null || stayFrom == null || stayTo == null) {
+            throw new IllegalArgumentException("Bungalows and stay window are required");
+        }
+        if (stayTo.isBefore(stayFrom)) {
+            throw new IllegalArgumentException("Stay window ends before it starts");
+        }
+        if (bungalowIds.stream().distinct().count() > maxBulkBungalows) {
+            throw new IllegalArgumentException("Cannot change more than " + maxBulkBungalows + " bungalows at once");
+        }
+    }
+
+    /**
+     * Guards against rows that appeared between locking and the bulk statement, which
+     * would be changed without an event.
+     */
+    private void checkBulkCount(List<Rates> locked, int affected) {
+        if (affected != locked.size()) {
+            throw new ConcurrencyFailureException(
+                    "Expected to change " + locked.size() + " rates but changed " + affected);
         }
-        ratesRepository.deleteById(rateId);
+    }
+
+    private RateBulkChange bulkChange(List<Rates> rates) {
+        List<Long> bungalowIds = rates.stream().map(Rates::getBungalowId).distinct().sorted().toList();
+        return new RateBulkChange(rates.size(), bungalowIds);
     }
 
     /**
@@ -340,10 +673,11 @@ public class RateService{
 
         // Step 1: soft close current rate
         current.setBookDateTo(LocalDate.now());
-        ratesRepository.save(current);
+        save(current, RateChangeType.CLOSED);
 
         // Step 2: updatedRate becomes new starting rate
         updatedRate.setId(null); // new record
+        updatedRate.setVersion(null);
         updatedRate.setBookDateFrom(LocalDate.now());
 
         // Step 3: re-run all split and merge magic
@@ -361,6 +695,7 @@ public class RateService{
      * @return a {@link ByteArrayInputStream} representing the Excel file content
      * @throws IOException if an issue occurs during writing of file data
      */
+    @Transactional(readOnly = true)
     public ByteArrayInputStream exportRatesToExcel() throws IOException {
         List<Rates> rates = ratesRepository.findAll();
 
@@ -437,6 +772,82 @@ public class RateService{
     }
 
 
+    /**
+     * Exports all rate records in the compact columnar format of {@link RateBinaryCodec}.
+     *
+     * <p>Rows are streamed straight from a database cursor into the channel, so neither
+     * entities nor the full result set are ever held in memory.</p>
+     *
+     * @param channel destination of the encoded export; left open
+     * @return number of rows exported
+     * @throws IOException if writing to the channel fails
+     */
+    @Transactional(readOnly = true)
+    public long exportRatesToBinary(WritableByteChannel channel) throws IOException {
+        try (RateBinaryCodec.Writer writer = new RateBinaryCodec.Writer(channel)) {
+            return rateJdbcRepository.streamAll(writer::write);
+        }
+    }
+
+    /**
+     * Imports rate rows produced by {@link #exportRatesToBinary(WritableByteChannel)}.
+     *
+     * <p>Unlike {@link #importRatesFromExcel(MultipartFile)}, rows are inserted as-is in one
+     * JDBC batch per block instead of being replayed through {@link #createRate(Rates)}.
+     * A binary export is a full snapshot including closed history, whose timelines are
+     * already split and merged, so re-running that logic would only corrupt them. For the
+     * same reason rows are only loaded into bungalows that have no rates yet: merging a
+     * snapshot into an existing timeline would duplicate its history and leave overlapping
+     * active rows. Each row is checked as stored history, and the whole import rolls back
+     * on the first invalid row or populated bungalow.</p>
+     *
+     * @param channel source of the encoded rows
+     * @return number of rows imported
+     * @throws IOException if the channel cannot be read
+     * @throws IllegalArgumentException if the stream is malformed, a row is invalid or a
+     *         bungalow in the stream already has rates
+     */
+    public long importRatesFromBinary(ReadableByteChannel channel) throws IOException {
+        RateBinaryCodec.Reader reader = new RateBinaryCodec.Reader(channel);
+        List<Rates> batch = new ArrayList<>(RateBinaryCodec.BLOCK_ROWS);
+        Set<Long> importedBungalows = new HashSet<>();
+        Set<Long> newBungalows = new HashSet<>();
+        long imported = 0;
+
+        RateBinaryCodec.Block block;
+        while ((block = reader.nextBlock()) != null) {
+            batch.clear();
+            newBungalows.clear();
+            for (int i = 0; i < block.size; i++) {
+                Rates rate = new Rates();
+                rate.setBungalowId(block.bungalowIds[i]);
+                rate.setStayDateFrom(LocalDate.ofEpochDay(block.stayFrom[i]));
+                rate.setStayDateTo(LocalDate.ofEpochDay(block.stayTo[i]));
+                rate.setNights(block.nights[i]);
+                rate.setValueMinor(block.valuesMinor[i]);
+                rate.setBookDateFrom(LocalDate.ofEpochDay(block.bookFrom[i]));
+                rate.setBookDateTo(block.bookDateTo(i));
+
+                RateValidator.validateStoredRate(rate);
+                batch.add(rate);
+                if (!importedBungalows.contains(rate.getBungalowId())) {
+                    newBungalows.add(rate.getBungalowId());
+                }
+            }
+            if (!newBungalows.isEmpty()) {
+                List<Long> populated = rateJdbcRepository.findBungalowsWithRates(newBungalows);
+                if (!populated.isEmpty()) {
+                    throw new IllegalArgumentException("Bungalow " + populated.get(0)
+                            + " already has rates; binary imports only load bungalows without rates");
+                }
+                importedBungalows.addAll(newBungalows);
+            }
+            imported += rateJdbcRepository.insertAll(batch);
+            eventPublisher.publishEvent(new RateBatchChangedEvent(RateChangeType.CREATED, List.copyOf(batch)));
+        }
+        return imported;
+    }
+
     /**
      * Calculates the total price for a stay at a given bungalow by evaluating the nightly rate
      * for each date between the arrival and departure dates. The applicable rate for every night
@@ -445,13 +856,21 @@ public class RateService{
      * <p>This method:
      * <ul>
      *     <li>Validates that arrival is strictly before departure.</li>
-     *     <li>Fetches all rate records for the given bungalow ordered by stay date.</li>
-     *     <li>Iterates date-by-date from arrival (inclusive) to departure (exclusive).</li>
+     *     <li>Fetches the rate rows relevant to the stay and booking date, ordered by stay date,
+     *         from today's effective snapshot ({@code rates.effective.enabled}), the off-heap
+     *         snapshot ({@code rates.offheap.enabled}) or the replica-local
+     *         timeline cache ({@code rates.cache.enabled}); or else from the database, as
+     *         plain columns over JDBC or as entities through JPA ({@code rates.pricing.jdbc-path}),
+     *         in one fetch shared by concurrent quotes for the same bungalow and booking date
+     *         ({@code rates.pricing.coalesce-fetches}).</li>
+     *     <li>Prices every date from arrival (inclusive) to departure (exclusive) with {@link PricingKernel}.</li>
      *     <li>For each night:
      *         <ul>
      *           <li>Finds the first matching rate whose stay and booking date windows are valid.</li>
-     *           <li>Calculates nightly cost as {@code rate.value / rate.nights}.</li>
-     *           <li>Adds it to the total price.</li>
+     *           <li>Calculates nightly cost as the night's share of {@code rate.value} over
+     *               {@code rate.nights} in minor units, so whole runs of nights cost exactly
+     *               the rate's value.</li>
+     *           <li>Adds it to the total price using exact integer arithmetic.</li>
      *         </ul>
      *     </li>
      *     <li>If at any date no rate fits, it throws an exception.</li>
@@ -461,13 +880,119 @@ public class RateService{
      * @param arrival the start date of the stay (inclusive)
      * @param departure the end date of the stay (exclusive)
      * @param bookingDate the date when the booking is made to check booking validity
-     * @return total calculated price for the entire stay duration
+     * @return total calculated price for the entire stay duration, in major currency units
      *
      * @throws IllegalArgumentException if arrival is not before departure
      * @throws RuntimeException if no valid rate is found for any night in the stay period
      */
+    @Transactional(readOnly = true)
     public double calculatePrice(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
-        // Validate inputs early
+        RateTimeline rates = loadStayTimeline(bungalowId, arrival, departure, bookingDate);
+
+        try {
+            return PricingKernel.totalPrice(rates, arrival, departure, bookingDate);
+        } catch (RateNotFoundException e) {
+            // Re-throw known exception so GlobalExceptionHandler can handle gracefully
+            throw e;
+        } catch (Exception e) {
+            // Catch any unexpected issues, e.g. null fields inside rates
+            throw new RuntimeException("Error calculating price: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Calculates the price of a stay like {@link #calculatePrice} and also returns how it
+     * was built: consecutive nights priced by the same rate are reported as one segment
+     * with their per-night value and rate id, produced in the same pass as the total.
+     *
+     * @param bungalowId the ID of the bungalow to fetch applicable rates from
+     * @param arrival the start date of the stay (inclusive)
+     * @param departure the end date of the stay (exclusive)
+     * @param bookingDate the date when the booking is made to check booking validity
+     * @return total price of the stay and its run-length encoded segments
+     *
+     * @throws IllegalArgumentException if arrival is not before departure
+     * @throws RuntimeException if no valid rate is found for any night in the stay period
+     */
+    @Transactional(readOnly = true)
+    public PriceBreakdown calculatePriceBreakdown(Long bungalowId, LocalDate arrival, LocalDate departure,
+                                                  LocalDate bookingDate) {
+        RateTimeline rates = loadStayTimeline(bungalowId, arrival, departure, bookingDate);
+
+        try {
+            return PricingKernel.breakdown(rates, arrival, departure, bookingDate);
+        } catch (RateNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error calculating price: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prices a stay like {@link #calculatePrice} and reports how the price was produced:
+     * which source answered, the rows the pricing loop received, the rate matched for
+     * each night with the number of rows scanned to find it, and the time spent fetching
+     * versus pricing. A stay that cannot be priced is still explained, with the reason
+     * instead of a total.
+     *
+     * <p>The rows come from the same single lookup as {@link #calculatePrice}, which also
+     * reports the source that answered; only the timings and per-night details are extra.</p>
+     *
+     * @param bungalowId the ID of the bungalow to fetch applicable rates from
+     * @param arrival the start date of the stay (inclusive)
+     * @param departure the end date of the stay (exclusive)
+     * @param bookingDate the date when the booking is made to check booking validity
+     * @return explanation of the quote
+     *
+     * @throws IllegalArgumentException if the request is incomplete or arrival is not before departure
+     */
+    @Transactional(readOnly = true)
+    public QuoteExplanation explainPrice(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        validatePriceRequest(bungalowId, arrival, departure, bookingDate);
+
+        long fetchStart = System.nanoTime();
+        // Quiet check, so that the explained quote does not count as a cache lookup twice
+        boolean wasCached = timelineCacheEnabled && rateTimelineCache.isCached(bungalowId);
+        SourcedTimeline sourced = loadPricingSource(bungalowId, arrival, departure, bookingDate);
+        RateTimeline rates = sourced.timeline();
+        QuoteExplanation.Source source = sourced.source() == QuoteExplanation.Source.CACHE_HIT && !wasCached
+                ? QuoteExplanation.Source.CACHE_MISS
+                : sourced.source();
+        long fetchMicros = (System.nanoTime() - fetchStart) / 1_000L;
+
+        Double total = null;
+        String error = null;
+        long pricingStart = System.nanoTime();
+        try {
+            total = Money.toMajor(PricingKernel.totalPriceMinor(rates, arrival, departure, bookingDate));
+        } catch (RateNotFoundException | IllegalArgumentException e) {
+            error = e.getMessage();
+        }
+        long pricingMicros = (System.nanoTime() - pricingStart) / 1_000L;
+
+        return new QuoteExplanation(source, fetchMicros, pricingMicros, total, error, rates.size(),
+                PricingKernel.explainRows(rates, arrival, departure, bookingDate),
+                PricingKernel.explainNights(rates, arrival, departure, bookingDate));
+    }
+
+    /**
+     * Validates a price request and fetches the rows needed to price it.
+     */
+    private RateTimeline loadStayTimeline(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        validatePriceRequest(bungalowId, arrival, departure, bookingDate);
+
+        // Fetch rates for the bungalow
+        RateTimeline rates = loadPricingTimeline(bungalowId, arrival, departure, bookingDate);
+        if (rates.isEmpty()) {
+            throw new RateNotFoundException("No rates configured for bungalow ID: " + bungalowId);
+        }
+        return rates;
+    }
+
+    /**
+     * Rejects price requests with missing fields or an empty stay.
+     */
+    private void validatePriceRequest(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
         if (bungalowId == null) {
             throw new IllegalArgumentException("Bungalow ID cannot be null");
         }
@@ -480,54 +1005,76 @@ public class RateService{
         if (!arrival.isBefore(departure)) {
             throw new IllegalArgumentException("Arrival date must be before departure date");
         }
+    }
 
-        // Fetch rates for the bungalow
-        List<Rates> rates = ratesRepository.findRelevantRates(bungalowId, arrival, departure, bookingDate);
-        if (rates == null || rates.isEmpty()) {
-            throw new RateNotFoundException("No rates configured for bungalow ID: " + bungalowId);
-        }
-
-        LocalDate current = arrival;
-        double totalPrice = 0.0;
-
-        try {
-            while (!current.isEqual(departure)) {
-                Rates matchedRate = null;
-
-                for (Rates r : rates) {
-                    boolean stayMatch = !current.isBefore(r.getStayDateFrom()) && !current.isAfter(r.getStayDateTo());
-                    boolean bookMatch = !bookingDate.isBefore(r.getBookDateFrom())
-                            && (r.getBookDateTo() == null || !bookingDate.isAfter(r.getBookDateTo()));
-
-                    if (stayMatch && bookMatch) {
-                        matchedRate = r;
-                        break;
-                    }
-                }
-
-                if (matchedRate == null) {
-                    throw new RateNotFoundException("No applicable rate found for date: " + current);
-                }
+    /**
+     * Rows fetched to price a stay, with the source that answered.
+     */
+    private record SourcedTimeline(QuoteExplanation.Source source, RateTimeline timeline) {
+    }
 
-                // Defensive check for invalid data
-                if (matchedRate.getNights() == 0) {
-                    throw new IllegalArgumentException("Rate nights cannot be zero for date: " + current);
-                }
+    /**
+     * Fetches the rate rows used to price a stay.
+     *
+     * @see #loadPricingSource
+     */
+    private RateTimeline loadPricingTimeline(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        return loadPricingSource(bungalowId, arrival, departure, bookingDate).timeline();
+    }
 
-                double perNight = matchedRate.getValue() / matchedRate.getNights();
-                totalPrice += perNight;
-                current = current.plusDays(1);
+    /**
+     * Fetches the rate rows used to price a stay, from today's effective snapshot, the
+     * off-heap snapshot or the replica-local cache when enabled and able to answer,
+     * otherwise from the database through the JDBC or JPA path. With coalescing on, the
+     * fetch reads every row bookable on the booking date, shared with concurrent quotes
+     * for the same bungalow and date, and the stay is sliced out of it afterwards. Answers
+     * from the cache are reported
+     * as {@link QuoteExplanation.Source#CACHE_HIT}, whether or not the cache had to load.
+     */
+    private SourcedTimeline loadPricingSource(Long bungalowId, LocalDate arrival, LocalDate departure,
+                                              LocalDate bookingDate) {
+        if (effectiveSnapshotsEnabled) {
+            RateTimeline effective = effectiveRateSnapshots.find(bungalowId, bookingDate);
+            if (effective != null) {
+                return new SourcedTimeline(QuoteExplanation.Source.EFFECTIVE_SNAPSHOT, effective);
             }
-        } catch (RateNotFoundException e) {
-            // Re-throw known exception so GlobalExceptionHandler can handle gracefully
-            throw e;
-        } catch (Exception e) {
-            // Catch any unexpected issues, e.g. null fields inside rates
-            throw new RuntimeException("Error calculating price: " + e.getMessage(), e);
         }
-
-        return totalPrice;
+        if (offHeapEnabled) {
+            RateTimeline snapshot = offHeapRateSnapshot.find(bungalowId, bookingDate);
+            if (snapshot != null) {
+                return new SourcedTimeline(QuoteExplanation.Source.OFF_HEAP, snapshot);
+            }
+        }
+        if (timelineCacheEnabled) {
+            return new SourcedTimeline(QuoteExplanation.Source.CACHE_HIT, rateTimelineCache.get(bungalowId));
+        }
+        if (coalesceFetches) {
+            RateTimeline bookable = rateFetchCoalescer.bookableTimeline(bungalowId, bookingDate,
+                    () -> fetchBookableTimeline(bungalowId, bookingDate));
+            return new SourcedTimeline(QuoteExplanation.Source.COALESCED_FETCH,
+                    bookable.slice((int) arrival.toEpochDay(), (int) departure.toEpochDay()));
+        }
+        return new SourcedTimeline(jdbcPricingPath ? QuoteExplanation.Source.JDBC : QuoteExplanation.Source.JPA,
+                fetchPricingTimeline(bungalowId, arrival, departure, bookingDate));
     }
 
+    /**
+     * Reads the rows overlapping a stay from the database, through JDBC or JPA.
+     */
+    private RateTimeline fetchPricingTimeline(Long bungalowId, LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+        if (jdbcPricingPath) {
+            return rateJdbcRepository.findPricingTimeline(bungalowId, arrival, departure, bookingDate);
+        }
+        return RateTimeline.of(ratesRepository.findRelevantRates(bungalowId, arrival, departure, bookingDate));
+    }
 
-}
\ No newline at end of file
+    /**
+     * Reads every row of a bungalow bookable on a date from the database, through JDBC or JPA.
+     */
+    private RateTimeline fetchBookableTimeline(Long bungalowId, LocalDate bookingDate) {
+        if (jdbcPricingPath) {
+            return rateJdbcRepository.findBookableTimeline(bungalowId, bookingDate);
+        }
+        return RateTimeline.of(ratesRepository.findBookableRates(bungalowId, bookingDate));
+    }
+}
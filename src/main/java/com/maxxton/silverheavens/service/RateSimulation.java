@@ -0,0 +1,47 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * Outcome of a dry run of {@link RateService#createRate(Rates)}.
+ *
+ * @param inserted rows that would be inserted (without ids)
+ * @param closed existing rows that would be closed, in their new state
+ * @param deleted existing rows that would be removed
+ * @param priceDeltas price of each requested sample stay before and after the change
+ */
+public record RateSimulation(List<Rates> inserted, List<Rates> closed, List<Rates> deleted,
+                             List<PriceDelta> priceDeltas) {
+
+    /**
+     * A stay to quote before and after the simulated change.
+     *
+     * @param arrival first night (inclusive)
+     * @param departure departure date (exclusive)
+     * @param bookingDate date on which the booking is made
+     */
+    public record SampleStay(LocalDate arrival, LocalDate departure, LocalDate bookingDate) {
+    }
+
+    /**
+     * Prices of one sample stay. A price is {@code null} if the stay cannot be booked.
+     *
+     * @param stay the quoted stay
+     * @param before price with the current timeline
+     * @param after price once the change is applied
+     */
+    public record PriceDelta(SampleStay stay, Double before, Double after) {
+    }
+
+    /**
+     * Request body of the simulation endpoint.
+     *
+     * @param rate pricing rule that would be created
+     * @param sampleStays stays to quote; may be omitted
+     */
+    public record Request(Rates rate, List<SampleStay> sampleStays) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * The reads and writes the split and merge algorithm of {@link RateService} performs
+ * on a bungalow timeline. Implemented against the database for real changes and
+ * against an in-memory copy ({@link InMemoryRateStore}) for dry runs.
+ */
+interface RateStore {
+
+    /**
+     * @return all rates of the bungalow, active and closed, ordered by stay start date
+     */
+    List<Rates> findAll(Long bungalowId);
+
+    /**
+     * @return active rates of the bungalow whose stay range overlaps {@code [from, to]}
+     */
+    List<Rates> findActiveOverlapping(Long bungalowId, LocalDate from, LocalDate to);
+
+    /**
+     * @return active rates of the bungalow ordered by stay start date
+     */
+    List<Rates> findActive(Long bungalowId);
+
+    /**
+     * Inserts a new rate or stores changes to an existing one.
+     *
+     * @return the stored rate
+     */
+    Rates save(Rates rate, RateChangeType type);
+
+    /**
+     * Removes a rate.
+     */
+    void delete(Rates rate);
+}
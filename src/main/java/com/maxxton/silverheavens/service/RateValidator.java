@@ -3,31 +3,14 @@ package com.maxxton.silverheavens.service;
 import com.maxxton.silverheavens.entity.Rates;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 public class RateValidator {
 
     public static void validateNewRate(Rates newRate, List<Rates> existingRates) {
 
         // 1. Basic sanity
-        if (newRate.getStayDateFrom() == null || newRate.getStayDateTo() == null) {
-            throw new IllegalArgumentException("Stay date range cannot be null");
-        }
-
-        if (newRate.getStayDateFrom().isAfter(newRate.getStayDateTo())) {
-            throw new IllegalArgumentException("Stay start date cannot be after end date");
-        }
-
-        if (newRate.getValue() <= 0) {
-            throw new IllegalArgumentException("Rate value must be positive");
-        }
-
-        if (newRate.getNights() <= 0) {
-            throw new IllegalArgumentException("Number of nights must be positive");
-        }
-
-        if (newRate.getBungalowId() == null) {
-            throw new IllegalArgumentException("Bungalow ID is required");
-        }
+        validateRow(newRate);
 
         // 2. Booking date sanity
         LocalDate bookFrom = newRate.getBookDateFrom();
@@ -43,11 +26,47 @@ public class RateValidator {
                     !newRate.getStayDateFrom().isBefore(existing.getStayDateFrom())
                     && !newRate.getStayDateTo().isAfter(existing.getStayDateTo());
 
-            boolean sameValue = Double.compare(newRate.getValue(), existing.getValue()) == 0;
+            boolean samePrice = newRate.getValueMinor() == existing.getValueMinor()
+                    && Objects.equals(newRate.getNights(), existing.getNights());
 
-            if (fullyInside && sameValue && (existing.getBookDateTo() == null || existing.getBookDateTo().isAfter(LocalDate.now()))) {
+            if (fullyInside && samePrice && (existing.getBookDateTo() == null || existing.getBookDateTo().isAfter(LocalDate.now()))) {
                 throw new IllegalArgumentException("Identical rate already exists within this period.");
             }
         }
     }
+
+    /**
+     * Checks a row as stored history, e.g. read back from an export, rather than as a new
+     * rate: its booking window may end before it starts, which closing a rate before its
+     * booking window opened leaves behind.
+     */
+    public static void validateStoredRate(Rates rate) {
+        validateRow(rate);
+
+        if (rate.getBookDateFrom() == null) {
+            throw new IllegalArgumentException("Booking start date is required");
+        }
+    }
+
+    private static void validateRow(Rates rate) {
+        if (rate.getStayDateFrom() == null || rate.getStayDateTo() == null) {
+            throw new IllegalArgumentException("Stay date range cannot be null");
+        }
+
+        if (rate.getStayDateFrom().isAfter(rate.getStayDateTo())) {
+            throw new IllegalArgumentException("Stay start date cannot be after end date");
+        }
+
+        if (rate.getValueMinor() <= 0) {
+            throw new IllegalArgumentException("Rate value must be positive");
+        }
+
+        if (rate.getNights() <= 0) {
+            throw new IllegalArgumentException("Number of nights must be positive");
+        }
+
+        if (rate.getBungalowId() == null) {
+            throw new IllegalArgumentException("Bungalow ID is required");
+        }
+    }
 }
@@ -0,0 +1,18 @@
+-- The rates table as previously created by Hibernate (ddl-auto=update), and nothing else:
+-- existing databases are baselined at this version and skip this script.
+-- Every migration in this directory is written for MySQL (AUTO_INCREMENT, inline
+-- INDEX, ADD COLUMN ... AFTER, MODIFY COLUMN). StartupTimeTest (empty database) and
+-- FlywayBaselineTest (baselined database) run them on H2 in MySQL mode and validate the
+-- entities against the result; keep to syntax both accept.
+
+CREATE TABLE IF NOT EXISTS rates (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    bungalow_id    BIGINT      NOT NULL,
+    stay_date_from DATE        NOT NULL,
+    stay_date_to   DATE        NOT NULL,
+    nights         INT         NOT NULL,
+    `value`        DOUBLE      NOT NULL,
+    book_date_from DATE        NOT NULL,
+    book_date_to   DATE,
+    PRIMARY KEY (id)
+);
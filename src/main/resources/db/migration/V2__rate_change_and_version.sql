@@ -0,0 +1,26 @@
+-- Change feed and per-bungalow version tables. They are not part of the baseline, so
+-- databases baselined at V1 get them here; V3 converts rate_change.value like rates.value.
+
+CREATE TABLE IF NOT EXISTS rate_change (
+    seq            BIGINT      NOT NULL AUTO_INCREMENT,
+    change_type    VARCHAR(16) NOT NULL,
+    changed_at     DATETIME(6) NOT NULL,
+    rate_id        BIGINT      NOT NULL,
+    bungalow_id    BIGINT      NOT NULL,
+    stay_date_from DATE,
+    stay_date_to   DATE,
+    nights         INT,
+    `value`        DOUBLE      NOT NULL,
+    book_date_from DATE,
+    book_date_to   DATE,
+    PRIMARY KEY (seq),
+    INDEX idx_rate_change_bungalow (bungalow_id)
+);
+
+CREATE TABLE IF NOT EXISTS rate_version (
+    bungalow_id BIGINT      NOT NULL,
+    version     BIGINT      NOT NULL,
+    updated_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (bungalow_id),
+    INDEX idx_rate_version_updated_at (updated_at)
+);
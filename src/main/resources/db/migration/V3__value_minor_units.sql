@@ -0,0 +1,27 @@
+-- Store rate values as BIGINT minor units (cents) instead of DOUBLE major units.
+-- Values are rounded half-even, matching Money.toMinor: the double is first fixed to
+-- six decimals, scaled by 100, and exact halves go to the even neighbour.
+
+ALTER TABLE rates ADD COLUMN value_minor BIGINT NULL AFTER nights;
+
+UPDATE rates
+   SET value_minor = CASE
+       WHEN MOD(CAST(`value` AS DECIMAL(30, 6)) * 100, 1) > 0.5 THEN FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100) + 1
+       WHEN MOD(CAST(`value` AS DECIMAL(30, 6)) * 100, 1) < 0.5 THEN FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100)
+       ELSE FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100) + MOD(FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100), 2)
+   END;
+
+ALTER TABLE rates MODIFY COLUMN value_minor BIGINT NOT NULL;
+ALTER TABLE rates DROP COLUMN `value`;
+
+ALTER TABLE rate_change ADD COLUMN value_minor BIGINT NULL AFTER nights;
+
+UPDATE rate_change
+   SET value_minor = CASE
+       WHEN MOD(CAST(`value` AS DECIMAL(30, 6)) * 100, 1) > 0.5 THEN FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100) + 1
+       WHEN MOD(CAST(`value` AS DECIMAL(30, 6)) * 100, 1) < 0.5 THEN FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100)
+       ELSE FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100) + MOD(FLOOR(CAST(`value` AS DECIMAL(30, 6)) * 100), 2)
+   END;
+
+ALTER TABLE rate_change MODIFY COLUMN value_minor BIGINT NOT NULL;
+ALTER TABLE rate_change DROP COLUMN `value`;
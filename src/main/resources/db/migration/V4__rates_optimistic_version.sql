@@ -0,0 +1,3 @@
+-- Optimistic-locking version for Rates (@Version).
+
+ALTER TABLE rates ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER id;
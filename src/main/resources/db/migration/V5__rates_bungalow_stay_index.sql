@@ -0,0 +1,4 @@
+-- Serves per-bungalow lookups ordered by stay start, and lets the integrity scanner
+-- stream the table in (bungalow_id, stay_date_from) order without a filesort.
+
+CREATE INDEX idx_rates_bungalow_stay ON rates (bungalow_id, stay_date_from);
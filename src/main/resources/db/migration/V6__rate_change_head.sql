@@ -0,0 +1,9 @@
+-- Single row that every transaction appending to rate_change locks until it commits, so
+-- change sequences become visible in commit order and consumers can tail by offset.
+
+CREATE TABLE IF NOT EXISTS rate_change_head (
+    id INT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO rate_change_head (id) VALUES (1);
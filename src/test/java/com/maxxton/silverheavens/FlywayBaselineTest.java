@@ -0,0 +1,55 @@
+package com.maxxton.silverheavens;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Upgrades a database as Hibernate created it before Flyway was introduced, holding only
+ * the {@code rates} table: Flyway baselines it at V1, runs the later migrations, and
+ * Hibernate validates the entities against the result.
+ */
+class FlywayBaselineTest {
+
+    private static final String URL = "jdbc:h2:mem:baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void testHibernateCreatedDatabase_IsBaselinedAndMigrated() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rates (id BIGINT NOT NULL AUTO_INCREMENT, bungalow_id BIGINT NOT NULL, "
+                    + "stay_date_from DATE NOT NULL, stay_date_to DATE NOT NULL, nights INT NOT NULL, "
+                    + "`value` DOUBLE NOT NULL, book_date_from DATE NOT NULL, book_date_to DATE, PRIMARY KEY (id))");
+            statement.execute("INSERT INTO rates (bungalow_id, stay_date_from, stay_date_to, nights, `value`, "
+                    + "book_date_from) VALUES (1, DATE '2030-01-01', DATE '2030-01-31', 1, 100.125, DATE '2029-01-01')");
+        }
+
+        SpringApplication application = new SpringApplication(SilverheavensApplication.class);
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=" + URL,
+                "--spring.flyway.enabled=true",
+                "--spring.jpa.hibernate.ddl-auto=validate")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            assertEquals("1", jdbcTemplate.queryForObject(
+                    "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class));
+            // Half-even, as Money.toMinor rounds
+            assertEquals(10_012L, jdbcTemplate.queryForObject(
+                    "SELECT value_minor FROM rates WHERE bungalow_id = 1", Long.class));
+            assertEquals(0L, jdbcTemplate.queryForObject(
+                    "SELECT version FROM rates WHERE bungalow_id = 1", Long.class));
+            assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_change", Long.class));
+            assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_version", Long.class));
+            assertEquals(1L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_change_head", Long.class));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.maxxton.silverheavens;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application with the prod profile and fails when startup takes longer than
+ * {@code startup.max-ms} (system property, passed through by Gradle), naming the slowest
+ * startup steps.
+ *
+ * <p>As in production, the schema is built by the Flyway migrations, here on H2 in MySQL
+ * mode, and Hibernate validates the entities against it.</p>
+ */
+class StartupTimeTest {
+
+    private static final long MAX_STARTUP_MS = Long.getLong("startup.max-ms", 20_000);
+
+    private static final int REPORTED_STEPS = 10;
+
+    @Test
+    void testProdProfile_StartsWithinBudget() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(SilverheavensApplication.STARTUP_STEPS);
+        SpringApplication application = new SpringApplication(SilverheavensApplication.class);
+        application.setApplicationStartup(startup);
+        application.setAdditionalProfiles("prod");
+
+        long start = System.nanoTime();
+        // A database of its own, so the migrations start from an empty schema
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.flyway.enabled=true",
+                "--spring.jpa.hibernate.ddl-auto=validate")) {
+            long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertTrue(elapsedMs <= MAX_STARTUP_MS, () -> "Startup took " + elapsedMs + " ms, budget is "
+                    + MAX_STARTUP_MS + " ms. Slowest steps:\n" + slowestSteps(startup));
+            assertSpringdocLazy(context.getBeanFactory());
+        }
+    }
+
+    private static void assertSpringdocLazy(ConfigurableListableBeanFactory beanFactory) {
+        List<String> springdoc = List.of(beanFactory.getBeanDefinitionNames()).stream()
+                .filter(name -> declaringClass(beanFactory.getBeanDefinition(name)).startsWith("org.springdoc."))
+                .toList();
+
+        assertFalse(springdoc.isEmpty());
+        for (String name : springdoc) {
+            assertTrue(beanFactory.getBeanDefinition(name).isLazyInit(), name + " is created at startup");
+        }
+    }
+
+    private static String declaringClass(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition instanceof AnnotatedBeanDefinition annotated
+                && annotated.getFactoryMethodMetadata() != null) {
+            className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return className == null ? "" : className;
+    }
+
+    private static String slowestSteps(BufferingApplicationStartup startup) {
+        return startup.getBufferedTimeline().getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(REPORTED_STEPS)
+                .map(event -> event.getDuration().toMillis() + " ms " + event.getStartupStep().getName()
+                        + " " + tags(event))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String tags(StartupTimeline.TimelineEvent event) {
+        StringBuilder tags = new StringBuilder();
+        event.getStartupStep().getTags().forEach(tag -> tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' '));
+        return tags.toString().trim();
+    }
+}
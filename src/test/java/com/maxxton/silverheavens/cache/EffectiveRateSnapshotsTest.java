@@ -0,0 +1,129 @@
+package com.maxxton.silverheavens.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+class EffectiveRateSnapshotsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 6, 14);
+
+    private static final LocalDate TOMORROW = TODAY.plusDays(1);
+
+    private RateJdbcRepository repository;
+
+    private EffectiveRateSnapshots snapshots;
+
+    private static RateTimeline timeline(long rateId) {
+        RateTimeline.Builder builder = new RateTimeline.Builder(1);
+        builder.add(rateId, 20_000, 20_100, 19_000, RateTimeline.OPEN_END, 1, 10_000);
+        return builder.build();
+    }
+
+    private void setToday(LocalDate day) {
+        ReflectionTestUtils.setField(snapshots, "clock",
+                Clock.fixed(day.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RateJdbcRepository.class);
+        when(repository.findBookableTimeline(anyLong(), any())).thenAnswer(call -> timeline(call.getArgument(0)));
+
+        snapshots = new EffectiveRateSnapshots();
+        ReflectionTestUtils.setField(snapshots, "rateJdbcRepository", repository);
+        ReflectionTestUtils.setField(snapshots, "invalidationBus", RateInvalidationBus.NONE);
+        ReflectionTestUtils.setField(snapshots, "enabled", true);
+        ReflectionTestUtils.setField(snapshots, "maxBungalows", 100);
+        setToday(TODAY);
+        snapshots.init();
+    }
+
+    @Test
+    void testFind_ReadsOncePerDay() {
+        RateTimeline first = snapshots.find(1L, TODAY);
+        RateTimeline again = snapshots.find(1L, TODAY);
+
+        assertSame(first, again);
+        verify(repository, times(1)).findBookableTimeline(1L, TODAY);
+        // Other booking dates are left to the other sources
+        assertNull(snapshots.find(1L, TOMORROW));
+        assertNull(snapshots.find(1L, TODAY.minusDays(1)));
+    }
+
+    @Test
+    void testPrepare_RereadsOnlyBungalowsWithBookingBoundary() {
+        RateTimeline unaffected = snapshots.find(1L, TODAY);
+        RateTimeline affected = snapshots.find(2L, TODAY);
+        when(repository.findBookingBoundaryBungalows(TOMORROW)).thenReturn(List.of(2L, 3L));
+
+        assertEquals(1, snapshots.prepare(TOMORROW));
+
+        setToday(TOMORROW);
+        assertSame(unaffected, snapshots.find(1L, TOMORROW));
+        assertNotSame(affected, snapshots.find(2L, TOMORROW));
+        assertEquals(TOMORROW, snapshots.getCurrentDay());
+        // Both were prepared ahead, so the first quotes of the day hit no database
+        verify(repository, times(1)).findBookableTimeline(2L, TOMORROW);
+        verify(repository, never()).findBookableTimeline(1L, TOMORROW);
+    }
+
+    @Test
+    void testSwap_WithoutPreparationStartsEmpty() {
+        snapshots.find(1L, TODAY);
+
+        setToday(TOMORROW);
+        snapshots.swapToday();
+
+        assertEquals(TOMORROW, snapshots.getCurrentDay());
+        assertEquals(0, snapshots.size());
+        snapshots.find(1L, TOMORROW);
+        verify(repository, times(1)).findBookableTimeline(1L, TOMORROW);
+    }
+
+    @Test
+    void testFind_RowsChangedWhileReadingAreNotServed() {
+        when(repository.findBookableTimeline(1L, TODAY)).thenAnswer(call -> {
+            snapshots.onVersion(1L, 1L);
+            return timeline(1L);
+        });
+
+        assertNull(snapshots.find(1L, TODAY));
+        assertEquals(0, snapshots.size());
+    }
+
+    @Test
+    void testOnVersion_DropsOlderSnapshots() {
+        RateTimeline first = snapshots.find(1L, TODAY);
+        when(repository.findBookingBoundaryBungalows(TOMORROW)).thenReturn(List.of());
+        snapshots.prepare(TOMORROW);
+
+        when(repository.findRateVersion(1L)).thenReturn(1L);
+        snapshots.onVersion(1L, 1L);
+
+        assertNotSame(first, snapshots.find(1L, TODAY));
+        setToday(TOMORROW);
+        snapshots.find(1L, TOMORROW);
+        verify(repository, times(1)).findBookableTimeline(1L, TOMORROW);
+    }
+}
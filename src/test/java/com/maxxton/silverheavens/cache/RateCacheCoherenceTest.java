@@ -0,0 +1,116 @@
+package com.maxxton.silverheavens.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.maxxton.silverheavens.SilverheavensApplication;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Runs two replicas as separate application contexts sharing one H2 database and
+ * checks that a write on one replica becomes visible in the other's cached quotes.
+ */
+class RateCacheCoherenceTest {
+
+    private static final LocalDate ARRIVAL = LocalDate.of(2025, 3, 1);
+    private static final LocalDate DEPARTURE = LocalDate.of(2025, 3, 3);
+    private static final LocalDate BOOKING = LocalDate.of(2025, 2, 1);
+
+    private ConfigurableApplicationContext startReplica(String database, String bus, boolean createSchema) {
+        return new SpringApplicationBuilder(SilverheavensApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=" + (createSchema ? "create-drop" : "none"),
+                        "spring.jpa.show-sql=false",
+                        "rates.cache.enabled=true",
+                        "rates.cache.bus=" + bus,
+                        "rates.cache.bus-channel=" + database,
+                        "rates.cache.poll-interval-ms=100")
+                .run();
+    }
+
+    private Rates rate(LocalDate from, LocalDate to, LocalDate bookFrom, double value) {
+        Rates rate = new Rates();
+        rate.setBungalowId(1L);
+        rate.setStayDateFrom(from);
+        rate.setStayDateTo(to);
+        rate.setBookDateFrom(bookFrom);
+        rate.setNights(1);
+        rate.setValue(value);
+        return rate;
+    }
+
+    private double quote(ConfigurableApplicationContext replica) {
+        return replica.getBean(RateService.class).calculatePrice(1L, ARRIVAL, DEPARTURE, BOOKING);
+    }
+
+    @Test
+    void testBusInvalidatesOtherReplicaImmediately() {
+        try (ConfigurableApplicationContext writer = startReplica("coherence_bus", "jvm", true);
+             ConfigurableApplicationContext reader = startReplica("coherence_bus", "jvm", false)) {
+
+            writer.getBean(RateService.class).createRate(
+                    rate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), LocalDate.of(2025, 1, 1), 100));
+            assertEquals(200.0, quote(reader), 0.001);
+
+            writer.getBean(RateService.class).createRate(
+                    rate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 1, 15), 150));
+
+            assertEquals(300.0, quote(reader), 0.001);
+        }
+    }
+
+    @Test
+    void testPollingFallbackConvergesWithoutBus() throws InterruptedException {
+        try (ConfigurableApplicationContext writer = startReplica("coherence_poll", "polling", true);
+             ConfigurableApplicationContext reader = startReplica("coherence_poll", "polling", false)) {
+
+            writer.getBean(RateService.class).createRate(
+                    rate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), LocalDate.of(2025, 1, 1), 100));
+            assertEquals(200.0, quote(reader), 0.001);
+
+            writer.getBean(RateService.class).createRate(
+                    rate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 1, 15), 150));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            double price = quote(reader);
+            while (price != 300.0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                price = quote(reader);
+            }
+            assertEquals(300.0, price, 0.001);
+        }
+    }
+
+    @Test
+    void testEffectiveSnapshotFollowsCommittedWriteWithPollingBus() {
+        LocalDate today = LocalDate.now();
+        LocalDate arrival = today.plusDays(30);
+        try (ConfigurableApplicationContext replica = new SpringApplicationBuilder(SilverheavensApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:coherence_effective;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "rates.effective.enabled=true",
+                        "rates.cache.bus=polling")
+                .run()) {
+            RateService rateService = replica.getBean(RateService.class);
+
+            rateService.createRate(rate(arrival, arrival.plusDays(30), today.minusDays(10), 100));
+            assertEquals(200.0, rateService.calculatePrice(1L, arrival, arrival.plusDays(2), today), 0.001);
+
+            rateService.createRate(rate(arrival, arrival.plusDays(9), today.minusDays(5), 150));
+
+            // Today's snapshot of the bungalow is dropped at commit, not at the next poll
+            assertEquals(300.0, rateService.calculatePrice(1L, arrival, arrival.plusDays(2), today), 0.001);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.maxxton.silverheavens.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.maxxton.silverheavens.concurrency.RateFetchCoalescer;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateTimelineCacheTest {
+
+    private static final int ROWS_PER_BUNGALOW = 100;
+
+    private RateJdbcRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RateTimelineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RateTimeline.Builder builder = new RateTimeline.Builder(ROWS_PER_BUNGALOW);
+        for (int i = 0; i < ROWS_PER_BUNGALOW; i++) {
+            builder.add(i + 1, 20_000 + i, 20_000 + i, 19_000, RateTimeline.OPEN_END, 1, 10_000);
+        }
+        RateTimeline timeline = builder.build();
+
+        repository = mock(RateJdbcRepository.class);
+        when(repository.findBungalowTimeline(anyLong())).thenReturn(timeline);
+        meterRegistry = new SimpleMeterRegistry();
+
+        cache = new RateTimelineCache();
+        ReflectionTestUtils.setField(cache, "rateJdbcRepository", repository);
+        ReflectionTestUtils.setField(cache, "invalidationBus", RateInvalidationBus.NONE);
+        ReflectionTestUtils.setField(cache, "fetchCoalescer", new RateFetchCoalescer());
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxStalenessMs", 60_000L);
+        // Room for roughly ten timelines
+        ReflectionTestUtils.setField(cache, "maxWeightBytes", 10 * (timeline.heapBytes() + 200));
+        cache.init();
+    }
+
+    private void settle() {
+        ((Cache<?, ?>) ReflectionTestUtils.getField(cache, "entries")).cleanUp();
+    }
+
+    @Test
+    void testStaysWithinByteBudget() {
+        for (long bungalowId = 1; bungalowId <= 100; bungalowId++) {
+            cache.get(bungalowId);
+        }
+        settle();
+
+        long budget = (long) ReflectionTestUtils.getField(cache, "maxWeightBytes");
+        assertTrue(cache.getWeightBytes() <= budget);
+        assertTrue(cache.size() > 0 && cache.size() <= 10);
+        assertEquals(cache.getWeightBytes(), meterRegistry.get("rates.cache.weight").gauge().value(), 0.5);
+    }
+
+    @Test
+    void testHotBungalowSurvivesOneOffLookups() {
+        for (int i = 0; i < 20; i++) {
+            cache.get(1L);
+        }
+        for (long bungalowId = 1_000; bungalowId < 3_000; bungalowId++) {
+            cache.get(bungalowId);
+            settle();
+        }
+
+        cache.get(1L);
+
+        verify(repository, times(1)).findBungalowTimeline(1L);
+    }
+
+    @Test
+    void testScanModeDoesNotAdmitLoadedTimelines() {
+        cache.scan(() -> {
+            cache.get(1L);
+            return cache.get(1L);
+        });
+        settle();
+
+        assertEquals(0, cache.size());
+        verify(repository, times(2)).findBungalowTimeline(1L);
+    }
+
+    @Test
+    void testScanModeStillServesCachedTimelines() {
+        cache.get(1L);
+
+        cache.scan(() -> cache.get(1L));
+
+        verify(repository, times(1)).findBungalowTimeline(1L);
+        // The scanning lookup was served quietly and is not counted as a hit
+        assertEquals(0.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count(), 0.001);
+    }
+
+    @Test
+    void testNewerVersionDropsEntry() {
+        cache.get(1L);
+
+        cache.onVersion(1L, 1L);
+        cache.get(1L);
+
+        verify(repository, times(2)).findBungalowTimeline(1L);
+    }
+}
@@ -0,0 +1,83 @@
+package com.maxxton.silverheavens.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateChangedEvent;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateVersionRepository;
+
+class RateVersionRecorderTest {
+
+    private static final long BUNGALOW_ID = 7L;
+
+    private RateVersionRepository versionRepository;
+
+    private RateJdbcRepository rateJdbcRepository;
+
+    private RateTimelineCache timelineCache;
+
+    private EffectiveRateSnapshots effectiveRateSnapshots;
+
+    private RateVersionRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        versionRepository = mock(RateVersionRepository.class);
+        rateJdbcRepository = mock(RateJdbcRepository.class);
+        timelineCache = mock(RateTimelineCache.class);
+        effectiveRateSnapshots = mock(EffectiveRateSnapshots.class);
+
+        recorder = new RateVersionRecorder();
+        ReflectionTestUtils.setField(recorder, "versionRepository", versionRepository);
+        ReflectionTestUtils.setField(recorder, "rateJdbcRepository", rateJdbcRepository);
+        ReflectionTestUtils.setField(recorder, "invalidationBus", RateInvalidationBus.NONE);
+        ReflectionTestUtils.setField(recorder, "timelineCache", timelineCache);
+        ReflectionTestUtils.setField(recorder, "offHeapSnapshot", mock(OffHeapRateSnapshot.class));
+        ReflectionTestUtils.setField(recorder, "effectiveRateSnapshots", effectiveRateSnapshots);
+    }
+
+    private void change() {
+        Rates rate = new Rates();
+        rate.setBungalowId(BUNGALOW_ID);
+        recorder.onRateChanged(new RateChangedEvent(RateChangeType.CREATED, rate));
+    }
+
+    @Test
+    void testFirstChange_CreatesVersionRow() {
+        when(versionRepository.increment(eq(BUNGALOW_ID), any())).thenReturn(0);
+
+        change();
+
+        verify(rateJdbcRepository).insertRateVersion(eq(BUNGALOW_ID), any());
+        verify(timelineCache).onVersion(BUNGALOW_ID, 1L);
+        verify(effectiveRateSnapshots).onVersion(BUNGALOW_ID, 1L);
+    }
+
+    @Test
+    void testFirstChange_LosingTheInsertRaceIncrementsInstead() {
+        when(versionRepository.increment(eq(BUNGALOW_ID), any())).thenReturn(0, 1);
+        doThrow(new DuplicateKeyException("rate_version")).when(rateJdbcRepository)
+                .insertRateVersion(eq(BUNGALOW_ID), any());
+        when(versionRepository.findVersion(BUNGALOW_ID)).thenReturn(Optional.of(2L));
+
+        change();
+
+        verify(versionRepository, times(2)).increment(eq(BUNGALOW_ID), any());
+        verify(timelineCache).onVersion(BUNGALOW_ID, 2L);
+    }
+}
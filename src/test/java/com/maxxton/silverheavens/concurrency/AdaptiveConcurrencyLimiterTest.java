@@ -0,0 +1,131 @@
+package com.maxxton.silverheavens.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maxxton.silverheavens.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 20);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 100);
+        ReflectionTestUtils.setField(limiter, "latencyTolerance", 1.5);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.9);
+        ReflectionTestUtils.setField(limiter, "retryAfterSeconds", 3L);
+        ReflectionTestUtils.setField(limiter, "deadlineMs", 1_500L);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        limiter.init();
+    }
+
+    @Test
+    void testRejectsBeyondLimitWithoutQueueing() throws Exception {
+        ReflectionTestUtils.setField(limiter, "currentLimit", 2);
+        CountDownLatch admitted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> first = executor.submit(() -> limiter.call(() -> hold(admitted, release)));
+            Future<?> second = executor.submit(() -> limiter.call(() -> hold(admitted, release)));
+            admitted.await();
+
+            ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                    () -> limiter.call(() -> "never runs"));
+            assertEquals(3L, e.getRetryAfterSeconds());
+            assertEquals(1L, limiter.getRejectedCount());
+
+            release.countDown();
+            first.get();
+            second.get();
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private Object hold(CountDownLatch admitted, CountDownLatch release) {
+        admitted.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return null;
+    }
+
+    @Test
+    void testShrinksWhenLatencyRisesAndRecoversAfterwards() {
+        for (int i = 0; i < 1_000; i++) {
+            limiter.onSample(5 * MS, limiter.getLimit(), false);
+        }
+        int healthy = limiter.getLimit();
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(100 * MS, limiter.getLimit(), false);
+        }
+        int degraded = limiter.getLimit();
+        assertTrue(degraded < healthy / 4, "limit " + degraded + " should shrink well below " + healthy);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(5 * MS, limiter.getLimit(), false);
+        }
+        assertTrue(limiter.getLimit() > degraded, "limit should grow once latency recovers");
+    }
+
+    @Test
+    void testIdleTrafficDoesNotInflateLimit() {
+        for (int i = 0; i < 1_000; i++) {
+            limiter.onSample(5 * MS, 1, false);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void testTimeoutBacksOff() {
+        assertThrows(QueryTimeoutException.class, () -> limiter.call(() -> {
+            throw new QueryTimeoutException("slow");
+        }));
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void testDeadlineBecomesQueryTimeout() throws Exception {
+        Statement statement = mock(Statement.class);
+
+        limiter.call(() -> {
+            try {
+                RequestDeadline.applyTo(statement);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+
+        // 1.5 s left, rounded up to whole seconds
+        verify(statement).setQueryTimeout(2);
+    }
+}
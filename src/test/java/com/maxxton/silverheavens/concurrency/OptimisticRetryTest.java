@@ -0,0 +1,65 @@
+package com.maxxton.silverheavens.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maxxton.silverheavens.entity.Rates;
+
+class OptimisticRetryTest {
+
+    private OptimisticRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        retry = new OptimisticRetry();
+        ReflectionTestUtils.setField(retry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retry, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMs", 2L);
+    }
+
+    @Test
+    void testRetriesConflictsUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Rates.class, 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, retry.getRetryCount());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Rates.class, 1L);
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testDoesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,89 @@
+package com.maxxton.silverheavens.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.maxxton.silverheavens.config.ReadAfterWritePinning;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+
+class RateFetchCoalescerTest {
+
+    private static final LocalDate BOOKED = LocalDate.of(2030, 1, 15);
+
+    private ReadAfterWritePinning pinning;
+
+    private RateFetchCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        pinning = mock(ReadAfterWritePinning.class);
+        coalescer = new RateFetchCoalescer();
+        ReflectionTestUtils.setField(coalescer, "pinning", pinning);
+    }
+
+    /**
+     * Blocks the leader until the other caller has joined its load.
+     */
+    private void awaitJoined() {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (coalescer.getBookableLoads().getCoalescedCount() < 1) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Caller did not join in time");
+            }
+            Thread.yield();
+        }
+    }
+
+    @Test
+    void testQuotesForDifferentStaysOfOneBookingDateShareTheLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        RateTimeline bookable = RateTimeline.empty();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<RateTimeline> leader = executor.submit(() -> coalescer.bookableTimeline(1L, BOOKED, () -> {
+                loads.incrementAndGet();
+                awaitJoined();
+                return bookable;
+            }));
+            Future<RateTimeline> joiner = executor.submit(() -> {
+                while (coalescer.getBookableLoads().getInFlight() == 0) {
+                    Thread.yield();
+                }
+                return coalescer.bookableTimeline(1L, BOOKED, () -> {
+                    loads.incrementAndGet();
+                    return bookable;
+                });
+            });
+
+            assertSame(bookable, leader.get());
+            assertSame(bookable, joiner.get());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testPinnedCallerFetchesOnItsOwn() {
+        when(pinning.isPinned()).thenReturn(true);
+        AtomicInteger loads = new AtomicInteger();
+
+        coalescer.bookableTimeline(1L, BOOKED, () -> {
+            loads.incrementAndGet();
+            return RateTimeline.empty();
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(0, coalescer.getBookableLoads().getLeaderCount());
+    }
+}
@@ -0,0 +1,99 @@
+package com.maxxton.silverheavens.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateRepository;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Lets several threads carve single-night rates out of the same active rate at once.
+ * Every one of them has to close that shared row, so without version checks the later
+ * commits would resurrect nights an earlier writer already replaced.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:optimistic;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "rates.write.retry.max-attempts=50",
+        "rates.write.retry.initial-backoff-ms=5",
+        "rates.write.retry.max-backoff-ms=50"
+})
+class RateWriteConcurrencyTest {
+
+    private static final long BUNGALOW = 4242L;
+    private static final LocalDate MARCH_1 = LocalDate.of(2030, 3, 1);
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    private Rates rate(LocalDate from, LocalDate to, double value) {
+        Rates rate = new Rates();
+        rate.setBungalowId(BUNGALOW);
+        rate.setStayDateFrom(from);
+        rate.setStayDateTo(to);
+        rate.setNights(1);
+        rate.setValue(value);
+        rate.setBookDateFrom(LocalDate.now());
+        return rate;
+    }
+
+    @Test
+    void testConcurrentSplitsLoseNoUpdates() throws Exception {
+        rateService.createRate(rate(MARCH_1, MARCH_1.plusDays(30), 100));
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            LocalDate night = MARCH_1.plusDays(2 + 3L * i);
+            double value = 200 + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                return optimisticRetry.call(() -> rateService.createRate(rate(night, night, value)));
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        List<Rates> active = rateRepository.findByBungalowIdAndBookDateToIsNullOrderByStayDateFrom(BUNGALOW);
+        for (int i = 1; i < active.size(); i++) {
+            assertTrue(active.get(i - 1).getStayDateTo().isBefore(active.get(i).getStayDateFrom()),
+                    "active rates overlap: " + active.get(i - 1) + " and " + active.get(i));
+        }
+
+        for (int i = 0; i < WRITERS; i++) {
+            LocalDate night = MARCH_1.plusDays(2 + 3L * i);
+            Rates covering = active.stream()
+                    .filter(r -> !r.getStayDateFrom().isAfter(night) && !r.getStayDateTo().isBefore(night))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("night " + night + " lost its rate"));
+            assertEquals(200.0 + i, covering.getValue(), 0.001, "update for " + night + " was lost");
+        }
+
+        long covered = active.stream().mapToLong(r -> r.getStayDateTo().toEpochDay() - r.getStayDateFrom().toEpochDay() + 1).sum();
+        assertEquals(31, covered);
+    }
+}
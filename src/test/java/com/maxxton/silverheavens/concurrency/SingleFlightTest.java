@@ -0,0 +1,128 @@
+package com.maxxton.silverheavens.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 50;
+
+    /**
+     * Blocks the leader until every other caller has joined its load.
+     */
+    private void awaitJoined(SingleFlight<?, ?> flight, int expected) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (flight.getCoalescedCount() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Callers did not join in time");
+            }
+            Thread.yield();
+        }
+    }
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        Object result = new Object();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Object>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return flight.load("hot", () -> {
+                        loads.incrementAndGet();
+                        awaitJoined(flight, CALLERS - 1);
+                        return result;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                assertSame(result, future.get());
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getLeaderCount());
+        assertEquals(CALLERS - 1, flight.getCoalescedCount());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void testFailureReachesEveryWaiter() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        List<Future<Object>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.submit(() -> flight.load("hot", () -> {
+                    awaitJoined(flight, 9);
+                    throw new IllegalStateException("database down");
+                })));
+            }
+            for (Future<Object> future : futures) {
+                ExecutionException e = assertThrows(ExecutionException.class, future::get);
+                assertEquals("database down", e.getCause().getMessage());
+            }
+        }
+
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void testCompletedLoadIsNotReused() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.load("key", loads::incrementAndGet);
+        flight.load("key", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, flight.getLeaderCount());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    void testForgottenLoadIsNotJoined() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> stale = executor.submit(() -> flight.load("key", () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "before write";
+            }));
+            started.await();
+
+            flight.forget("key"::equals);
+
+            assertEquals("after write", flight.load("key", () -> "after write"));
+            release.countDown();
+            assertEquals("before write", stale.get());
+        }
+
+        assertEquals(2, flight.getLeaderCount());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+}
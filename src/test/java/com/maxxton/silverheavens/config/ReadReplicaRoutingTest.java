@@ -0,0 +1,102 @@
+package com.maxxton.silverheavens.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.maxxton.silverheavens.SilverheavensApplication;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Uses two separate H2 databases as primary and replica. Nothing replicates between
+ * them, so every row tells which side a query was served from.
+ */
+class ReadReplicaRoutingTest {
+
+    private ConfigurableApplicationContext start(String name, long pinAfterWriteMs) {
+        JdbcTemplate replica = new JdbcTemplate(
+                new DriverManagerDataSource(replicaUrl(name), "sa", ""));
+        replica.execute("CREATE TABLE IF NOT EXISTS rates ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, version BIGINT DEFAULT 0 NOT NULL, bungalow_id BIGINT NOT NULL, "
+                + "stay_date_from DATE NOT NULL, stay_date_to DATE NOT NULL, nights INT NOT NULL, "
+                + "value_minor BIGINT NOT NULL, book_date_from DATE NOT NULL, book_date_to DATE)");
+        replica.update("INSERT INTO rates (bungalow_id, stay_date_from, stay_date_to, nights, value_minor, book_date_from) "
+                + "VALUES (77, DATE '2025-03-01', DATE '2025-03-31', 1, 99900, DATE '2025-01-01')");
+
+        return new SpringApplicationBuilder(SilverheavensApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + name + "_primary;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.show-sql=false",
+                        "rates.pricing.jdbc-path=false",
+                        "rates.datasource.replica.url=" + replicaUrl(name),
+                        "rates.datasource.replica.pin-after-write-ms=" + pinAfterWriteMs)
+                .run();
+    }
+
+    private String replicaUrl(String name) {
+        return "jdbc:h2:mem:" + name + "_replica;DB_CLOSE_DELAY=-1";
+    }
+
+    private Rates rate(long bungalowId) {
+        Rates rate = new Rates();
+        rate.setBungalowId(bungalowId);
+        rate.setStayDateFrom(LocalDate.of(2025, 3, 1));
+        rate.setStayDateTo(LocalDate.of(2025, 3, 31));
+        rate.setBookDateFrom(LocalDate.of(2025, 1, 1));
+        rate.setNights(1);
+        rate.setValue(100);
+        return rate;
+    }
+
+    @Test
+    void testReadOnlyQueriesGoToReplicaAndWritesToPrimary() {
+        try (ConfigurableApplicationContext context = start("routing", 0)) {
+            RateService service = context.getBean(RateService.class);
+
+            List<Rates> fromReplica = service.getRatesByBungalowId(77L);
+            assertEquals(1, fromReplica.size());
+            assertEquals(999.0, fromReplica.get(0).getValue(), 0.001);
+            assertEquals(999.0 * 2, service.calculatePrice(77L,
+                    LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), LocalDate.of(2025, 2, 1)), 0.001);
+
+            service.createRate(rate(78L));
+
+            assertTrue(service.getRatesByBungalowId(78L).isEmpty(), "write must not land on the replica");
+        }
+    }
+
+    @Test
+    void testReadsArePinnedToPrimaryRightAfterOwnWrite() {
+        try (ConfigurableApplicationContext context = start("pinning", 60_000)) {
+            RateService service = context.getBean(RateService.class);
+            ReadAfterWritePinning pinning = context.getBean(ReadAfterWritePinning.class);
+
+            try (ReadAfterWritePinning.Scope writer = pinning.bindCaller("writer")) {
+                assertEquals(1, service.getRatesByBungalowId(77L).size());
+
+                service.createRate(rate(78L));
+
+                assertEquals(1, service.getRatesByBungalowId(78L).size());
+                assertTrue(service.getRatesByBungalowId(77L).isEmpty(), "pinned reads must come from the primary");
+            }
+
+            // Other callers, and work without a caller, keep reading from the replica
+            try (ReadAfterWritePinning.Scope reader = pinning.bindCaller("reader")) {
+                assertEquals(1, service.getRatesByBungalowId(77L).size());
+            }
+            assertEquals(1, service.getRatesByBungalowId(77L).size());
+        }
+    }
+}
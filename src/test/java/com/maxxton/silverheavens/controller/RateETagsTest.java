@@ -0,0 +1,114 @@
+package com.maxxton.silverheavens.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.service.RateService;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:etags;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class RateETagsTest {
+
+    private static final long BUNGALOW = 515L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateETags rateETags;
+
+    private Rates createRate(LocalDate from, LocalDate to, double value) {
+        Rates rate = new Rates();
+        rate.setBungalowId(BUNGALOW);
+        rate.setStayDateFrom(from);
+        rate.setStayDateTo(to);
+        rate.setNights(1);
+        rate.setValue(value);
+        rate.setBookDateFrom(LocalDate.now());
+        return rateService.createRate(rate);
+    }
+
+    @Test
+    void testBungalowListing_NotModifiedUntilRatesChange() throws Exception {
+        createRate(LocalDate.of(2031, 3, 1), LocalDate.of(2031, 3, 31), 100);
+
+        String etag = mockMvc.perform(get("/rates/get-bungalow-rates").param("bungalowId", String.valueOf(BUNGALOW)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/rates/get-bungalow-rates").param("bungalowId", String.valueOf(BUNGALOW))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        createRate(LocalDate.of(2031, 4, 1), LocalDate.of(2031, 4, 30), 120);
+
+        String changed = mockMvc.perform(get("/rates/get-bungalow-rates").param("bungalowId", String.valueOf(BUNGALOW))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void testSingleRate_TaggedByRowVersionAndEncoding() throws Exception {
+        Rates rate = createRate(LocalDate.of(2032, 3, 1), LocalDate.of(2032, 3, 31), 100);
+        String id = String.valueOf(rate.getId());
+
+        String plain = mockMvc.perform(get("/rates/get-rate").param("rateId", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzip = mockMvc.perform(get("/rates/get-rate").param("rateId", id)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(plain, gzip);
+
+        mockMvc.perform(get("/rates/get-rate").param("rateId", id).header(HttpHeaders.IF_NONE_MATCH, plain))
+                .andExpect(status().isNotModified());
+
+        rateService.closeRate(rate.getId(), LocalDate.now().plusDays(1));
+
+        mockMvc.perform(get("/rates/get-rate").param("rateId", id).header(HttpHeaders.IF_NONE_MATCH, plain))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testBody_ReadInTheTransactionThatReadTheTag() {
+        ServletWebRequest request = new ServletWebRequest(
+                new MockHttpServletRequest("GET", "/rates/get-bungalow-rates"), new MockHttpServletResponse());
+
+        String tagRead = rateETags.ifBungalowModified(BUNGALOW, request, () -> {
+            assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+            assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return request.getResponse().getHeader(HttpHeaders.ETAG);
+        });
+
+        assertNotNull(tagRead);
+    }
+}
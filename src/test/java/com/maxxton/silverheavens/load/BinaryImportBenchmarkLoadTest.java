@@ -0,0 +1,130 @@
+package com.maxxton.silverheavens.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.maxxton.silverheavens.service.RateBinaryCodec;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Compares {@link RateService#importRatesFromExcel} with
+ * {@link RateService#importRatesFromBinary} on the same rows, each loaded into bungalows
+ * that have no rates yet, and prints rows per second and payload size of both.
+ *
+ * <p>Run with {@code ./gradlew loadTest --tests '*BinaryImportBenchmarkLoadTest'};
+ * {@code load.bungalows} (200) and {@code load.seasons} (10) size the import.</p>
+ */
+@Tag("load")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BinaryImportBenchmarkLoadTest {
+
+    /** Keeps imported bungalows clear of the ids used by the other load tests. */
+    private static final long EXCEL_BUNGALOWS = 30_000L;
+
+    private static final long BINARY_BUNGALOWS = 40_000L;
+
+    private static final LocalDate STAY_FROM = LocalDate.of(2025, 1, 1);
+
+    private static final LocalDate BOOK_FROM = LocalDate.of(2024, 1, 1);
+
+    private static final int SEASON_DAYS = 14;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareExcelAndBinaryImport() throws IOException {
+        int bungalows = Integer.getInteger("load.bungalows", 200);
+        int seasons = Integer.getInteger("load.seasons", 10);
+        long rows = (long) bungalows * seasons;
+
+        byte[] excel = excel(EXCEL_BUNGALOWS, bungalows, seasons);
+        byte[] binary = binary(BINARY_BUNGALOWS, bungalows, seasons);
+
+        long start = System.nanoTime();
+        rateService.importRatesFromExcel(new MockMultipartFile("file", "rates.xlsx", null, excel));
+        double excelSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        start = System.nanoTime();
+        rateService.importRatesFromBinary(Channels.newChannel(new ByteArrayInputStream(binary)));
+        double binarySeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertEquals(rows, count(EXCEL_BUNGALOWS, bungalows));
+        assertEquals(rows, count(BINARY_BUNGALOWS, bungalows));
+
+        System.out.printf("%d rows: Excel %d bytes, %.0f rows/s; binary %d bytes, %.0f rows/s (%.1fx)%n",
+                rows, excel.length, rows / excelSeconds, binary.length, rows / binarySeconds,
+                excelSeconds / binarySeconds);
+    }
+
+    /**
+     * Seasons of the same value would merge on the Excel path, so every season of a
+     * bungalow gets its own value.
+     */
+    private static long valueMinor(int season) {
+        return 10_000L + season * 100L;
+    }
+
+    private static byte[] excel(long firstBungalow, int bungalows, int seasons) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Rates");
+            sheet.createRow(0).createCell(0).setCellValue("ID");
+            int rowIdx = 1;
+            for (int b = 0; b < bungalows; b++) {
+                for (int season = 0; season < seasons; season++) {
+                    LocalDate from = STAY_FROM.plusDays((long) season * SEASON_DAYS);
+                    Row row = sheet.createRow(rowIdx++);
+                    row.createCell(0).setCellValue(0);
+                    row.createCell(1).setCellValue(firstBungalow + b);
+                    row.createCell(2).setCellValue(from.toString());
+                    row.createCell(3).setCellValue(from.plusDays(SEASON_DAYS - 1).toString());
+                    row.createCell(4).setCellValue(1);
+                    row.createCell(5).setCellValue(valueMinor(season) / 100.0);
+                    row.createCell(6).setCellValue(BOOK_FROM.toString());
+                    row.createCell(7).setCellValue("");
+                }
+            }
+            workbook.write(bos);
+            return bos.toByteArray();
+        }
+    }
+
+    private static byte[] binary(long firstBungalow, int bungalows, int seasons) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (RateBinaryCodec.Writer writer = new RateBinaryCodec.Writer(Channels.newChannel(bos))) {
+            long id = 0;
+            for (int b = 0; b < bungalows; b++) {
+                for (int season = 0; season < seasons; season++) {
+                    LocalDate from = STAY_FROM.plusDays((long) season * SEASON_DAYS);
+                    writer.write(++id, firstBungalow + b, from, from.plusDays(SEASON_DAYS - 1), 1,
+                            valueMinor(season), BOOK_FROM, null);
+                }
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private long count(long firstBungalow, int bungalows) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rates WHERE bungalow_id BETWEEN ? AND ?",
+                Long.class, firstBungalow, firstBungalow + bungalows - 1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.maxxton.silverheavens.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in microseconds.
+ *
+ * <p>Values below {@code 2 * SUB_BUCKETS} get one bucket each; above that every power of
+ * two is split into {@link #SUB_BUCKETS} equal buckets, so any recorded value is reported
+ * within about 3% of its true value while the whole range up to minutes fits in a couple
+ * of thousand counters. Recording is a single atomic increment and safe from any thread.</p>
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Highest tracked value; larger values are clamped into the top bucket. */
+    static final long MAX_MICROS = (1L << 36) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketOf(MAX_MICROS) + 1);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records one latency measured with {@link System#nanoTime()}.
+     */
+    void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1_000, 0), MAX_MICROS);
+        counts.incrementAndGet(bucketOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    long maxMicros() {
+        return maxMicros.get();
+    }
+
+    double meanMicros() {
+        long n = count();
+        return n == 0 ? 0 : (double) sumMicros.sum() / n;
+    }
+
+    /**
+     * Value at the given percentile, reported as the upper bound of its bucket and
+     * never above the largest recorded value.
+     *
+     * @param percentile between 0 and 100
+     * @return latency in microseconds, or 0 if nothing was recorded
+     */
+    long percentileMicros(double percentile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(bucket), maxMicros());
+            }
+        }
+        return maxMicros();
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,341 @@
+package com.maxxton.silverheavens.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed-loop HTTP driver replaying a mixed workload against a running instance.
+ *
+ * <p>Each worker runs on its own virtual thread and issues one request at a time,
+ * picking the operation by weight from the {@link Mix}. Requests go through the real
+ * HTTP stack on the loopback interface, so controllers, limiters, serialization and
+ * compression are all part of the measurement. Every worker has its own seeded random
+ * source, so the request sequence per worker is reproducible.</p>
+ */
+final class LoadDriver {
+
+    /**
+     * Operations in the workload.
+     */
+    enum Operation {
+        /** Single stay quote. */
+        QUOTE,
+        /** Cheapest-arrival search over several bungalows at once. */
+        BATCH_QUOTE,
+        /** New rate for a random season slice. */
+        CREATE,
+        /** Replacement of an active rate; only the update call itself is timed. */
+        UPDATE,
+        /** Full binary export of the table. */
+        EXPORT
+    }
+
+    /**
+     * Relative weights of the operations.
+     */
+    record Mix(int quote, int batchQuote, int create, int update, int export) {
+
+        /** Read-heavy mix with occasional writes and rare exports. */
+        static final Mix DEFAULT = new Mix(70, 15, 6, 6, 3);
+
+        int weight(Operation operation) {
+            return switch (operation) {
+                case QUOTE -> quote;
+                case BATCH_QUOTE -> batchQuote;
+                case CREATE -> create;
+                case UPDATE -> update;
+                case EXPORT -> export;
+            };
+        }
+    }
+
+    /**
+     * Outcome counters and latencies of one operation.
+     */
+    static final class Stats {
+
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        /** Requests answered with 4xx, e.g. a rate rejected as duplicate or a write conflict. */
+        final LongAdder rejected = new LongAdder();
+
+        /** Requests shed with 503 by admission control or a bulkhead. */
+        final LongAdder shed = new LongAdder();
+
+        /** Requests answered with any other 5xx or failing at the transport level. */
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Result of a run.
+     */
+    record Result(Map<Operation, Stats> stats, Duration elapsed, int concurrency) {
+
+        long totalRequests() {
+            return stats.values().stream().mapToLong(s -> s.latency.count()).sum();
+        }
+
+        long totalShed() {
+            return stats.values().stream().mapToLong(s -> s.shed.sum()).sum();
+        }
+
+        long totalErrors() {
+            return stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+        }
+
+        /**
+         * Formats throughput and latency percentiles per operation as a plain-text table.
+         */
+        String report() {
+            double seconds = elapsed.toNanos() / 1_000_000_000.0;
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%d workers, %.1f s, %d requests, %.0f req/s overall%n",
+                    concurrency, seconds, totalRequests(), totalRequests() / seconds));
+            out.append(String.format("%-12s %9s %9s %7s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                    "operation", "count", "req/s", "4xx", "503", "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms",
+                    "p99.9 ms", "max ms"));
+            stats.forEach((operation, s) -> {
+                LatencyHistogram h = s.latency;
+                out.append(String.format("%-12s %9d %9.1f %7d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        operation, h.count(), h.count() / seconds, s.rejected.sum(), s.shed.sum(), s.errors.sum(),
+                        h.meanMicros() / 1000, h.percentileMicros(50) / 1000.0, h.percentileMicros(90) / 1000.0,
+                        h.percentileMicros(99) / 1000.0, h.percentileMicros(99.9) / 1000.0, h.maxMicros() / 1000.0));
+            });
+            return out.toString();
+        }
+    }
+
+    private static final int BATCH_QUOTE_BUNGALOWS = 10;
+    private static final int BATCH_QUOTE_WINDOW_DAYS = 60;
+
+    private final URI baseUri;
+    private final SyntheticPortfolio portfolio;
+    private final Mix mix;
+    private final int concurrency;
+    private final long seed;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadDriver(URI baseUri, SyntheticPortfolio portfolio, Mix mix, int concurrency, long seed) {
+        this.baseUri = baseUri;
+        this.portfolio = portfolio;
+        this.mix = mix;
+        this.concurrency = concurrency;
+        this.seed = seed;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Runs the workload for the given duration and waits for all workers to finish
+     * their last request.
+     */
+    Result run(Duration duration) throws Exception {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int worker = 0; worker < concurrency; worker++) {
+                Random random = new Random(seed * 7919 + worker);
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(pick(random), random, stats);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return new Result(stats, Duration.ofNanos(System.nanoTime() - start), concurrency);
+    }
+
+    private Operation pick(Random random) {
+        int total = 0;
+        for (Operation operation : Operation.values()) {
+            total += mix.weight(operation);
+        }
+        int roll = random.nextInt(total);
+        for (Operation operation : Operation.values()) {
+            roll -= mix.weight(operation);
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void execute(Operation operation, Random random, Map<Operation, Stats> stats) throws InterruptedException {
+        Stats s = stats.get(operation);
+        try {
+            HttpRequest request = request(operation, random);
+            if (request == null) {
+                return;
+            }
+            long started = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            s.latency.recordNanos(System.nanoTime() - started);
+            if (response.statusCode() == 503) {
+                s.shed.increment();
+            } else if (response.statusCode() >= 500) {
+                s.errors.increment();
+            } else if (response.statusCode() >= 400) {
+                s.rejected.increment();
+            }
+        } catch (IOException e) {
+            s.errors.increment();
+        }
+    }
+
+    private HttpRequest request(Operation operation, Random random) throws IOException, InterruptedException {
+        return switch (operation) {
+            case QUOTE -> quote(random);
+            case BATCH_QUOTE -> batchQuote(random);
+            case CREATE -> create(random);
+            case UPDATE -> update(random);
+            case EXPORT -> get("/rates/export/binary", Map.of());
+        };
+    }
+
+    private HttpRequest quote(Random random) {
+        LocalDate arrival = randomNight(random, 14);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("bungId", randomBungalow(random));
+        params.put("arrrivalDate", arrival);
+        params.put("departureDate", arrival.plusDays(1 + random.nextInt(14)));
+        params.put("bookingDate", randomBookingDate(random));
+        return get("/rates/calculatePrice", params);
+    }
+
+    private HttpRequest batchQuote(Random random) {
+        StringJoiner ids = new StringJoiner(",");
+        for (int i = 0; i < BATCH_QUOTE_BUNGALOWS; i++) {
+            ids.add(Long.toString(randomBungalow(random)));
+        }
+        LocalDate from = randomNight(random, BATCH_QUOTE_WINDOW_DAYS);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("bungalowIds", ids);
+        params.put("from", from);
+        params.put("to", from.plusDays(BATCH_QUOTE_WINDOW_DAYS));
+        params.put("nights", 7);
+        params.put("bookingDate", randomBookingDate(random));
+        return get("/rates/search/cheapest-arrivals", params);
+    }
+
+    private HttpRequest create(Random random) {
+        LocalDate from = randomNight(random, 21);
+        Map<String, Object> form = new LinkedHashMap<>();
+        form.put("bungalowId", randomBungalow(random));
+        form.put("stayDateFrom", from);
+        form.put("stayDateTo", from.plusDays(2 + random.nextInt(19)));
+        form.put("nights", 1);
+        form.put("value", (5_000 + random.nextInt(40_000)) / 100.0);
+        return form("POST", "/rates", form);
+    }
+
+    /**
+     * Looks up an active rate of a random bungalow and builds a request replacing it
+     * with a new value, or returns {@code null} if the bungalow has no active rate.
+     */
+    private HttpRequest update(Random random) throws IOException, InterruptedException {
+        HttpResponse<String> listing = client.send(
+                get("/rates/get-bungalow-rates", Map.of("bungalowId", randomBungalow(random))),
+                HttpResponse.BodyHandlers.ofString());
+        if (listing.statusCode() != 200) {
+            return null;
+        }
+        List<JsonNode> active = new ArrayList<>();
+        for (JsonNode rate : objectMapper.readTree(listing.body())) {
+            if (rate.path("bookDateTo").isNull()) {
+                active.add(rate);
+            }
+        }
+        if (active.isEmpty()) {
+            return null;
+        }
+        JsonNode rate = active.get(random.nextInt(active.size()));
+
+        Map<String, Object> form = new LinkedHashMap<>();
+        form.put("rateId", rate.get("id").asLong());
+        form.put("bungalowId", rate.get("bungalowId").asLong());
+        form.put("stayDateFrom", rate.get("stayDateFrom").asText());
+        form.put("stayDateTo", rate.get("stayDateTo").asText());
+        form.put("nights", rate.get("nights").asInt());
+        form.put("value", Math.round(rate.get("value").asDouble() * (90 + random.nextInt(21))) / 100.0);
+        return form("PUT", "/rates", form);
+    }
+
+    private long randomBungalow(Random random) {
+        return portfolio.bungalowId(random.nextInt(portfolio.spec().bungalows()));
+    }
+
+    /**
+     * Random night that leaves at least {@code room} further nights inside the rated year.
+     */
+    private LocalDate randomNight(Random random, int room) {
+        int days = SyntheticPortfolio.STAY_FROM.lengthOfYear() - room;
+        return SyntheticPortfolio.STAY_FROM.plusDays(random.nextInt(days));
+    }
+
+    /**
+     * Random booking date from the first revision up to today, so quotes hit both
+     * closed history and currently active rows.
+     */
+    private LocalDate randomBookingDate(Random random) {
+        LocalDate first = SyntheticPortfolio.FIRST_BOOKING;
+        long span = LocalDate.now().toEpochDay() - first.toEpochDay();
+        return first.plusDays(random.nextLong(span + 1));
+    }
+
+    private HttpRequest get(String path, Map<String, ?> params) {
+        return HttpRequest.newBuilder(uri(path, params)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest form(String method, String path, Map<String, ?> form) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .method(method, HttpRequest.BodyPublishers.ofString(encode(form)))
+                .build();
+    }
+
+    private URI uri(String path, Map<String, ?> params) {
+        return baseUri.resolve(params.isEmpty() ? path : path + "?" + encode(params));
+    }
+
+    private static String encode(Map<String, ?> params) {
+        StringJoiner query = new StringJoiner("&");
+        params.forEach((name, value) -> query.add(
+                name + "=" + URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8)));
+        return query.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.maxxton.silverheavens.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * End-to-end load test: generates a synthetic portfolio, then replays a mixed workload
+ * of quotes, batch quotes, creates, updates and exports over HTTP against the
+ * application on a random local port, and prints throughput and latency percentiles
+ * per operation.
+ *
+ * <p>Runs fully offline against the embedded H2 database by default. The size of the
+ * run is controlled with system properties, all optional:</p>
+ * <ul>
+ *     <li>{@code load.bungalows} (200), {@code load.seasons} (8), {@code load.revisions} (6)</li>
+ *     <li>{@code load.generator}: {@code service} to create every rate through
+ *         {@link RateService#createRate}, or {@code bulk} for batched inserts</li>
+ *     <li>{@code load.concurrency} (32), {@code load.duration-seconds} (20), {@code load.seed} (42)</li>
+ * </ul>
+ *
+ * <p>To run against a local MySQL instead, also pass the usual {@code spring.datasource.*}
+ * properties and the MySQL dialect, e.g.
+ * {@code ./gradlew loadTest --tests '*MixedWorkloadLoadTest' -Dload.generator=bulk
+ * -Dspring.datasource.url=jdbc:mysql://localhost:3306/rates_load -Dspring.datasource.username=...
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect}.</p>
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class MixedWorkloadLoadTest {
+
+    /** Keeps generated bungalows clear of the ids used by the other load tests. */
+    private static final long FIRST_BUNGALOW_ID = 10_000L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    private SyntheticPortfolio portfolio;
+
+    @BeforeAll
+    void generatePortfolio() {
+        portfolio = new SyntheticPortfolio(new SyntheticPortfolio.Spec(
+                FIRST_BUNGALOW_ID,
+                Integer.getInteger("load.bungalows", 200),
+                Integer.getInteger("load.seasons", 8),
+                Integer.getInteger("load.revisions", 6),
+                Long.getLong("load.seed", 42L)));
+
+        String generator = System.getProperty("load.generator", "service");
+        long start = System.nanoTime();
+        long rows = "bulk".equals(generator)
+                ? portfolio.loadBulk(rateJdbcRepository)
+                : portfolio.loadThroughService(rateService);
+        System.out.printf("Generated %d rates for %d bungalows via %s in %d ms%n",
+                rows, portfolio.spec().bungalows(), generator, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        LoadDriver driver = new LoadDriver(
+                URI.create("http://localhost:" + port),
+                portfolio,
+                LoadDriver.Mix.DEFAULT,
+                Integer.getInteger("load.concurrency", 32),
+                Long.getLong("load.seed", 42L));
+
+        LoadDriver.Result result = driver.run(Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 20)));
+
+        System.out.print(result.report());
+
+        assertEquals(0, result.totalErrors(), "requests failed with 5xx or transport errors");
+        assertEquals(0, result.totalShed(), "requests were shed with 503");
+        result.stats().forEach((operation, stats) ->
+                assertTrue(stats.latency.count() > 0, operation + " never ran"));
+    }
+}
@@ -0,0 +1,213 @@
+package com.maxxton.silverheavens.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.maxxton.silverheavens.concurrency.AdaptiveConcurrencyLimiter;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+/**
+ * Checks overload protection end to end: slows every SQL statement down, as a struggling
+ * MySQL would, then floods the pricing endpoint while a few writers keep changing rates.
+ *
+ * <p>Expected: surplus quotes are shed quickly with 503 and {@code Retry-After} instead of
+ * queueing, admitted quotes stay within their deadline, and writes keep completing on
+ * their own bulkhead without a single rejection. A quote whose query outlives the deadline
+ * is cancelled through the statement's query timeout and answered with 503.</p>
+ *
+ * <p>The slowdown is injected by wrapping the embedded H2 data source; statements sleep
+ * for the configured delay, or fail like a cancelled query once their query timeout is
+ * shorter than that. Run with {@code ./gradlew loadTest --tests '*OverloadProtectionLoadTest'};
+ * {@code load.concurrency} (150) and {@code load.duration-seconds} (10) size the flood.</p>
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "rates.pricing.coalesce-fetches=false",
+        "rates.pricing.limiter.enabled=true",
+        "rates.pricing.limiter.initial-limit=16",
+        "rates.pricing.deadline-ms=1000",
+        "rates.jdbc.limiter.enabled=true",
+        "rates.jdbc.limiter.max-concurrent=6",
+        "rates.write.bulkhead.enabled=true",
+        "rates.write.bulkhead.max-concurrent=2"
+})
+class OverloadProtectionLoadTest {
+
+    /** Keeps generated bungalows clear of the ids used by the other load tests. */
+    private static final long FIRST_BUNGALOW_ID = 20_000L;
+
+    private static final int WRITERS = 2;
+
+    /** Delay added to every SQL statement; 0 while the database is healthy. */
+    private static volatile long statementDelayMs;
+
+    @TestConfiguration
+    static class SlowDatabaseConfig {
+
+        @Bean
+        static BeanPostProcessor slowDatabase() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                            ? new SlowDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Hands out connections whose statements are delayed by {@link #statementDelayMs}.
+     */
+    private static final class SlowDataSource extends DelegatingDataSource {
+
+        SlowDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        return result instanceof Statement statement
+                                ? slow(statement, method.getReturnType())
+                                : result;
+                    });
+        }
+
+        private static Object slow(Statement statement, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    long delayMs = statementDelayMs;
+                    long timeoutMs = statement.getQueryTimeout() * 1000L;
+                    if (timeoutMs > 0 && delayMs >= timeoutMs) {
+                        Thread.sleep(timeoutMs);
+                        throw new SQLTimeoutException("Statement cancelled by query timeout");
+                    }
+                    Thread.sleep(delayMs);
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter pricingLimiter;
+
+    private SyntheticPortfolio portfolio;
+
+    @BeforeAll
+    void generatePortfolio() {
+        portfolio = new SyntheticPortfolio(new SyntheticPortfolio.Spec(FIRST_BUNGALOW_ID, 50, 4, 2, 42L));
+        portfolio.loadBulk(rateJdbcRepository);
+    }
+
+    @AfterEach
+    void healDatabase() {
+        statementDelayMs = 0;
+    }
+
+    private LoadDriver driver(LoadDriver.Mix mix, int concurrency) {
+        return new LoadDriver(URI.create("http://localhost:" + port), portfolio, mix, concurrency, 42L);
+    }
+
+    @Test
+    void slowDatabaseShedsQuotesButKeepsWritesFlowing() throws Exception {
+        // Let the limiter learn the healthy latency first
+        driver(new LoadDriver.Mix(1, 0, 0, 0, 0), 8).run(Duration.ofSeconds(2));
+        int healthyLimit = pricingLimiter.getLimit();
+
+        statementDelayMs = 50;
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 10));
+        CompletableFuture<LoadDriver.Result> writes = CompletableFuture.supplyAsync(() -> {
+            try {
+                return driver(new LoadDriver.Mix(0, 0, 1, 0, 0), WRITERS).run(duration);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        LoadDriver.Result quotes = driver(new LoadDriver.Mix(1, 0, 0, 0, 0),
+                Integer.getInteger("load.concurrency", 150)).run(duration);
+
+        System.out.print(quotes.report());
+        System.out.print(writes.get().report());
+        System.out.printf("Pricing limit: %d healthy, %d under load%n", healthyLimit, pricingLimiter.getLimit());
+
+        LoadDriver.Stats quoteStats = quotes.stats().get(LoadDriver.Operation.QUOTE);
+        assertTrue(quoteStats.shed.sum() > 0, "no quote was shed");
+        assertEquals(0, quotes.totalErrors(), "quotes failed with errors other than 503");
+        assertTrue(quoteStats.latency.percentileMicros(99) < 2_500_000, "quotes queued beyond their deadline");
+
+        LoadDriver.Stats writeStats = writes.get().stats().get(LoadDriver.Operation.CREATE);
+        assertTrue(writeStats.latency.count() > 0, "no write completed");
+        assertEquals(0, writes.get().totalShed(), "writes were shed");
+        assertEquals(0, writes.get().totalErrors(), "writes failed");
+    }
+
+    @Test
+    void queryOutlivingDeadlineIsCancelled() throws Exception {
+        statementDelayMs = 5_000;
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/rates/calculatePrice?bungId=" + portfolio.bungalowId(0)
+                + "&arrrivalDate=" + SyntheticPortfolio.STAY_FROM
+                + "&departureDate=" + SyntheticPortfolio.STAY_FROM.plusDays(3)
+                + "&bookingDate=" + SyntheticPortfolio.STAY_FROM.minusDays(30))).build();
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(503, response.statusCode());
+        assertTrue(response.headers().firstValue("Retry-After").isPresent());
+        assertTrue(elapsedMs < 2_500, "quote took " + elapsedMs + " ms despite a 1 s deadline");
+    }
+}
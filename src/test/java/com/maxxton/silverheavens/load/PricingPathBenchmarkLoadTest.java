@@ -0,0 +1,105 @@
+package com.maxxton.silverheavens.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.pricing.PricingKernel;
+import com.maxxton.silverheavens.pricing.RateTimeline;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateRepository;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Compares the JPA pricing path (entity hydration through {@code findRelevantRates})
+ * with the price-only JDBC query feeding {@link PricingKernel} directly, on the same
+ * data and within the same kind of read-only transaction the service uses.
+ *
+ * <p>Run with {@code ./gradlew loadTest}.</p>
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class PricingPathBenchmarkLoadTest {
+
+    private static final long BUNGALOW_ID = 900L;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    private static final LocalDate ARRIVAL = LocalDate.of(2025, 6, 1);
+    private static final LocalDate DEPARTURE = LocalDate.of(2025, 6, 29);
+    private static final LocalDate BOOKING = LocalDate.of(2025, 2, 1);
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    void seedDailyRates() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // One rate per day with alternating values so that nothing merges
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 365; i++, day = day.plusDays(1)) {
+            Rates rate = new Rates();
+            rate.setBungalowId(BUNGALOW_ID);
+            rate.setStayDateFrom(day);
+            rate.setStayDateTo(day);
+            rate.setBookDateFrom(LocalDate.of(2025, 1, 1));
+            rate.setNights(1);
+            rate.setValue(100 + (i % 2));
+            rateService.createRate(rate);
+        }
+    }
+
+    @Test
+    void compareJpaAndJdbcPricingPaths() {
+        DoubleSupplier jpa = () -> readOnly.execute(status -> PricingKernel.totalPrice(
+                RateTimeline.of(rateRepository.findRelevantRates(BUNGALOW_ID, ARRIVAL, DEPARTURE, BOOKING)),
+                ARRIVAL, DEPARTURE, BOOKING));
+        DoubleSupplier jdbc = () -> readOnly.execute(status -> PricingKernel.totalPrice(
+                rateJdbcRepository.findPricingTimeline(BUNGALOW_ID, ARRIVAL, DEPARTURE, BOOKING),
+                ARRIVAL, DEPARTURE, BOOKING));
+
+        assertEquals(jpa.getAsDouble(), jdbc.getAsDouble(), 0.0001);
+
+        double jpaRate = measure(jpa);
+        double jdbcRate = measure(jdbc);
+
+        System.out.printf("JPA path: %.0f quotes/s, JDBC path: %.0f quotes/s (%.2fx)%n",
+                jpaRate, jdbcRate, jdbcRate / jpaRate);
+    }
+
+    private double measure(DoubleSupplier quote) {
+        for (int i = 0; i < WARMUP; i++) {
+            quote.getAsDouble();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            quote.getAsDouble();
+        }
+        return ITERATIONS / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,183 @@
+package com.maxxton.silverheavens.load;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.service.RateService;
+
+/**
+ * Deterministic generator of a bungalow portfolio with versioned rate histories.
+ *
+ * <p>Each bungalow splits the stay year into seasons with their own price level and is
+ * repriced {@code revisions} times, 30 booking days apart. Every revision replaces all
+ * seasons, so older rows end up closed for booking and the table holds the same kind of
+ * history the service builds in production. The same seed always yields the same
+ * portfolio, whichever way it is loaded.</p>
+ */
+final class SyntheticPortfolio {
+
+    /** First night that carries a rate. */
+    static final LocalDate STAY_FROM = LocalDate.of(2025, 1, 1);
+
+    /** Last night that carries a rate. */
+    static final LocalDate STAY_TO = LocalDate.of(2025, 12, 31);
+
+    /** Booking date of the first revision. */
+    static final LocalDate FIRST_BOOKING = LocalDate.of(2024, 1, 1);
+
+    private static final int REVISION_SPACING_DAYS = 30;
+
+    /**
+     * Shape of the generated portfolio.
+     *
+     * @param firstBungalowId id of the first bungalow; the rest follow consecutively
+     * @param bungalows number of bungalows
+     * @param seasons seasons per bungalow per revision
+     * @param revisions price revisions per bungalow
+     * @param seed seed of the generator
+     */
+    record Spec(long firstBungalowId, int bungalows, int seasons, int revisions, long seed) {
+
+        Spec {
+            if (bungalows <= 0 || seasons <= 0 || revisions <= 0) {
+                throw new IllegalArgumentException("Bungalows, seasons and revisions must be positive");
+            }
+            if (seasons > STAY_FROM.lengthOfYear()) {
+                throw new IllegalArgumentException("At most one season per day");
+            }
+        }
+    }
+
+    private final Spec spec;
+
+    SyntheticPortfolio(Spec spec) {
+        this.spec = spec;
+    }
+
+    Spec spec() {
+        return spec;
+    }
+
+    long bungalowId(int index) {
+        return spec.firstBungalowId() + index;
+    }
+
+    /**
+     * Booking date on which the given revision takes effect.
+     */
+    LocalDate revisionBookingDate(int revision) {
+        return FIRST_BOOKING.plusDays((long) revision * REVISION_SPACING_DAYS);
+    }
+
+    LocalDate lastRevisionBookingDate() {
+        return revisionBookingDate(spec.revisions() - 1);
+    }
+
+    /**
+     * Total number of rows that {@link #loadBulk} inserts.
+     */
+    long rowCount() {
+        return (long) spec.bungalows() * spec.seasons() * spec.revisions();
+    }
+
+    /**
+     * Builds the rates of one revision of one bungalow, open for booking from the
+     * revision's booking date. Season boundaries and price levels depend only on the
+     * bungalow; each revision raises or lowers the whole bungalow slightly.
+     */
+    List<Rates> revision(int bungalowIndex, int revision) {
+        Random bungalow = new Random(spec.seed() * 31 + bungalowIndex);
+        int[] starts = seasonStarts(bungalow);
+        double base = 80 + bungalow.nextInt(320);
+        int nights = bungalow.nextInt(4) == 0 ? 7 : 1;
+
+        Random revisionRandom = new Random(spec.seed() * 31 + bungalowIndex * 1_000_003L + revision);
+        double drift = 1 + (revisionRandom.nextDouble() - 0.4) * 0.1 * revision;
+
+        List<Rates> rates = new ArrayList<>(starts.length);
+        for (int season = 0; season < starts.length; season++) {
+            int end = season + 1 < starts.length ? starts[season + 1] - 1 : STAY_FROM.lengthOfYear() - 1;
+            double level = base * (0.7 + bungalow.nextDouble() * 0.9) * drift;
+
+            Rates rate = new Rates();
+            rate.setBungalowId(bungalowId(bungalowIndex));
+            rate.setStayDateFrom(STAY_FROM.plusDays(starts[season]));
+            rate.setStayDateTo(STAY_FROM.plusDays(end));
+            rate.setBookDateFrom(revisionBookingDate(revision));
+            rate.setNights(nights);
+            rate.setValue(Math.round(level * nights * 100 + revisionRandom.nextInt(100)) / 100.0);
+            rates.add(rate);
+        }
+        return rates;
+    }
+
+    /**
+     * Picks distinct, sorted season start offsets into the stay year; the first is always 0.
+     */
+    private int[] seasonStarts(Random random) {
+        int days = STAY_FROM.lengthOfYear();
+        boolean[] taken = new boolean[days];
+        taken[0] = true;
+        for (int picked = 1; picked < spec.seasons(); ) {
+            int day = 1 + random.nextInt(days - 1);
+            if (!taken[day]) {
+                taken[day] = true;
+                picked++;
+            }
+        }
+        int[] starts = new int[spec.seasons()];
+        for (int day = 0, i = 0; day < days; day++) {
+            if (taken[day]) {
+                starts[i++] = day;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Loads the portfolio through {@link RateService#createRate}, revision by revision, so
+     * splitting, closing, merging and change events all run as they would in production.
+     *
+     * @return number of rates created
+     */
+    long loadThroughService(RateService rateService) {
+        long created = 0;
+        for (int revision = 0; revision < spec.revisions(); revision++) {
+            for (int bungalow = 0; bungalow < spec.bungalows(); bungalow++) {
+                for (Rates rate : revision(bungalow, revision)) {
+                    rateService.createRate(rate);
+                    created++;
+                }
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Loads the portfolio with batched inserts, writing the closed history directly:
+     * every revision but the last is closed on the booking date of the next one, the
+     * same end date {@link RateService#createRate} would give it. Much faster for large
+     * portfolios, but bypasses change events and cache invalidation.
+     *
+     * @return number of rows inserted
+     */
+    long loadBulk(RateJdbcRepository rateJdbcRepository) {
+        long inserted = 0;
+        for (int bungalow = 0; bungalow < spec.bungalows(); bungalow++) {
+            List<Rates> rows = new ArrayList<>(spec.seasons() * spec.revisions());
+            for (int revision = 0; revision < spec.revisions(); revision++) {
+                LocalDate closedOn = revision + 1 < spec.revisions() ? revisionBookingDate(revision + 1) : null;
+                for (Rates rate : revision(bungalow, revision)) {
+                    rate.setBookDateTo(closedOn);
+                    rows.add(rate);
+                }
+            }
+            inserted += rateJdbcRepository.insertAll(rows);
+        }
+        return inserted;
+    }
+}
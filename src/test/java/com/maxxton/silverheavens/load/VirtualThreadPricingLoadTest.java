@@ -0,0 +1,94 @@
+package com.maxxton.silverheavens.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import com.maxxton.silverheavens.SilverheavensApplication;
+import com.maxxton.silverheavens.concurrency.JdbcConcurrencyLimiter;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+/**
+ * Load-test harness replaying the same quote workload over HTTP against the application
+ * started twice: once on Tomcat's platform-thread pool and once with
+ * {@code spring.threads.virtual.enabled}, both with the JDBC limiter enabled. More workers
+ * than Tomcat's 200 request threads are used, so the platform run queues at the
+ * connector while the virtual run admits every request and queues at the limiter.
+ *
+ * <p>Prints both reports side by side. Throughput on the embedded H2 stand-in is CPU
+ * bound and says little about a remote MySQL, so the runs are not compared; the test
+ * checks that each mode really serves on its executor, answers every quote and never
+ * exceeds the JDBC limit.</p>
+ *
+ * <p>Run with {@code ./gradlew loadTest --tests '*VirtualThreadPricingLoadTest'};
+ * {@code load.concurrency} (400) and {@code load.duration-seconds} (10) size the run.</p>
+ */
+@Tag("load")
+class VirtualThreadPricingLoadTest {
+
+    /** Keeps generated bungalows clear of the ids used by the other load tests. */
+    private static final long FIRST_BUNGALOW_ID = 20_000L;
+
+    private static final LoadDriver.Mix QUOTES_ONLY = new LoadDriver.Mix(1, 0, 0, 0, 0);
+
+    @Test
+    void virtualAndPlatformThreadsServeTheSameWorkload() throws Exception {
+        LoadDriver.Result platform = run(false);
+        LoadDriver.Result virtual = run(true);
+
+        System.out.print("platform threads:\n" + platform.report());
+        System.out.print("virtual threads:\n" + virtual.report());
+    }
+
+    /**
+     * Starts the application on its own database and port, loads a portfolio and
+     * replays the quote workload against it.
+     */
+    private LoadDriver.Result run(boolean virtualThreads) throws Exception {
+        SyntheticPortfolio portfolio = new SyntheticPortfolio(
+                new SyntheticPortfolio.Spec(FIRST_BUNGALOW_ID, 50, 4, 2, 42L));
+
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(SilverheavensApplication.class).run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:virtual-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--rates.pricing.limiter.enabled=false",
+                        "--rates.jdbc.limiter.enabled=true",
+                        "--rates.jdbc.limiter.max-concurrent=10",
+                        "--rates.jdbc.limiter.acquire-timeout-ms=60000")) {
+            portfolio.loadBulk(context.getBean(RateJdbcRepository.class));
+
+            Executor executor = ((TomcatWebServer) context.getWebServer()).getTomcat()
+                    .getConnector().getProtocolHandler().getExecutor();
+            assertEquals(virtualThreads, executor instanceof VirtualThreadExecutor,
+                    "Tomcat executor is " + executor.getClass().getName());
+
+            LoadDriver driver = new LoadDriver(
+                    URI.create("http://localhost:" + context.getWebServer().getPort()),
+                    portfolio,
+                    QUOTES_ONLY,
+                    Integer.getInteger("load.concurrency", 400),
+                    Long.getLong("load.seed", 42L));
+            LoadDriver.Result result = driver.run(Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 10)));
+
+            JdbcConcurrencyLimiter jdbcLimiter = context.getBean(JdbcConcurrencyLimiter.class);
+            assertEquals(0, result.totalErrors(), "requests failed with 5xx or transport errors");
+            assertTrue(result.totalRequests() > 0, "no quote completed");
+            assertTrue(jdbcLimiter.getPeakInFlight() <= jdbcLimiter.getMaxConcurrent(),
+                    "JDBC concurrency exceeded the configured limit");
+            return result;
+        }
+    }
+}
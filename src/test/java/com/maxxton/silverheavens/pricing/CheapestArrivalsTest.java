@@ -0,0 +1,104 @@
+package com.maxxton.silverheavens.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.exception.RateNotFoundException;
+
+class CheapestArrivalsTest {
+
+    private static final LocalDate BOOKING = LocalDate.of(2025, 2, 1);
+
+    private Rates buildRate(LocalDate stayFrom, LocalDate stayTo, double value, int nights) {
+        Rates rate = new Rates();
+        rate.setBungalowId(1L);
+        rate.setStayDateFrom(stayFrom);
+        rate.setStayDateTo(stayTo);
+        rate.setBookDateFrom(LocalDate.of(2025, 1, 1));
+        rate.setValue(value);
+        rate.setNights(nights);
+        return rate;
+    }
+
+    @Test
+    void testFind_PicksCheapestWindow() {
+        RateTimeline timeline = RateTimeline.of(List.of(
+                buildRate(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 9), 100, 1),
+                buildRate(LocalDate.of(2025, 7, 10), LocalDate.of(2025, 7, 12), 40, 1),
+                buildRate(LocalDate.of(2025, 7, 13), LocalDate.of(2025, 7, 31), 100, 1)));
+
+        List<ArrivalQuote> quotes = CheapestArrivals.find(timeline,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 8, 1), 3, BOOKING, 2);
+
+        assertEquals(2, quotes.size());
+        assertEquals(new ArrivalQuote(LocalDate.of(2025, 7, 10), LocalDate.of(2025, 7, 13), 120.0), quotes.get(0));
+        assertEquals(LocalDate.of(2025, 7, 9), quotes.get(1).arrival());
+        assertEquals(180.0, quotes.get(1).price(), 0.001);
+    }
+
+    @Test
+    void testFind_SkipsStaysCrossingGaps() {
+        RateTimeline timeline = RateTimeline.of(List.of(
+                buildRate(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3), 10, 1),
+                buildRate(LocalDate.of(2025, 7, 6), LocalDate.of(2025, 7, 8), 50, 1)));
+
+        List<ArrivalQuote> quotes = CheapestArrivals.find(timeline,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 10), 2, BOOKING, 10);
+
+        assertEquals(List.of(
+                        LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 2),
+                        LocalDate.of(2025, 7, 6), LocalDate.of(2025, 7, 7)),
+                quotes.stream().map(ArrivalQuote::arrival).toList());
+    }
+
+    @Test
+    void testFind_EmptyWhenStayLongerThanWindow() {
+        RateTimeline timeline = RateTimeline.of(List.of(
+                buildRate(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), 10, 1)));
+
+        assertTrue(CheapestArrivals.find(timeline,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 5), 7, BOOKING, 5).isEmpty());
+    }
+
+    @Test
+    void testFind_MatchesTotalPriceForEveryArrival() {
+        Random random = new Random(42);
+        List<Rates> rates = new ArrayList<>();
+        LocalDate day = LocalDate.of(2025, 6, 1);
+        while (day.isBefore(LocalDate.of(2025, 9, 1))) {
+            LocalDate to = day.plusDays(random.nextInt(6));
+            if (random.nextInt(10) > 0) {
+                rates.add(buildRate(day, to, 50 + random.nextInt(500) + random.nextDouble(), 1 + random.nextInt(3)));
+            }
+            day = to.plusDays(1);
+        }
+        RateTimeline timeline = RateTimeline.of(rates);
+        LocalDate from = LocalDate.of(2025, 6, 1);
+        LocalDate to = LocalDate.of(2025, 9, 1);
+        int nights = 7;
+
+        List<ArrivalQuote> expected = new ArrayList<>();
+        for (LocalDate arrival = from; !arrival.plusDays(nights).isAfter(to); arrival = arrival.plusDays(1)) {
+            try {
+                double total = PricingKernel.totalPrice(timeline, arrival, arrival.plusDays(nights), BOOKING);
+                expected.add(new ArrivalQuote(arrival, arrival.plusDays(nights), total));
+            } catch (RateNotFoundException e) {
+                // not bookable
+            }
+        }
+        expected.sort(Comparator.comparingDouble(ArrivalQuote::price).thenComparing(ArrivalQuote::arrival));
+
+        List<ArrivalQuote> quotes = CheapestArrivals.find(timeline, from, to, nights, BOOKING, 5);
+
+        assertEquals(expected.subList(0, Math.min(5, expected.size())), quotes);
+    }
+}
@@ -0,0 +1,47 @@
+package com.maxxton.silverheavens.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void testToMinor_RoundsHalfEven() {
+        assertEquals(1234L, Money.toMinor(12.345));
+        assertEquals(1236L, Money.toMinor(12.355));
+        assertEquals(10L, Money.toMinor(0.1));
+        assertEquals(-1234L, Money.toMinor(-12.345));
+    }
+
+    @Test
+    void testToMinor_RejectsNonFinite() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testDivide_RoundsHalfEven() {
+        assertEquals(33333L, Money.divide(100_000L, 3));
+        assertEquals(66667L, Money.divide(200_000L, 3));
+        assertEquals(2L, Money.divide(5L, 2));
+        assertEquals(4L, Money.divide(7L, 2));
+        assertEquals(-2L, Money.divide(-5L, 2));
+    }
+
+    @Test
+    void testShare_PartsAddUpExactly() {
+        assertEquals(3333L, Money.share(10_000L, 3, 0));
+        assertEquals(3333L, Money.share(10_000L, 3, 1));
+        assertEquals(3334L, Money.share(10_000L, 3, 2));
+        assertEquals(-1L, Money.share(-1L, 3, 0) + Money.share(-1L, 3, 1) + Money.share(-1L, 3, 2));
+        assertThrows(IllegalArgumentException.class, () -> Money.share(10_000L, 3, 3));
+    }
+
+    @Test
+    void testToMajor() {
+        assertEquals(12.34, Money.toMajor(1234L));
+        assertEquals(0.01, Money.toMajor(1L));
+    }
+}
@@ -0,0 +1,169 @@
+package com.maxxton.silverheavens.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.maxxton.silverheavens.entity.Rates;
+
+class OffHeapRateStoreTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+    private static final int NO_HORIZON = Integer.MIN_VALUE;
+
+    private Rates buildRate(long id, long bungalowId, LocalDate from, LocalDate to, LocalDate bookFrom,
+                            LocalDate bookTo, double value, int nights) {
+        Rates rate = new Rates();
+        rate.setId(id);
+        rate.setBungalowId(bungalowId);
+        rate.setStayDateFrom(from);
+        rate.setStayDateTo(to);
+        rate.setBookDateFrom(bookFrom);
+        rate.setBookDateTo(bookTo);
+        rate.setValue(value);
+        rate.setNights(nights);
+        return rate;
+    }
+
+    private void add(OffHeapRateStore.Builder builder, Rates r) {
+        builder.add(r.getBungalowId(), r.getId(),
+                (int) r.getStayDateFrom().toEpochDay(),
+                (int) r.getStayDateTo().toEpochDay(),
+                (int) r.getBookDateFrom().toEpochDay(),
+                r.getBookDateTo() == null ? RateTimeline.OPEN_END : (int) r.getBookDateTo().toEpochDay(),
+                r.getNights(),
+                r.getValueMinor());
+    }
+
+    private OffHeapRateStore single(Rates... rates) {
+        OffHeapRateStore.Builder builder = new OffHeapRateStore.Builder(rates.length, 1, NO_HORIZON);
+        for (Rates rate : rates) {
+            add(builder, rate);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testPricesLikeHeapTimeline_AcrossManyBungalows() {
+        Random random = new Random(7);
+        // Tiny sizing hints force both the record buffer and the index to grow
+        OffHeapRateStore.Builder builder = new OffHeapRateStore.Builder(1, 1, NO_HORIZON);
+        List<List<Rates>> portfolio = new ArrayList<>();
+        long id = 1;
+        for (long bungalow = 1; bungalow <= 500; bungalow++) {
+            List<Rates> rates = new ArrayList<>();
+            LocalDate day = BASE;
+            while (day.isBefore(BASE.plusDays(120))) {
+                LocalDate to = day.plusDays(random.nextInt(10));
+                rates.add(buildRate(id++, bungalow * 1_000_003L, day, to, BASE.minusDays(60),
+                        random.nextInt(4) == 0 ? BASE.minusDays(30) : null,
+                        40 + random.nextInt(400) + random.nextInt(100) / 100.0, 1 + random.nextInt(3)));
+                day = to.plusDays(1);
+            }
+            rates.forEach(rate -> add(builder, rate));
+            portfolio.add(rates);
+        }
+        OffHeapRateStore store = builder.build();
+
+        assertEquals(500, store.bungalowCount());
+        for (List<Rates> rates : portfolio) {
+            long bungalowId = rates.get(0).getBungalowId();
+            RateTimeline heap = RateTimeline.of(rates);
+            for (LocalDate booking : List.of(BASE.minusDays(45), BASE.minusDays(10))) {
+                RateTimeline offHeap = store.timeline(bungalowId, (int) booking.toEpochDay());
+                assertNotNull(offHeap);
+                assertEquals(heap.size(), offHeap.size());
+                for (int arrival = 0; arrival < 100; arrival += 13) {
+                    LocalDate from = BASE.plusDays(arrival);
+                    LocalDate to = from.plusDays(1 + random.nextInt(14));
+                    assertEquals(priceOrMissing(heap, from, to, booking), priceOrMissing(offHeap, from, to, booking));
+                }
+            }
+        }
+    }
+
+    private long priceOrMissing(RateTimeline timeline, LocalDate from, LocalDate to, LocalDate booking) {
+        try {
+            return PricingKernel.totalPriceMinor(timeline, from, to, booking);
+        } catch (RuntimeException e) {
+            return PricingKernel.NO_PRICE;
+        }
+    }
+
+    @Test
+    void testBreakdownReadsRateIds() {
+        OffHeapRateStore store = single(
+                buildRate(41L, 9L, BASE, BASE.plusDays(2), BASE.minusDays(10), null, 100, 1),
+                buildRate(42L, 9L, BASE.plusDays(3), BASE.plusDays(5), BASE.minusDays(10), null, 150, 1));
+
+        PriceBreakdown breakdown = PricingKernel.breakdown(store.timeline(9L, (int) BASE.minusDays(1).toEpochDay()),
+                BASE.plusDays(1), BASE.plusDays(5), BASE.minusDays(1));
+
+        assertEquals(500.0, breakdown.total(), 0.001);
+        assertEquals(41L, breakdown.segments().get(0).rateId());
+        assertEquals(42L, breakdown.segments().get(1).rateId());
+    }
+
+    @Test
+    void testInvalidate_OnlyNewerVersionsMarkStale() {
+        OffHeapRateStore.Builder builder = new OffHeapRateStore.Builder(1, 1, NO_HORIZON).version(9L, 3L);
+        add(builder, buildRate(1L, 9L, BASE, BASE.plusDays(9), BASE.minusDays(10), null, 100, 1));
+        OffHeapRateStore store = builder.build();
+        int booking = (int) BASE.toEpochDay();
+
+        store.invalidate(9L, 3L);
+        assertNotNull(store.timeline(9L, booking));
+
+        store.invalidate(9L, 4L);
+        assertNull(store.timeline(9L, booking));
+
+        store.invalidate(9L, 2L);
+        assertNull(store.timeline(9L, booking));
+    }
+
+    @Test
+    void testHorizon_SkipsOldRowsAndEarlyBookings() {
+        int horizon = (int) BASE.minusDays(5).toEpochDay();
+        OffHeapRateStore.Builder builder = new OffHeapRateStore.Builder(2, 1, horizon);
+        add(builder, buildRate(1L, 9L, BASE, BASE.plusDays(9), BASE.minusDays(60), BASE.minusDays(20), 300, 1));
+        add(builder, buildRate(2L, 9L, BASE, BASE.plusDays(9), BASE.minusDays(19), null, 100, 1));
+        OffHeapRateStore store = builder.build();
+
+        assertEquals(1, store.rowCount());
+        assertNull(store.timeline(9L, horizon - 1));
+        assertEquals(2L, store.timeline(9L, horizon).rateId(0));
+    }
+
+    @Test
+    void testUnknownBungalowIsAbsent() {
+        OffHeapRateStore store = single(buildRate(1L, 9L, BASE, BASE, BASE, null, 100, 1));
+
+        assertNull(store.timeline(10L, (int) BASE.toEpochDay()));
+    }
+
+    @Test
+    void testRejectsInterleavedBungalows() {
+        OffHeapRateStore.Builder builder = new OffHeapRateStore.Builder(3, 2, NO_HORIZON);
+        add(builder, buildRate(1L, 1L, BASE, BASE, BASE, null, 100, 1));
+        add(builder, buildRate(2L, 2L, BASE, BASE, BASE, null, 100, 1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> add(builder, buildRate(3L, 1L, BASE.plusDays(1), BASE.plusDays(1), BASE, null, 100, 1)));
+    }
+
+    @Test
+    void testViewRejectsRowsOutsideBungalow() {
+        OffHeapRateStore store = single(buildRate(1L, 9L, BASE, BASE, BASE, null, 100, 1));
+        RateTimeline timeline = store.timeline(9L, (int) BASE.toEpochDay());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> timeline.stayFrom(1));
+    }
+}
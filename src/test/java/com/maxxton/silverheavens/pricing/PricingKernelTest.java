@@ -0,0 +1,218 @@
+package com.maxxton.silverheavens.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.exception.RateNotFoundException;
+
+class PricingKernelTest {
+
+    private Rates buildRate(LocalDate stayFrom, LocalDate stayTo, LocalDate bookFrom, LocalDate bookTo,
+                            double value, int nights) {
+        Rates rate = new Rates();
+        rate.setBungalowId(1L);
+        rate.setStayDateFrom(stayFrom);
+        rate.setStayDateTo(stayTo);
+        rate.setBookDateFrom(bookFrom);
+        rate.setBookDateTo(bookTo);
+        rate.setValue(value);
+        rate.setNights(nights);
+        return rate;
+    }
+
+    @Test
+    void testTotalPrice_FirstMatchingRowWins() {
+        Rates wide = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+        Rates narrow = buildRate(LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 6),
+                LocalDate.of(2025, 1, 1), null, 500, 1);
+
+        double total = PricingKernel.totalPrice(RateTimeline.of(List.of(wide, narrow)),
+                LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 8), LocalDate.of(2025, 2, 1));
+
+        assertEquals(400.0, total, 0.001);
+    }
+
+    @Test
+    void testTotalPrice_SkipsRowsOutsideBookingWindow() {
+        Rates closed = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 100, 1);
+        Rates active = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 2, 1), null, 3000, 10);
+
+        double total = PricingKernel.totalPrice(RateTimeline.of(List.of(closed, active)),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), LocalDate.of(2025, 2, 15));
+
+        assertEquals(600.0, total, 0.001);
+    }
+
+    @Test
+    void testTotalPrice_GapThrowsForFirstUncoveredNight() {
+        Rates first = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+        Rates second = buildRate(LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+
+        RateNotFoundException ex = assertThrows(RateNotFoundException.class, () ->
+                PricingKernel.totalPrice(RateTimeline.of(List.of(first, second)),
+                        LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 6), LocalDate.of(2025, 2, 1)));
+
+        assertEquals("No applicable rate found for date: 2025-03-03", ex.getMessage());
+    }
+
+    @Test
+    void testTotalPrice_ZeroNightsRejected() {
+        Rates broken = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 1, 1), null, 100, 0);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                PricingKernel.totalPrice(RateTimeline.of(List.of(broken)),
+                        LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2), LocalDate.of(2025, 2, 1)));
+    }
+
+    @Test
+    void testBreakdown_SegmentsFollowAppliedRows() {
+        Rates wide = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+        wide.setId(11L);
+        Rates narrow = buildRate(LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 6),
+                LocalDate.of(2025, 1, 1), null, 1000, 2);
+        narrow.setId(12L);
+
+        PriceBreakdown breakdown = PricingKernel.breakdown(RateTimeline.of(List.of(narrow, wide)),
+                LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 9), LocalDate.of(2025, 2, 1));
+
+        assertEquals(1400.0, breakdown.total(), 0.001);
+        assertEquals(List.of(
+                new PriceBreakdown.Segment(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 4), 2, 100.0, 11L),
+                new PriceBreakdown.Segment(LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 6), 2, 500.0, 12L),
+                new PriceBreakdown.Segment(LocalDate.of(2025, 3, 7), LocalDate.of(2025, 3, 8), 2, 100.0, 11L)),
+                breakdown.segments());
+    }
+
+    @Test
+    void testBreakdown_LongStayOnOneRateIsOneSegment() {
+        Rates season = buildRate(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                LocalDate.of(2024, 1, 1), null, 700, 7);
+        season.setId(5L);
+        RateTimeline timeline = RateTimeline.of(List.of(season));
+        LocalDate arrival = LocalDate.of(2025, 1, 10);
+        LocalDate departure = arrival.plusDays(300);
+
+        PriceBreakdown breakdown = PricingKernel.breakdown(timeline, arrival, departure, LocalDate.of(2024, 6, 1));
+
+        assertEquals(1, breakdown.segments().size());
+        assertEquals(300, breakdown.segments().get(0).nights());
+        assertEquals(departure.minusDays(1), breakdown.segments().get(0).toNight());
+        assertEquals(PricingKernel.totalPrice(timeline, arrival, departure, LocalDate.of(2024, 6, 1)),
+                breakdown.total(), 0.0);
+    }
+
+    @Test
+    void testTotalPrice_MultiNightRateKeepsItsValue() {
+        Rates threeNights = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                LocalDate.of(2025, 1, 1), null, 100, 3);
+        RateTimeline timeline = RateTimeline.of(List.of(threeNights));
+        LocalDate booked = LocalDate.of(2025, 2, 1);
+
+        assertEquals(100.0, PricingKernel.totalPrice(timeline,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 4), booked), 0.0);
+        // Any three consecutive nights cover each share once
+        assertEquals(100.0, PricingKernel.totalPrice(timeline,
+                LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 8), booked), 0.0);
+        assertEquals(200.0, PricingKernel.totalPrice(timeline,
+                LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 8), booked), 0.0);
+        assertEquals(PricingKernel.totalPrice(timeline, LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 8), booked),
+                PricingKernel.breakdown(timeline, LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 8), booked).total(),
+                0.0);
+    }
+
+    @Test
+    void testSlice_KeepsRowsOverlappingTheStayAndPricesAlike() {
+        Rates before = buildRate(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28),
+                LocalDate.of(2025, 1, 1), null, 80, 1);
+        Rates during = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+        Rates after = buildRate(LocalDate.of(2025, 4, 2), LocalDate.of(2025, 4, 30),
+                LocalDate.of(2025, 1, 1), null, 120, 1);
+        RateTimeline bookable = RateTimeline.of(List.of(before, during, after));
+        LocalDate arrival = LocalDate.of(2025, 3, 30);
+        LocalDate departure = LocalDate.of(2025, 4, 1);
+
+        RateTimeline stay = bookable.slice((int) arrival.toEpochDay(), (int) departure.toEpochDay());
+
+        assertEquals(1, stay.size());
+        assertEquals(LocalDate.of(2025, 3, 1).toEpochDay(), stay.stayFrom(0));
+        assertEquals(PricingKernel.totalPrice(bookable, arrival, departure, LocalDate.of(2025, 2, 1)),
+                PricingKernel.totalPrice(stay, arrival, departure, LocalDate.of(2025, 2, 1)), 0.0);
+    }
+
+    @Test
+    void testBreakdown_GapThrowsLikeTotalPrice() {
+        Rates first = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+
+        RateNotFoundException ex = assertThrows(RateNotFoundException.class, () ->
+                PricingKernel.breakdown(RateTimeline.of(List.of(first)),
+                        LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 4), LocalDate.of(2025, 2, 1)));
+
+        assertEquals("No applicable rate found for date: 2025-03-03", ex.getMessage());
+    }
+
+    @Test
+    void testExplainNights_CountsRowsScannedBeforeMatch() {
+        Rates closed = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 100, 1);
+        closed.setId(1L);
+        Rates wide = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3),
+                LocalDate.of(2025, 1, 1), null, 200, 1);
+        wide.setId(2L);
+        Rates later = buildRate(LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 1, 1), null, 300, 1);
+        later.setId(3L);
+        RateTimeline timeline = RateTimeline.of(List.of(closed, wide, later));
+        LocalDate arrival = LocalDate.of(2025, 3, 3);
+        LocalDate departure = LocalDate.of(2025, 3, 5);
+
+        List<QuoteExplanation.Night> nights = PricingKernel.explainNights(timeline, arrival, departure,
+                LocalDate.of(2025, 2, 1));
+
+        assertEquals(2, nights.size());
+        assertEquals(2L, nights.get(0).rateId());
+        assertEquals(2, nights.get(0).candidatesScanned());
+        assertEquals(3L, nights.get(1).rateId());
+        assertEquals(3, nights.get(1).candidatesScanned());
+        assertEquals(PricingKernel.totalPrice(timeline, arrival, departure, LocalDate.of(2025, 2, 1)),
+                nights.get(0).value() + nights.get(1).value(), 0.0);
+    }
+
+    @Test
+    void testExplain_ReportsUnmatchedNightsAndUnbookableRows() {
+        Rates closed = buildRate(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 100, 1);
+        Rates outside = buildRate(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30),
+                LocalDate.of(2025, 1, 1), null, 100, 1);
+        RateTimeline timeline = RateTimeline.of(List.of(closed, outside));
+        LocalDate arrival = LocalDate.of(2025, 3, 1);
+        LocalDate departure = LocalDate.of(2025, 3, 2);
+
+        List<QuoteExplanation.Row> rows = PricingKernel.explainRows(timeline, arrival, departure,
+                LocalDate.of(2025, 2, 1));
+        List<QuoteExplanation.Night> nights = PricingKernel.explainNights(timeline, arrival, departure,
+                LocalDate.of(2025, 2, 1));
+
+        assertEquals(1, rows.size());
+        assertFalse(rows.get(0).bookable());
+        assertEquals(LocalDate.of(2025, 1, 31), rows.get(0).bookTo());
+        assertNull(nights.get(0).rateId());
+        assertEquals(2, nights.get(0).candidatesScanned());
+    }
+}
@@ -0,0 +1,87 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Test helper that measures how many statements, entity loads and flushes Hibernate
+ * performs for a unit of work, together with its wall-clock time.
+ *
+ * <p>Requires {@code hibernate.generate_statistics=true}. Statistics are global to the
+ * session factory, so measurements must not overlap with other database activity.</p>
+ */
+class QueryCountHarness {
+
+    /**
+     * Counters captured for one measured call.
+     */
+    record Measurement(String label, int datasetSize, long statements, long entityLoads,
+                       long flushes, long elapsedMicros) {
+
+        Measurement assertStatementsAtMost(long max) {
+            assertTrue(statements <= max, describe("statements", statements, max));
+            return this;
+        }
+
+        Measurement assertEntityLoadsAtMost(long max) {
+            assertTrue(entityLoads <= max, describe("entity loads", entityLoads, max));
+            return this;
+        }
+
+        Measurement assertFlushesAtMost(long max) {
+            assertTrue(flushes <= max, describe("flushes", flushes, max));
+            return this;
+        }
+
+        private String describe(String counter, long actual, long max) {
+            return label + " @ " + datasetSize + ": " + actual + " " + counter + " exceeds bound of " + max;
+        }
+    }
+
+    private final Statistics statistics;
+
+    QueryCountHarness(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    /**
+     * Runs the work with fresh counters and prints a one-line report.
+     */
+    Measurement measure(String label, int datasetSize, Runnable work) {
+        return measure(label, datasetSize, () -> {
+            work.run();
+            return null;
+        }).measurement();
+    }
+
+    /**
+     * Variant of {@link #measure(String, int, Runnable)} that also returns the work's result.
+     */
+    <T> Result<T> measure(String label, int datasetSize, Supplier<T> work) {
+        statistics.clear();
+        long start = System.nanoTime();
+        T value = work.get();
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+        Measurement measurement = new Measurement(label, datasetSize,
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getFlushCount(),
+                elapsedMicros);
+
+        System.out.printf("%-22s size=%-5d statements=%-6d loads=%-7d flushes=%-5d time=%.2fms%n",
+                label, datasetSize, measurement.statements(), measurement.entityLoads(),
+                measurement.flushes(), elapsedMicros / 1000.0);
+        return new Result<>(value, measurement);
+    }
+
+    record Result<T>(T value, Measurement measurement) {
+    }
+}
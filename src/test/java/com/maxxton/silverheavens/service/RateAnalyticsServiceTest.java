@@ -0,0 +1,91 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.pricing.RateAnalytics;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateRepository;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RateAnalyticsServiceTest {
+
+    private static final LocalDate OPENED = LocalDate.of(2044, 1, 1);
+
+    @Autowired
+    private RateAnalyticsService analytics;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    private Rates rate(long bungalowId, LocalDate stayFrom, int days, double value, int nights, LocalDate bookTo) {
+        return TestRates.rate(bungalowId, stayFrom, stayFrom.plusDays(days - 1L), OPENED, bookTo, value, nights);
+    }
+
+    @Test
+    void testMonthlyRates_GroupsActiveRatesByStayMonth() {
+        long bungalowId = TestRates.newBungalowId();
+        List<Rates> rates = new ArrayList<>();
+        rates.add(rate(bungalowId, LocalDate.of(2045, 3, 1), 7, 100, 1, null));
+        rates.add(rate(bungalowId, LocalDate.of(2045, 3, 20), 7, 301, 2, null));
+        rates.add(rate(bungalowId, LocalDate.of(2045, 3, 10), 7, 999, 1, LocalDate.of(2044, 6, 1)));
+        rates.add(rate(bungalowId, LocalDate.of(2045, 4, 5), 7, 80, 1, null));
+        rateJdbcRepository.insertAll(rates);
+
+        List<RateAnalytics.MonthlyRate> months = analytics.monthlyRates(LocalDate.of(2045, 3, 1),
+                LocalDate.of(2045, 4, 30));
+
+        // 301 over 2 nights is 150.50 per night; the closed rate is left out
+        assertEquals(List.of(
+                new RateAnalytics.MonthlyRate(YearMonth.of(2045, 3), 2, 125.25, 100.0, 150.5),
+                new RateAnalytics.MonthlyRate(YearMonth.of(2045, 4), 1, 80.0, 80.0, 80.0)), months);
+    }
+
+    @Test
+    void testBungalowRanges_CachedUntilNextChange() {
+        long bungalowId = TestRates.newBungalowId();
+        rateJdbcRepository.insertAll(List.of(
+                rate(bungalowId, LocalDate.of(2046, 5, 1), 10, 120, 1, null),
+                rate(bungalowId, LocalDate.of(2046, 5, 11), 10, 90, 1, null)));
+
+        List<RateAnalytics.BungalowRange> first = analytics.bungalowRanges(bungalowId - 1, 1);
+        List<RateAnalytics.BungalowRange> again = analytics.bungalowRanges(bungalowId - 1, 1);
+
+        assertSame(first, again);
+        assertEquals(new RateAnalytics.BungalowRange(bungalowId, 2, 90.0, 120.0,
+                LocalDate.of(2046, 5, 1), LocalDate.of(2046, 5, 20)), first.get(0));
+
+        Long cheaper = rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId).get(1).getId();
+        rateService.closeRate(cheaper, LocalDate.of(2045, 1, 1));
+
+        List<RateAnalytics.BungalowRange> afterChange = analytics.bungalowRanges(bungalowId - 1, 1);
+
+        assertNotSame(first, afterChange);
+        assertEquals(new RateAnalytics.BungalowRange(bungalowId, 1, 120.0, 120.0,
+                LocalDate.of(2046, 5, 1), LocalDate.of(2046, 5, 10)), afterChange.get(0));
+    }
+
+    @Test
+    void testMonthlyRates_RejectsInvertedWindow() {
+        assertThrows(IllegalArgumentException.class, () ->
+                analytics.monthlyRates(LocalDate.of(2045, 2, 1), LocalDate.of(2045, 1, 1)));
+    }
+}
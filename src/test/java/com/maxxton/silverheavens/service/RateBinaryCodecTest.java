@@ -0,0 +1,127 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class RateBinaryCodecTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    private byte[] encode(int rows) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (RateBinaryCodec.Writer writer = new RateBinaryCodec.Writer(Channels.newChannel(bos))) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(
+                        i * 2L + 1,
+                        100 + (i % 7),
+                        BASE.plusDays(i % 365),
+                        BASE.plusDays(i % 365 + 6),
+                        1,
+                        100_025L + i,
+                        BASE.minusDays(30),
+                        i % 3 == 0 ? null : BASE.plusDays(10));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private RateBinaryCodec.Reader reader(byte[] bytes) throws IOException {
+        return new RateBinaryCodec.Reader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void testRoundTrip_AcrossMultipleBlocks() throws IOException {
+        int rows = RateBinaryCodec.BLOCK_ROWS * 2 + 17;
+        RateBinaryCodec.Reader reader = reader(encode(rows));
+
+        int seen = 0;
+        RateBinaryCodec.Block block;
+        while ((block = reader.nextBlock()) != null) {
+            for (int i = 0; i < block.size; i++, seen++) {
+                assertEquals(seen * 2L + 1, block.ids[i]);
+                assertEquals(100 + (seen % 7), block.bungalowIds[i]);
+                assertEquals(BASE.plusDays(seen % 365).toEpochDay(), block.stayFrom[i]);
+                assertEquals(BASE.plusDays(seen % 365 + 6).toEpochDay(), block.stayTo[i]);
+                assertEquals(100_025L + seen, block.valuesMinor[i]);
+                if (seen % 3 == 0) {
+                    assertNull(block.bookDateTo(i));
+                } else {
+                    assertEquals(BASE.plusDays(10), block.bookDateTo(i));
+                }
+            }
+        }
+
+        assertEquals(rows, seen);
+    }
+
+    @Test
+    void testReadsVersion1DoubleValues() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(RateBinaryCodec.MAGIC).putInt(RateBinaryCodec.VERSION_DOUBLE_VALUES);
+        buffer.putInt(1).putInt(3 + 4 * Integer.BYTES + Double.BYTES);
+        buffer.put((byte) 2).put((byte) 7).put((byte) 1);
+        buffer.putInt(20000).putInt(20006).putInt(19990).putInt(RateBinaryCodec.NO_DATE);
+        buffer.putDouble(99.995);
+        buffer.putInt(0).putInt(0);
+
+        RateBinaryCodec.Block block = reader(Arrays.copyOf(buffer.array(), buffer.position())).nextBlock();
+
+        assertEquals(1, block.size);
+        assertEquals(1L, block.ids[0]);
+        assertEquals(7L, block.bungalowIds[0]);
+        assertEquals(10000L, block.valuesMinor[0]);
+        assertNull(block.bookDateTo(0));
+    }
+
+    @Test
+    void testRoundTrip_NegativeVarintsInFullBlock() throws IOException {
+        // Sign-extended varints take 10 bytes; a full block of them must still fit
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (RateBinaryCodec.Writer writer = new RateBinaryCodec.Writer(Channels.newChannel(bos))) {
+            for (int i = 0; i < RateBinaryCodec.BLOCK_ROWS; i++) {
+                writer.write(Long.MAX_VALUE - i * 1_000_000_000_000L, -1L - i, BASE, BASE, -1 - i,
+                        Long.MIN_VALUE + i, BASE, null);
+            }
+        }
+
+        RateBinaryCodec.Block block = reader(bos.toByteArray()).nextBlock();
+
+        assertEquals(RateBinaryCodec.BLOCK_ROWS, block.size);
+        int last = RateBinaryCodec.BLOCK_ROWS - 1;
+        assertEquals(-1L - last, block.bungalowIds[last]);
+        assertEquals(-1 - last, block.nights[last]);
+        assertEquals(Long.MIN_VALUE + last, block.valuesMinor[last]);
+    }
+
+    @Test
+    void testEmptyExport_HasNoBlocks() throws IOException {
+        assertNull(reader(encode(0)).nextBlock());
+    }
+
+    @Test
+    void testRejectsForeignInput() {
+        byte[] garbage = "ID,BungalowID,StayDateFrom".getBytes();
+
+        assertThrows(IllegalArgumentException.class, () -> reader(garbage));
+    }
+
+    @Test
+    void testRejectsTruncatedStream() throws IOException {
+        byte[] bytes = encode(100);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        assertThrows(IOException.class, () -> reader(truncated).nextBlock());
+    }
+}
@@ -0,0 +1,64 @@
+package com.maxxton.silverheavens.service;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateChangedEvent;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+class RateChangeLogTest {
+
+    private RateJdbcRepository rateJdbcRepository;
+
+    private RateChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        rateJdbcRepository = mock(RateJdbcRepository.class);
+        changeLog = new RateChangeLog();
+        ReflectionTestUtils.setField(changeLog, "rateJdbcRepository", rateJdbcRepository);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Rates rate(long id) {
+        Rates rate = new Rates();
+        rate.setId(id);
+        rate.setBungalowId(7L);
+        return rate;
+    }
+
+    @Test
+    void testChanges_AppendedAtCommitUnderTheHeadLock() {
+        changeLog.onRateChanged(new RateChangedEvent(RateChangeType.CREATED, rate(1L)));
+        changeLog.onRateChanged(new RateChangedEvent(RateChangeType.CLOSED, rate(2L)));
+
+        verifyNoInteractions(rateJdbcRepository);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        InOrder order = inOrder(rateJdbcRepository);
+        order.verify(rateJdbcRepository).lockChangeLogHead();
+        order.verify(rateJdbcRepository).insertChanges(argThat(changes -> changes.size() == 2
+                && changes.get(0).getType() == RateChangeType.CREATED
+                && changes.get(1).getType() == RateChangeType.CLOSED));
+    }
+}
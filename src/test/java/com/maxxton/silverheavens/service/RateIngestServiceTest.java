@@ -0,0 +1,114 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateRepository;
+
+/**
+ * Runs with batches of two lines, so that every body spans several batches.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "rates.ingest.batch-size=2"
+})
+class RateIngestServiceTest {
+
+    @Autowired
+    private RateIngestService ingestService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<JsonNode> ingest(String body, RateIngestService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ingestService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    void testIngestNdjson_ReportsEveryLineInOrder() throws Exception {
+        long bungalowId = TestRates.newBungalowId();
+        String body = """
+                {"bungalowId":%1$d,"stayDateFrom":"2033-01-01","stayDateTo":"2033-01-07","nights":1,"value":100,"bookDateFrom":"2032-01-01"}
+                not json
+
+                {"bungalowId":%1$d,"stayDateFrom":"2033-02-07","stayDateTo":"2033-02-01","nights":1,"value":100,"bookDateFrom":"2032-01-01"}
+                {"bungalowId":%1$d,"stayDateFrom":"2033-03-01","stayDateTo":"2033-03-07","nights":1,"value":120,"bookDateFrom":"2032-01-01"}
+                """.formatted(bungalowId);
+
+        List<JsonNode> results = ingest(body, RateIngestService.Format.NDJSON);
+
+        assertEquals(5, results.size());
+        assertEquals(1, results.get(0).get("line").asLong());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals(2, results.get(1).get("line").asLong());
+        assertTrue(results.get(1).get("error").asText().startsWith("Malformed JSON"));
+        assertEquals(4, results.get(2).get("line").asLong());
+        assertEquals("Stay start date cannot be after end date", results.get(2).get("error").asText());
+        assertEquals("CREATED", results.get(3).get("status").asText());
+        assertEquals(4, results.get(4).get("lines").asLong());
+        assertEquals(2, results.get(4).get("created").asLong());
+        assertEquals(2, results.get(4).get("rejected").asLong());
+
+        List<Rates> stored = rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId);
+        assertEquals(2, stored.size());
+        assertEquals(results.get(0).get("rateId").asLong(), stored.get(0).getId());
+    }
+
+    @Test
+    void testIngestNdjson_TellsOverlongLinesFromBadOnes() throws Exception {
+        String body = "x".repeat(5000) + "\n\u0000\n";
+
+        List<JsonNode> results = ingest(body, RateIngestService.Format.NDJSON);
+
+        assertEquals(3, results.size());
+        assertEquals("Line exceeds 4096 characters", results.get(0).get("error").asText());
+        assertTrue(results.get(1).get("error").asText().startsWith("Malformed JSON"));
+        assertEquals(2, results.get(2).get("rejected").asLong());
+    }
+
+    @Test
+    void testIngestCsv_SkipsHeaderAndRejectsBadColumns() throws Exception {
+        long bungalowId = TestRates.newBungalowId();
+        String body = "ID,Bungalow ID,Stay From,Stay To,Nights,Value,Book From,Book To\r\n"
+                + ",%d,2033-04-01,2033-04-07,1,90.5,2032-01-01,\r\n".formatted(bungalowId)
+                + ",%d,2033-05-01,2033-05-07,one,90.5,2032-01-01\r\n".formatted(bungalowId)
+                + ",%d,2033-06-01\r\n".formatted(bungalowId);
+
+        List<JsonNode> results = ingest(body, RateIngestService.Format.CSV);
+
+        assertEquals(4, results.size());
+        assertEquals(2, results.get(0).get("line").asLong());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals("REJECTED", results.get(1).get("status").asText());
+        assertEquals("Expected 7 or 8 columns but found 3", results.get(2).get("error").asText());
+        assertEquals(1, results.get(3).get("created").asLong());
+
+        List<Rates> stored = rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId);
+        assertEquals(1, stored.size());
+        assertEquals(9050, stored.get(0).getValueMinor());
+    }
+}
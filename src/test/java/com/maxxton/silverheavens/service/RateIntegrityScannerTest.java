@@ -0,0 +1,99 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateRepository;
+import com.maxxton.silverheavens.service.RateIntegrityReport.Violation;
+import com.maxxton.silverheavens.service.RateIntegrityReport.ViolationType;
+
+/**
+ * Runs with a few rows per chunk, so that even a small table is checked as many parallel chunks.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "rates.integrity.chunk-rows=3",
+        "rates.integrity.max-reported=100000"
+})
+class RateIntegrityScannerTest {
+
+    private static final LocalDate SEASON_START = LocalDate.of(2032, 1, 1);
+    private static final LocalDate OPENED = LocalDate.of(2031, 1, 1);
+
+    @Autowired
+    private RateIntegrityScanner scanner;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    /**
+     * Inserts active rates for a new bungalow, one per {@code {firstDay, lastDay, value}}
+     * relative to the season start, bypassing the service so no merge runs.
+     */
+    private long seedBungalow(int[]... stays) {
+        long bungalowId = TestRates.newBungalowId();
+        List<Rates> rates = new ArrayList<>(stays.length);
+        for (int[] stay : stays) {
+            rates.add(TestRates.rate(bungalowId, SEASON_START.plusDays(stay[0]), SEASON_START.plusDays(stay[1]),
+                    OPENED, null, stay[2], 1));
+        }
+        rateJdbcRepository.insertAll(rates);
+        return bungalowId;
+    }
+
+    private List<Long> idsOf(long bungalowId) {
+        return rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId).stream().map(Rates::getId).toList();
+    }
+
+    private List<Violation> violationsOf(RateIntegrityReport report, long bungalowId) {
+        return report.violations().stream().filter(v -> v.bungalowId() == bungalowId).toList();
+    }
+
+    @Test
+    void testScan_ReportsOverlapsAndUnmergedSegments() {
+        long broken = seedBungalow(new int[] {0, 6, 100}, new int[] {7, 13, 100},
+                new int[] {14, 20, 200}, new int[] {18, 25, 300});
+        long clean = seedBungalow(new int[] {0, 6, 100}, new int[] {7, 13, 200}, new int[] {14, 20, 100});
+        List<Long> ids = idsOf(broken);
+
+        RateIntegrityReport report = scanner.scan(false);
+
+        assertEquals(List.of(
+                new Violation(ViolationType.UNMERGED, broken, ids.get(1), ids.get(0)),
+                new Violation(ViolationType.OVERLAP, broken, ids.get(3), ids.get(2))),
+                violationsOf(report, broken));
+        assertTrue(violationsOf(report, clean).isEmpty());
+        assertTrue(report.rows() >= 7);
+        assertEquals(0, report.repaired());
+    }
+
+    @Test
+    void testScan_RepairMergesChainsOfAdjacentRates() {
+        long bungalowId = seedBungalow(new int[] {0, 6, 100}, new int[] {7, 13, 100}, new int[] {14, 20, 100});
+
+        RateIntegrityReport repairing = scanner.scan(true);
+        RateIntegrityReport after = scanner.scan(false);
+
+        assertEquals(2, violationsOf(repairing, bungalowId).size());
+        assertTrue(repairing.repaired() >= 1);
+        assertTrue(violationsOf(after, bungalowId).isEmpty());
+
+        List<Rates> active = rateRepository.findByBungalowIdAndBookDateToIsNullOrderByStayDateFrom(bungalowId);
+        assertEquals(1, active.size());
+        assertEquals(SEASON_START, active.get(0).getStayDateFrom());
+        assertEquals(SEASON_START.plusDays(20), active.get(0).getStayDateTo());
+    }
+}
@@ -0,0 +1,66 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateRepository;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RateServiceBinaryImportTest {
+
+    private static final LocalDate BASE = LocalDate.of(2036, 1, 1);
+
+    private static final long POPULATED = 95_001L;
+
+    private static final long EMPTY = 95_002L;
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    /**
+     * Encodes an active rate and a rate closed before its booking window opened.
+     */
+    private ByteArrayInputStream export(long... bungalowIds) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (RateBinaryCodec.Writer writer = new RateBinaryCodec.Writer(Channels.newChannel(bos))) {
+            for (long bungalowId : bungalowIds) {
+                writer.write(1L, bungalowId, BASE, BASE.plusDays(6), 1, 10_000L, BASE.minusDays(60), null);
+                writer.write(2L, bungalowId, BASE.plusDays(7), BASE.plusDays(13), 1, 12_000L,
+                        BASE.minusDays(30), BASE.minusDays(40));
+            }
+        }
+        return new ByteArrayInputStream(bos.toByteArray());
+    }
+
+    @Test
+    void testImport_LoadsHistoryOnceAndRejectsPopulatedBungalows() throws IOException {
+        assertEquals(2, rateService.importRatesFromBinary(Channels.newChannel(export(POPULATED))));
+
+        List<Rates> stored = rateRepository.findByBungalowIdOrderByStayDateFrom(POPULATED);
+        assertEquals(2, stored.size());
+        assertNull(stored.get(0).getBookDateTo());
+        assertEquals(BASE.minusDays(40), stored.get(1).getBookDateTo());
+
+        // Importing the same file again, even alongside an empty bungalow, changes nothing
+        assertThrows(IllegalArgumentException.class,
+                () -> rateService.importRatesFromBinary(Channels.newChannel(export(EMPTY, POPULATED))));
+        assertEquals(2, rateRepository.findByBungalowIdOrderByStayDateFrom(POPULATED).size());
+        assertEquals(0, rateRepository.findByBungalowIdOrderByStayDateFrom(EMPTY).size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.maxxton.silverheavens.entity.RateChange;
+import com.maxxton.silverheavens.entity.RateChangeType;
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateRepository;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RateServiceBulkTest {
+
+    private static final LocalDate SEASON_START = LocalDate.of(2031, 1, 1);
+    private static final LocalDate OPENED = LocalDate.of(2030, 1, 1);
+    private static final LocalDate CLOSING = LocalDate.of(2030, 6, 1);
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private RateChangeLog rateChangeLog;
+
+    /**
+     * Inserts one week-long rate per week of the season for a new bungalow,
+     * bypassing the service so that no version or change log entry exists yet.
+     */
+    private long seedBungalow(int weeks, LocalDate bookFrom) {
+        long bungalowId = TestRates.newBungalowId();
+        List<Rates> rates = new ArrayList<>(weeks);
+        for (int week = 0; week < weeks; week++) {
+            rates.add(TestRates.rate(bungalowId, SEASON_START.plusWeeks(week), SEASON_START.plusWeeks(week).plusDays(6),
+                    bookFrom, null, 100 + week, 1));
+        }
+        rateJdbcRepository.insertAll(rates);
+        return bungalowId;
+    }
+
+    private List<RateChange> changesOf(long bungalowId) {
+        return rateChangeLog.readAfter(0, 5000).stream()
+                .filter(change -> change.getBungalowId() == bungalowId)
+                .toList();
+    }
+
+    @Test
+    void testCloseRates_ClosesOnlyMatchingRowsAndBumpsAffectedBungalows() {
+        long first = seedBungalow(8, OPENED);
+        long second = seedBungalow(8, OPENED);
+        long untouched = seedBungalow(8, OPENED);
+
+        // Weeks 2 to 4 overlap the window
+        RateBulkChange result = rateService.closeRates(new RateBulkChange.CloseRequest(
+                List.of(first, second), SEASON_START.plusWeeks(2), SEASON_START.plusWeeks(4), CLOSING));
+
+        assertEquals(6, result.affectedRows());
+        assertEquals(List.of(first, second), result.bungalowIds());
+
+        List<Rates> rates = rateRepository.findByBungalowIdOrderByStayDateFrom(first);
+        for (int week = 0; week < rates.size(); week++) {
+            LocalDate expected = week >= 2 && week <= 4 ? CLOSING : null;
+            assertEquals(expected, rates.get(week).getBookDateTo());
+        }
+        assertEquals(1L, rates.get(2).getVersion());
+        assertEquals(0L, rates.get(1).getVersion());
+
+        assertEquals(1L, rateJdbcRepository.findRateVersion(first));
+        assertEquals(1L, rateJdbcRepository.findRateVersion(second));
+        assertEquals(0L, rateJdbcRepository.findRateVersion(untouched));
+
+        List<RateChange> changes = changesOf(first);
+        assertEquals(3, changes.size());
+        changes.forEach(change -> {
+            assertEquals(RateChangeType.CLOSED, change.getType());
+            assertEquals(CLOSING, change.getBookDateTo());
+        });
+    }
+
+    @Test
+    void testCloseRates_SkipsRowsNotYetBookableOrAlreadyClosed() {
+        long bungalowId = seedBungalow(2, CLOSING.plusDays(1));
+        long closedAlready = seedBungalow(2, OPENED);
+        rateService.closeRates(new RateBulkChange.CloseRequest(
+                List.of(closedAlready), SEASON_START, SEASON_START.plusWeeks(1), CLOSING));
+
+        RateBulkChange result = rateService.closeRates(new RateBulkChange.CloseRequest(
+                List.of(bungalowId, closedAlready), SEASON_START, SEASON_START.plusWeeks(1), CLOSING));
+
+        assertEquals(0, result.affectedRows());
+        assertNull(rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId).get(0).getBookDateTo());
+        assertEquals(1L, rateJdbcRepository.findRateVersion(closedAlready));
+    }
+
+    @Test
+    void testPurgeRates_DeletesOnlyRowsBookableFromFilterDate() {
+        long bungalowId = seedBungalow(4, OPENED);
+        long empty = TestRates.newBungalowId();
+        LocalDate importDay = LocalDate.of(2030, 3, 1);
+        Rates erroneous = TestRates.rate(bungalowId, SEASON_START, SEASON_START.plusDays(3), importDay, null, 1, 1);
+        rateJdbcRepository.insertAll(new ArrayList<>(List.of(erroneous)));
+
+        RateBulkChange result = rateService.purgeRates(new RateBulkChange.PurgeRequest(
+                List.of(bungalowId, empty), SEASON_START, SEASON_START.plusWeeks(8), importDay));
+
+        assertEquals(1, result.affectedRows());
+        assertEquals(List.of(bungalowId), result.bungalowIds());
+        assertEquals(4, rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId).size());
+        assertEquals(1L, rateJdbcRepository.findRateVersion(bungalowId));
+
+        List<RateChange> changes = changesOf(bungalowId);
+        assertEquals(1, changes.size());
+        assertEquals(RateChangeType.DELETED, changes.get(0).getType());
+        assertEquals(erroneous.getId(), changes.get(0).getRateId());
+    }
+
+    @Test
+    void testBulkRequests_RejectInvertedWindow() {
+        assertThrows(IllegalArgumentException.class, () -> rateService.purgeRates(new RateBulkChange.PurgeRequest(
+                List.of(1L), SEASON_START.plusDays(1), SEASON_START, null)));
+        assertThrows(IllegalArgumentException.class, () -> rateService.closeRates(new RateBulkChange.CloseRequest(
+                List.of(1L), SEASON_START.plusDays(1), SEASON_START, CLOSING)));
+    }
+
+    @Test
+    void testBulkRequests_RejectTooManyBungalows() {
+        List<Long> bungalowIds = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> rateService.closeRates(new RateBulkChange.CloseRequest(
+                bungalowIds, SEASON_START, SEASON_START, CLOSING)));
+        assertThrows(IllegalArgumentException.class, () -> rateService.purgeRates(new RateBulkChange.PurgeRequest(
+                bungalowIds, SEASON_START, SEASON_START, null)));
+    }
+}
@@ -24,8 +24,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
+import com.maxxton.silverheavens.entity.RateChangeType;
 import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateChangedEvent;
 import com.maxxton.silverheavens.repository.RateRepository;
 
 public class RateServiceCreateTest {
@@ -33,6 +36,9 @@ public class RateServiceCreateTest {
     @Mock
     private RateRepository ratesRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RateService ratesService;
 
@@ -71,6 +77,18 @@ public class RateServiceCreateTest {
         verify(ratesRepository, atLeastOnce()).save(any(Rates.class));
     }
 
+    @Test
+    void testCreateRate_PublishesCreatedEvent() {
+        when(ratesRepository.findByBungalowIdOrderByStayDateFrom(10L))
+                .thenReturn(Collections.emptyList());
+        when(ratesRepository.save(any(Rates.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Rates result = ratesService.createRate(sampleRate);
+
+        verify(eventPublisher, times(1)).publishEvent(new RateChangedEvent(RateChangeType.CREATED, result));
+    }
+
     @Test
     void testCreateRate_NormalizesValue_WhenMultipleNights() {
         sampleRate.setNights(3);
@@ -87,6 +105,22 @@ public class RateServiceCreateTest {
         assertEquals(3000, result.getValue());
     }
 
+    @Test
+    void testCreateRate_KeepsNights_WhenValueDoesNotDivideEvenly() {
+        sampleRate.setNights(3);
+        sampleRate.setValue(100);
+
+        when(ratesRepository.findByBungalowIdOrderByStayDateFrom(10L))
+                .thenReturn(Collections.emptyList());
+        when(ratesRepository.save(any(Rates.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Rates result = ratesService.createRate(sampleRate);
+
+        assertEquals(3, result.getNights());
+        assertEquals(100, result.getValue());
+    }
+
     @Test
     void testCreateRate_WithOverlappingRates() {
         Rates existing = new Rates();
@@ -108,6 +142,29 @@ public class RateServiceCreateTest {
         verify(ratesRepository, atLeastOnce()).save(any(Rates.class));
     }
 
+    @Test
+    void testCreateRate_InsideRateOfSameValueButOtherNights_IsNotDuplicate() {
+        Rates existing = new Rates();
+        existing.setBungalowId(10L);
+        existing.setStayDateFrom(LocalDate.of(2025, 3, 1));
+        existing.setStayDateTo(LocalDate.of(2025, 3, 31));
+        existing.setValue(100);
+        existing.setNights(1);
+
+        // 100.00 over three nights does not divide evenly, so it keeps its nights
+        sampleRate.setValue(100);
+        sampleRate.setNights(3);
+
+        when(ratesRepository.findByBungalowIdOrderByStayDateFrom(10L))
+                .thenReturn(List.of(existing));
+        when(ratesRepository.save(any(Rates.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Rates result = ratesService.createRate(sampleRate);
+
+        assertEquals(3, result.getNights());
+    }
+
     @Test
     void testCreateRate_WhenValidationFails() {
         doThrow(new RuntimeException("Invalid rate"))
@@ -178,6 +235,64 @@ public class RateServiceCreateTest {
         ));
     }
 
+    @Test
+    void testMergeAdjacentRates_KeepsNightsOfMultiNightRates() {
+        Rates r1 = new Rates();
+        r1.setBungalowId(10L);
+        r1.setStayDateFrom(LocalDate.of(2025, 3, 1));
+        r1.setStayDateTo(LocalDate.of(2025, 3, 30));
+        r1.setValue(100);
+        r1.setNights(3);
+        r1.setBookDateFrom(LocalDate.of(2025, 1, 1));
+
+        Rates r2 = new Rates();
+        r2.setBungalowId(10L);
+        r2.setStayDateFrom(LocalDate.of(2025, 3, 31));
+        r2.setStayDateTo(LocalDate.of(2025, 4, 29));
+        r2.setValue(100);
+        r2.setNights(3);
+        r2.setBookDateFrom(LocalDate.of(2025, 2, 1));
+
+        when(ratesRepository.findByBungalowIdAndBookDateToIsNullOrderByStayDateFrom(10L))
+                .thenReturn(List.of(r1, r2));
+        when(ratesRepository.save(any(Rates.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ratesService.mergeAdjacentRates(10L);
+
+        verify(ratesRepository).delete(r2);
+        verify(ratesRepository).save(argThat((Rates rate) ->
+                rate.getStayDateFrom().equals(LocalDate.of(2025, 3, 1))
+                        && rate.getStayDateTo().equals(LocalDate.of(2025, 4, 29))
+                        && rate.getNights() == 3
+                        && rate.getValueMinor() == 10_000L));
+    }
+
+    @Test
+    void testMergeAdjacentRates_DoesNotMergeWhenNightsDiffer() {
+        Rates r1 = new Rates();
+        r1.setBungalowId(10L);
+        r1.setStayDateFrom(LocalDate.of(2025, 3, 1));
+        r1.setStayDateTo(LocalDate.of(2025, 3, 31));
+        r1.setValue(100);
+        r1.setNights(1);
+
+        Rates r2 = new Rates();
+        r2.setBungalowId(10L);
+        r2.setStayDateFrom(LocalDate.of(2025, 4, 1));
+        r2.setStayDateTo(LocalDate.of(2025, 4, 30));
+        r2.setValue(100);
+        r2.setNights(3);
+
+        when(ratesRepository.findByBungalowIdAndBookDateToIsNullOrderByStayDateFrom(10L))
+                .thenReturn(List.of(r1, r2));
+
+        ratesService.mergeAdjacentRates(10L);
+
+        verify(ratesRepository, never()).delete(r2);
+        verify(ratesRepository, never()).save(any());
+    }
+
     @Test
     void testMergeAdjacentRates_SingleRateDoesNothing() {
         Rates r1 = new Rates();
@@ -0,0 +1,89 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.pricing.QuoteExplanation;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RateServiceExplainTest {
+
+    private static final long BUNGALOW_ID = 96_001L;
+
+    private static final LocalDate SEASON_START = LocalDate.of(2037, 3, 1);
+
+    private static final LocalDate BOOKED = LocalDate.of(2037, 1, 15);
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    private static Rates rate(LocalDate stayFrom, LocalDate stayTo, double value, int nights) {
+        Rates rate = new Rates();
+        rate.setBungalowId(BUNGALOW_ID);
+        rate.setStayDateFrom(stayFrom);
+        rate.setStayDateTo(stayTo);
+        rate.setBookDateFrom(LocalDate.of(2037, 1, 1));
+        rate.setValue(value);
+        rate.setNights(nights);
+        return rate;
+    }
+
+    /**
+     * Two back-to-back rates, the later one of 100.00 over three nights.
+     */
+    @BeforeEach
+    void seed() {
+        if (!rateJdbcRepository.findBungalowsWithRates(List.of(BUNGALOW_ID)).isEmpty()) {
+            return;
+        }
+        rateJdbcRepository.insertAll(new ArrayList<>(List.of(
+                rate(SEASON_START, SEASON_START.plusDays(2), 80, 1),
+                rate(SEASON_START.plusDays(3), SEASON_START.plusDays(30), 100, 3))));
+    }
+
+    @Test
+    void testExplainPrice_MatchesCalculatePrice() {
+        LocalDate arrival = SEASON_START.plusDays(1);
+        LocalDate departure = SEASON_START.plusDays(6);
+
+        QuoteExplanation explanation = rateService.explainPrice(BUNGALOW_ID, arrival, departure, BOOKED);
+
+        assertEquals(QuoteExplanation.Source.COALESCED_FETCH, explanation.source());
+        assertNull(explanation.error());
+        assertEquals(rateService.calculatePrice(BUNGALOW_ID, arrival, departure, BOOKED), explanation.total(), 0.0);
+        assertEquals(260.0, explanation.total(), 0.0);
+        assertEquals(explanation.total(),
+                explanation.nights().stream().mapToDouble(QuoteExplanation.Night::value).sum(), 0.001);
+
+        // The sweep visits the first row before matching nights of the second
+        QuoteExplanation.Night first = explanation.nights().get(0);
+        QuoteExplanation.Night last = explanation.nights().get(explanation.nights().size() - 1);
+        assertEquals(1, first.candidatesScanned());
+        assertEquals(2, last.candidatesScanned());
+    }
+
+    @Test
+    void testExplainPrice_ReportsUnpricedStay() {
+        LocalDate arrival = SEASON_START.plusDays(29);
+
+        QuoteExplanation explanation = rateService.explainPrice(BUNGALOW_ID, arrival, arrival.plusDays(3), BOOKED);
+
+        assertNull(explanation.total());
+        assertEquals("No applicable rate found for date: " + SEASON_START.plusDays(31), explanation.error());
+        assertEquals(explanation.timelineRows(), explanation.nights().get(2).candidatesScanned());
+    }
+}
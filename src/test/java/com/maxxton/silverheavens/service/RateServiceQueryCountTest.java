@@ -0,0 +1,197 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateJdbcRepository;
+import com.maxxton.silverheavens.repository.RateRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards against query-count regressions in {@link RateService}.
+ *
+ * <p>Each workflow runs against bungalows with a growing number of existing rates and
+ * asserts upper bounds on statements, entity loads and flushes. Statement bounds for
+ * single-rate operations are constant, so any per-row query introduced later fails here.
+ * Pricing runs on the JPA path so its statements are visible to Hibernate statistics.</p>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn",
+        "spring.jpa.show-sql=false",
+        "rates.pricing.jdbc-path=false",
+        "rates.pricing.coalesce-fetches=false"
+})
+class RateServiceQueryCountTest {
+
+    private static final LocalDate SEASON_START = LocalDate.of(2030, 1, 1);
+
+    /** Bungalow ids are unique per dataset so that measurements never share rows. */
+    private static final AtomicLong NEXT_BUNGALOW = new AtomicLong(50_000);
+
+    @Autowired
+    private RateService rateService;
+
+    @Autowired
+    private RateRepository rateRepository;
+
+    @Autowired
+    private RateJdbcRepository rateJdbcRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryCountHarness harness;
+
+    @BeforeEach
+    void setUp() {
+        harness = new QueryCountHarness(entityManagerFactory);
+    }
+
+    private Rates dailyRate(long bungalowId, int dayOffset) {
+        Rates rate = new Rates();
+        rate.setBungalowId(bungalowId);
+        rate.setStayDateFrom(SEASON_START.plusDays(dayOffset));
+        rate.setStayDateTo(SEASON_START.plusDays(dayOffset));
+        rate.setBookDateFrom(LocalDate.of(2029, 1, 1));
+        rate.setNights(1);
+        // Alternating values keep adjacent days from merging
+        rate.setValue(100 + (dayOffset % 2));
+        return rate;
+    }
+
+    /**
+     * Inserts {@code size} consecutive daily rates for a new bungalow, bypassing the service.
+     */
+    private long seedBungalow(int size) {
+        long bungalowId = NEXT_BUNGALOW.incrementAndGet();
+        List<Rates> rates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rates.add(dailyRate(bungalowId, i));
+        }
+        rateJdbcRepository.insertAll(rates);
+        return bungalowId;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void createRate(int size) {
+        long bungalowId = seedBungalow(size);
+        Rates newRate = dailyRate(bungalowId, size + 10);
+        newRate.setValue(500);
+
+        harness.measure("createRate", size, () -> rateService.createRate(newRate))
+                .assertStatementsAtMost(15)
+                .assertEntityLoadsAtMost(2L * size + 10)
+                .assertFlushesAtMost(10);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void updateRate(int size) {
+        long bungalowId = seedBungalow(size);
+        Long lastId = rateRepository.findByBungalowIdOrderByStayDateFrom(bungalowId).get(size - 1).getId();
+        Rates updated = dailyRate(bungalowId, size - 1);
+        updated.setValue(750);
+
+        harness.measure("updateRate", size, () -> rateService.updateRate(lastId, updated))
+                .assertStatementsAtMost(20)
+                .assertEntityLoadsAtMost(2L * size + 10)
+                .assertFlushesAtMost(12);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void calculatePrice(int size) {
+        long bungalowId = seedBungalow(size);
+        LocalDate arrival = SEASON_START.plusDays(size - 8);
+
+        QueryCountHarness.Result<Double> result = harness.measure("calculatePrice", size, () ->
+                rateService.calculatePrice(bungalowId, arrival, arrival.plusDays(7), LocalDate.of(2029, 6, 1)));
+
+        result.measurement()
+                .assertStatementsAtMost(1)
+                .assertEntityLoadsAtMost(10)
+                .assertFlushesAtMost(2);
+        assertEquals(703.0, result.value(), 0.001);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 500})
+    void importRatesFromExcel(int size) throws IOException {
+        long bungalowId = NEXT_BUNGALOW.incrementAndGet();
+        MockMultipartFile file = new MockMultipartFile("file", "rates.xlsx",
+                "application/vnd.ms-excel", workbookWithDailyRates(bungalowId, size));
+
+        harness.measure("importRatesFromExcel", size, () -> {
+            try {
+                rateService.importRatesFromExcel(file);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        })
+                .assertStatementsAtMost(10L * size + 10)
+                .assertEntityLoadsAtMost(2L * size + 10)
+                .assertFlushesAtMost(4L * size + 5);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void exportRatesToExcel(int size) {
+        seedBungalow(size);
+        long totalRows = rateRepository.count();
+
+        harness.measure("exportRatesToExcel", size, () -> {
+            try {
+                rateService.exportRatesToExcel();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        })
+                .assertStatementsAtMost(1)
+                .assertEntityLoadsAtMost(totalRows)
+                .assertFlushesAtMost(2);
+    }
+
+    private byte[] workbookWithDailyRates(long bungalowId, int size) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Rates");
+            sheet.createRow(0).createCell(0).setCellValue("ID");
+            for (int i = 0; i < size; i++) {
+                Rates rate = dailyRate(bungalowId, i);
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(0);
+                row.createCell(1).setCellValue(rate.getBungalowId());
+                row.createCell(2).setCellValue(rate.getStayDateFrom().toString());
+                row.createCell(3).setCellValue(rate.getStayDateTo().toString());
+                row.createCell(4).setCellValue(rate.getNights());
+                row.createCell(5).setCellValue(rate.getValue());
+                row.createCell(6).setCellValue(rate.getBookDateFrom().toString());
+                row.createCell(7).setCellValue("");
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            workbook.write(bos);
+            return bos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.maxxton.silverheavens.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.repository.RateRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RateServiceSimulationTest {
+
+    @Mock
+    private RateRepository rateRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RateService rateService;
+
+    private Rates existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = new Rates();
+        existing.setId(1L);
+        existing.setBungalowId(10L);
+        existing.setStayDateFrom(LocalDate.of(2025, 3, 1));
+        existing.setStayDateTo(LocalDate.of(2025, 3, 31));
+        existing.setNights(1);
+        existing.setValue(3000);
+        existing.setBookDateFrom(LocalDate.of(2025, 1, 1));
+
+        when(rateRepository.findByBungalowIdOrderByStayDateFrom(10L)).thenReturn(List.of(existing));
+    }
+
+    private Rates newRate(double value) {
+        Rates rate = new Rates();
+        rate.setBungalowId(10L);
+        rate.setStayDateFrom(LocalDate.of(2025, 3, 10));
+        rate.setStayDateTo(LocalDate.of(2025, 3, 20));
+        rate.setNights(1);
+        rate.setValue(value);
+        rate.setBookDateFrom(LocalDate.of(2025, 2, 1));
+        return rate;
+    }
+
+    @Test
+    void testSimulateCreateRate_ReturnsSplitDiffWithoutWriting() {
+        RateSimulation.SampleStay stay = new RateSimulation.SampleStay(
+                LocalDate.of(2025, 3, 9), LocalDate.of(2025, 3, 11), LocalDate.of(2025, 2, 15));
+
+        RateSimulation result = rateService.simulateCreateRate(newRate(3500), List.of(stay));
+
+        assertEquals(3, result.inserted().size());
+        assertEquals(List.of(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 21)),
+                result.inserted().stream().map(Rates::getStayDateFrom).toList());
+        assertTrue(result.inserted().stream().allMatch(r -> r.getId() == null));
+
+        assertEquals(1, result.closed().size());
+        assertEquals(1L, result.closed().get(0).getId());
+        assertEquals(LocalDate.of(2025, 2, 1), result.closed().get(0).getBookDateTo());
+        assertTrue(result.deleted().isEmpty());
+
+        RateSimulation.PriceDelta delta = result.priceDeltas().get(0);
+        assertEquals(6000.0, delta.before(), 0.001);
+        assertEquals(6500.0, delta.after(), 0.001);
+
+        assertNull(existing.getBookDateTo(), "the loaded entity must not be modified");
+        verify(rateRepository, never()).save(any());
+        verify(rateRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testSimulateCreateRate_UnbookableSampleHasNoPrice() {
+        RateSimulation.SampleStay stay = new RateSimulation.SampleStay(
+                LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 3), LocalDate.of(2025, 2, 15));
+
+        RateSimulation result = rateService.simulateCreateRate(newRate(3500), List.of(stay));
+
+        assertNull(result.priceDeltas().get(0).before());
+        assertNull(result.priceDeltas().get(0).after());
+    }
+
+    @Test
+    void testSimulateCreateRate_RejectsWhatCreateRateRejects() {
+        Rates duplicate = newRate(3000);
+
+        assertThrows(IllegalArgumentException.class, () -> rateService.simulateCreateRate(duplicate, List.of()));
+        verify(rateRepository, never()).save(any());
+    }
+}
@@ -18,8 +18,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import com.maxxton.silverheavens.entity.RateChangeType;
 import com.maxxton.silverheavens.entity.Rates;
+import com.maxxton.silverheavens.event.RateChangedEvent;
 import com.maxxton.silverheavens.repository.RateRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +31,9 @@ class RateServiceTest {
     @Mock
     private RateRepository rateRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RateService rateService;
 
@@ -99,7 +105,24 @@ class RateServiceTest {
         verify(rateRepository, times(1)).findByBungalowIdOrderByStayDateFrom(101L);
     }
 
-    
+    @Test
+    void testDeleteRate_publishesDeletedEvent() {
+        when(rateRepository.findById(1L)).thenReturn(Optional.of(rate1));
+
+        rateService.deleteRate(1L);
 
+        verify(rateRepository, times(1)).delete(rate1);
+        verify(eventPublisher, times(1)).publishEvent(new RateChangedEvent(RateChangeType.DELETED, rate1));
+    }
 
+    @Test
+    void testCloseRate_publishesClosedEvent() {
+        when(rateRepository.findById(1L)).thenReturn(Optional.of(rate1));
+        when(rateRepository.save(rate1)).thenReturn(rate1);
+
+        rateService.closeRate(1L, LocalDate.of(2025, 6, 1));
+
+        assertEquals(LocalDate.of(2025, 6, 1), rate1.getBookDateTo());
+        verify(eventPublisher, times(1)).publishEvent(new RateChangedEvent(RateChangeType.CLOSED, rate1));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.maxxton.silverheavens.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.maxxton.silverheavens.entity.Rates;
+
+/**
+ * Rows for tests that seed the shared test database directly.
+ *
+ * <p>Every test gets bungalows of its own from {@link #newBungalowId()}, so assertions
+ * never see rows of another test, whichever order the test classes run in.</p>
+ */
+final class TestRates {
+
+    /** Above the fixed ids used by the load tests and the query-count test. */
+    private static final AtomicLong NEXT_BUNGALOW = new AtomicLong(1_000_000);
+
+    private TestRates() {
+    }
+
+    /**
+     * @return a bungalow id no other test uses
+     */
+    static long newBungalowId() {
+        return NEXT_BUNGALOW.incrementAndGet();
+    }
+
+    /**
+     * Builds an unsaved rate.
+     *
+     * @param bookTo last booking date, {@code null} for an active rate
+     */
+    static Rates rate(long bungalowId, LocalDate stayFrom, LocalDate stayTo, LocalDate bookFrom, LocalDate bookTo,
+                      double value, int nights) {
+        Rates rate = new Rates();
+        rate.setBungalowId(bungalowId);
+        rate.setStayDateFrom(stayFrom);
+        rate.setStayDateTo(stayTo);
+        rate.setBookDateFrom(bookFrom);
+        rate.setBookDateTo(bookTo);
+        rate.setValue(value);
+        rate.setNights(nights);
+        return rate;
+    }
+}